@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.jcalvopinam;
+
+import com.jcalvopinam.benchmark.Application;
+import com.jcalvopinam.benchmark.Payloads;
+import com.jcalvopinam.utils.Constants;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@code GET /api/releases/:id} through the whole application deployed by {@link MainVerticle}, with
+ * the same number of HTTP and DB verticle instances. Many client threads keep requests in flight, so the result
+ * shows how far the application scales as instances are added.
+ *
+ * @author Juan Calvopina
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+public class ScalingBenchmark {
+
+    private static final int PORT = 18080;
+    private static final String API_RELEASES = "/api/releases";
+
+    @Param({"1", "2", "4", "8"})
+    private int instances;
+
+    private Vertx vertx;
+
+    @Setup
+    public void setup() throws Exception {
+        vertx = Vertx.vertx();
+        JsonObject config = Application.config().put("jdbc.url", "jdbc:hsqldb:mem:scaling" + instances)
+                                        .put(Constants.CONFIG_HTTP_PORT, PORT)
+                                        .put(Constants.CONFIG_HTTP_INSTANCES, instances)
+                                        .put(Constants.CONFIG_DB_INSTANCES, instances);
+        Application.deploy(vertx, config);
+
+        HttpClient client = vertx.createHttpClient(new HttpClientOptions().setDefaultPort(PORT));
+        CompletableFuture<Integer> created = new CompletableFuture<>();
+        client.post(API_RELEASES, response -> created.complete(response.statusCode()))
+              .putHeader(Constants.CONTENT_TYPE, Constants.APPLICATION_JSON_UTF_8)
+              .end(Payloads.release(0, 1024).toJson().encode());
+        created.get();
+        client.close();
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close();
+    }
+
+    /**
+     * One client per benchmark thread, so the requests are not all funneled through a single client connection pool.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+
+        private HttpClient httpClient;
+
+        @Setup
+        public void setup(ScalingBenchmark benchmark) {
+            httpClient = benchmark.vertx.createHttpClient(new HttpClientOptions().setDefaultPort(PORT)
+                                                                                 .setKeepAlive(true));
+        }
+
+        @TearDown
+        public void tearDown() {
+            httpClient.close();
+        }
+
+    }
+
+    @Benchmark
+    public int getReleaseById(Client client) throws Exception {
+        CompletableFuture<Integer> status = new CompletableFuture<>();
+        client.httpClient.getNow(API_RELEASES + "/0", response -> response.bodyHandler(body -> status.complete(
+                response.statusCode())));
+        return status.get();
+    }
+
+}
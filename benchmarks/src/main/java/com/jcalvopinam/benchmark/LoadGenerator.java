@@ -0,0 +1,321 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.jcalvopinam.utils.Constants;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import org.HdrHistogram.Histogram;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Open-model load generator: boots the application against a scratch in-memory HSQLDB and sends a mix of requests to
+ * the {@code /api/releases} routes at a fixed rate, whether or not the previous responses have arrived. The latency
+ * of each request is measured from the time it was scheduled to be sent, not from the time it was actually sent, so
+ * a stalled server is charged for the requests it held back (coordinated omission). The percentiles of each route,
+ * and the full distribution of all of them, are printed as HdrHistogram tables in milliseconds.
+ * <p>
+ * Options, all optional: {@code --rate=<requests per second>}, {@code --duration=<seconds>},
+ * {@code --warmup=<seconds>}, {@code --seed=<releases inserted before the run>}, {@code --connections=<n>} and
+ * {@code --mix=GET_BY_ID:50,CREATE:10,...} to override the weight of the operations.
+ *
+ * @author Juan Calvopina
+ */
+public final class LoadGenerator {
+
+    private static final String APPLICATION_LOGGER = "com.jcalvopinam";
+    private static final int PORT = 18081;
+    private static final int SEED_CHUNK = 500;
+    private static final int CONTENT_SIZE = 1024;
+    private static final int PAGE_LIMIT = 50;
+    private static final long TICK_MILLIS = 1;
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final double MICROS_PER_MILLI = 1000.0;
+    private static final String API_RELEASES = "/api/releases";
+    private static final String API_RELEASES_BULK = "/api/releases/_bulk";
+    private static final String API_RELEASES_SEARCH = "/api/releases/search";
+    private static final String[] SEARCH_TERMS = {"bug", "deployment", "pipeline", "release", "service", "notes"};
+
+    /**
+     * The operations of the workload with their default weight.
+     */
+    private enum Operation {
+        GET_BY_ID(50), LIST_PAGE(15), SEARCH(10), CREATE(10), BULK_CREATE(2), UPDATE(10), DELETE(3);
+
+        private final int defaultWeight;
+
+        Operation(int defaultWeight) {
+            this.defaultWeight = defaultWeight;
+        }
+    }
+
+    private final WebClient client;
+    private final Map<Operation, Integer> weights;
+    private final int totalWeight;
+    private final int seed;
+    private int created;
+    private int deleted;
+
+    private LoadGenerator(WebClient client, Map<Operation, Integer> weights, int seed) {
+        this.client = client;
+        this.weights = weights;
+        this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int rate = Integer.parseInt(options.getOrDefault("rate", "500"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int seed = Integer.parseInt(options.getOrDefault("seed", "1000"));
+        int connections = Integer.parseInt(options.getOrDefault("connections", "64"));
+
+        // the application logs every write at debug level, which would be measured along with the requests
+        ((Logger) LoggerFactory.getLogger(APPLICATION_LOGGER)).setLevel(Level.INFO);
+
+        Vertx vertx = Vertx.vertx();
+        try {
+            Application.deploy(vertx, Application.config()
+                                                 .put("jdbc.url", "jdbc:hsqldb:mem:load")
+                                                 .put(Constants.CONFIG_HTTP_PORT, PORT)
+                                                 .put(Constants.CONFIG_METRICS_ENABLED, false)
+                                                 .put(Constants.CONFIG_ACCESS_LOG_ENABLED, false));
+            WebClient client = WebClient.create(vertx, new WebClientOptions().setDefaultPort(PORT)
+                                                                             .setKeepAlive(true)
+                                                                             .setMaxPoolSize(connections));
+            LoadGenerator generator = new LoadGenerator(client, parseMix(options.get("mix")), seed);
+
+            generator.seed(vertx);
+            System.out.printf("Warming up for %d s at %d requests/s%n", warmup, rate);
+            generator.run(vertx, rate, warmup);
+            System.out.printf("Measuring for %d s at %d requests/s%n", duration, rate);
+            Result result = generator.run(vertx, rate, duration);
+            result.print(duration);
+        } finally {
+            vertx.close();
+        }
+    }
+
+    /**
+     * Inserts the releases the reads, updates and searches work on, through the bulk endpoint.
+     */
+    private void seed(Vertx vertx) throws Exception {
+        for (int first = 0; first < seed; first += SEED_CHUNK) {
+            int count = Math.min(SEED_CHUNK, seed - first);
+            CompletableFuture<Integer> inserted = new CompletableFuture<>();
+            vertx.runOnContext(v -> client.post(API_RELEASES_BULK)
+                                          .sendBuffer(bulkBody(count), ar -> {
+                                              if (ar.succeeded()) {
+                                                  inserted.complete(ar.result().statusCode());
+                                              } else {
+                                                  inserted.completeExceptionally(ar.cause());
+                                              }
+                                          }));
+            inserted.get();
+        }
+        created = seed;
+    }
+
+    /**
+     * Sends {@code rate} requests per second for {@code duration} seconds from a single event loop, a timer checks
+     * every millisecond how many requests are due and sends them, then waits for the last response.
+     */
+    private Result run(Vertx vertx, int rate, int duration) throws Exception {
+        Result result = new Result();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        long total = (long) rate * duration;
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / (double) rate;
+
+        vertx.runOnContext(v -> {
+            long start = System.nanoTime();
+            long[] sent = {0};
+            long[] completed = {0};
+            vertx.setPeriodic(TICK_MILLIS, timerId -> {
+                long now = System.nanoTime();
+                while (sent[0] < total && start + (long) (sent[0] * intervalNanos) <= now) {
+                    long intended = start + (long) (sent[0] * intervalNanos);
+                    Operation operation = nextOperation();
+                    send(operation, ar -> {
+                        result.record(operation, intended, ar);
+                        if (++completed[0] == total) {
+                            done.complete(null);
+                        }
+                    });
+                    sent[0]++;
+                }
+                if (sent[0] == total) {
+                    vertx.cancelTimer(timerId);
+                }
+            });
+        });
+
+        done.get();
+        return result;
+    }
+
+    private Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+            pick -= weight.getValue();
+            if (pick < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("The operation weights must be positive");
+    }
+
+    private void send(Operation operation, Handler<AsyncResult<HttpResponse<Buffer>>> handler) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case GET_BY_ID:
+                client.get(API_RELEASES + "/" + random.nextInt(seed)).send(handler);
+                break;
+            case LIST_PAGE:
+                client.get(API_RELEASES)
+                      .addQueryParam(Constants.LIMIT, String.valueOf(PAGE_LIMIT))
+                      .send(handler);
+                break;
+            case SEARCH:
+                client.get(API_RELEASES_SEARCH)
+                      .addQueryParam(Constants.QUERY, SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)])
+                      .send(handler);
+                break;
+            case CREATE:
+                created++;
+                client.post(API_RELEASES).sendJsonObject(Payloads.release(created, CONTENT_SIZE).toJson(), handler);
+                break;
+            case BULK_CREATE:
+                created += PAGE_LIMIT;
+                client.post(API_RELEASES_BULK).sendBuffer(bulkBody(PAGE_LIMIT), handler);
+                break;
+            case UPDATE:
+                client.put(API_RELEASES + "/" + random.nextInt(seed))
+                      .sendJsonObject(new JsonObject().put(Constants.CONTENT, Payloads.content(CONTENT_SIZE)),
+                                      handler);
+                break;
+            case DELETE:
+                // only the releases created during the run are deleted, so the reads keep finding the seeded ones
+                client.delete(API_RELEASES + "/" + (seed + deleted++)).send(handler);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private static Buffer bulkBody(int count) {
+        JsonArray releases = new JsonArray();
+        Payloads.releases(count, CONTENT_SIZE).forEach(release -> releases.add(release.toJson()));
+        return releases.toBuffer();
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Expected --option=value but got " + arg);
+            }
+            options.put(option[0], option[1]);
+        }
+        return options;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        if (mix == null) {
+            for (Operation operation : Operation.values()) {
+                weights.put(operation, operation.defaultWeight);
+            }
+            return weights;
+        }
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.split(":");
+            weights.put(Operation.valueOf(weight[0].trim()), Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+
+    /**
+     * The latency histograms, in microseconds, and the error count of each operation. Only touched from the event loop
+     * that sends the requests.
+     */
+    private static final class Result {
+
+        private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> errors = new EnumMap<>(Operation.class);
+
+        void record(Operation operation, long intended, AsyncResult<HttpResponse<Buffer>> ar) {
+            long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+            histograms.computeIfAbsent(operation, key -> new Histogram(HIGHEST_LATENCY_MICROS, 3))
+                      .recordValue(Math.min(latency, HIGHEST_LATENCY_MICROS));
+            if (ar.failed() || ar.result().statusCode() >= Constants.INTERNAL_SERVER_ERROR) {
+                errors.merge(operation, 1, Integer::sum);
+            }
+        }
+
+        void print(int duration) {
+            Histogram all = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+            System.out.printf("%n%-12s %9s %7s %9s %9s %9s %9s %9s %9s%n", "operation", "requests", "errors",
+                              "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+            histograms.forEach((operation, histogram) -> {
+                all.add(histogram);
+                System.out.printf("%-12s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", operation,
+                                  histogram.getTotalCount(), errors.getOrDefault(operation, 0),
+                                  histogram.getTotalCount() / (double) duration,
+                                  millis(histogram.getValueAtPercentile(50)),
+                                  millis(histogram.getValueAtPercentile(90)),
+                                  millis(histogram.getValueAtPercentile(99)),
+                                  millis(histogram.getValueAtPercentile(99.9)),
+                                  millis(histogram.getMaxValue()));
+            });
+            System.out.printf("%nLatency distribution of all the requests (ms):%n");
+            all.outputPercentileDistribution(System.out, MICROS_PER_MILLI);
+        }
+
+        private static double millis(long micros) {
+            return micros / MICROS_PER_MILLI;
+        }
+
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.benchmark;
+
+import com.jcalvopinam.domain.Release;
+import io.vertx.core.json.JsonArray;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds release payloads of a given content size for the benchmarks.
+ *
+ * @author Juan Calvopina
+ */
+public final class Payloads {
+
+    private static final String LINE = "- Fixed a bug in the deployment pipeline of the release notes service\n";
+
+    private Payloads() {
+    }
+
+    public static String content(int size) {
+        StringBuilder content = new StringBuilder(size + LINE.length());
+        while (content.length() < size) {
+            content.append(LINE);
+        }
+        return content.substring(0, size);
+    }
+
+    public static Release release(int id, int contentSize) {
+        return Release.of(id, "Application " + id, "1.0", content(contentSize), "2019-01-01");
+    }
+
+    public static JsonArray row(int id, int contentSize) {
+        return new JsonArray().add(id)
+                              .add("Application " + id)
+                              .add("1.0")
+                              .add(content(contentSize))
+                              .add("2019-01-01");
+    }
+
+    public static List<Release> releases(int count, int contentSize) {
+        List<Release> releases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            releases.add(release(i, contentSize));
+        }
+        return releases;
+    }
+
+}
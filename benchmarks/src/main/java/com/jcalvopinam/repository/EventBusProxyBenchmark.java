@@ -0,0 +1,156 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.benchmark.Payloads;
+import com.jcalvopinam.domain.Release;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.serviceproxy.ServiceBinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip through {@link ReleaseRepositoryVertxEBProxy} and the service proxy handler to a repository that answers
+ * from memory, so the result only reflects the event bus and the marshalling of arguments and results. The
+ * {@code Local} variants go through {@link LocalReleaseRepository} instead, which skips the marshalling.
+ *
+ * @author Juan Calvopina
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventBusProxyBenchmark {
+
+    private static final String ADDRESS = "benchmark.release.repository";
+
+    @Param({"256", "102400"})
+    private int contentSize;
+
+    private Vertx vertx;
+    private ReleaseRepository proxy;
+    private ReleaseRepository localProxy;
+
+    @Setup
+    public void setup() {
+        vertx = Vertx.vertx();
+        ReleaseRepository repository = inMemoryRepository(Payloads.release(1, contentSize),
+                                                          Payloads.releases(100, contentSize));
+        new ServiceBinder(vertx).setAddress(ADDRESS).register(ReleaseRepository.class, repository);
+        LocalReleaseRepositories.register(vertx, ADDRESS, repository);
+        DeliveryOptions options = new DeliveryOptions();
+        proxy = new ReleaseRepositoryVertxEBProxy(vertx, ADDRESS, options);
+        localProxy = new LocalReleaseRepository(vertx, ADDRESS, options.getSendTimeout(), proxy);
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close();
+    }
+
+    @Benchmark
+    public Release fetchReleaseById() throws Exception {
+        CompletableFuture<Release> result = new CompletableFuture<>();
+        proxy.fetchReleaseById(1, complete(result));
+        return result.get();
+    }
+
+    @Benchmark
+    public List<Release> fetchAllReleases() throws Exception {
+        CompletableFuture<List<Release>> result = new CompletableFuture<>();
+        proxy.fetchAllReleases(complete(result));
+        return result.get();
+    }
+
+    @Benchmark
+    public Release fetchReleaseByIdLocal() throws Exception {
+        CompletableFuture<Release> result = new CompletableFuture<>();
+        localProxy.fetchReleaseById(1, complete(result));
+        return result.get();
+    }
+
+    @Benchmark
+    public List<Release> fetchAllReleasesLocal() throws Exception {
+        CompletableFuture<List<Release>> result = new CompletableFuture<>();
+        localProxy.fetchAllReleases(complete(result));
+        return result.get();
+    }
+
+    private static <T> Handler<AsyncResult<T>> complete(CompletableFuture<T> future) {
+        return ar -> {
+            if (ar.succeeded()) {
+                future.complete(ar.result());
+            } else {
+                future.completeExceptionally(ar.cause());
+            }
+        };
+    }
+
+    /**
+     * Answers fetchReleaseById and fetchAllReleases with the given values and fails any other call.
+     */
+    @SuppressWarnings("unchecked")
+    private static ReleaseRepository inMemoryRepository(Release release, List<Release> releases) {
+        return (ReleaseRepository) Proxy.newProxyInstance(
+                ReleaseRepository.class.getClassLoader(), new Class<?>[]{ReleaseRepository.class},
+                (instance, method, args) -> {
+                    Handler<AsyncResult<Object>> handler = (Handler<AsyncResult<Object>>) args[args.length - 1];
+                    switch (method.getName()) {
+                        case "fetchReleaseById":
+                            handler.handle(Future.succeededFuture(release));
+                            break;
+                        case "fetchAllReleases":
+                            handler.handle(Future.succeededFuture(releases));
+                            break;
+                        default:
+                            handler.handle(Future.failedFuture(new UnsupportedOperationException(method.getName())));
+                    }
+                    return instance;
+                });
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.benchmark.Application;
+import com.jcalvopinam.benchmark.Payloads;
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.utils.Constants;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@code fetchReleaseById} against the database with the statements executed on the worker pool or on
+ * virtual threads, see {@code db.execution.mode}. The read model and the cache are disabled so every call runs a
+ * query, and the peak number of platform threads is printed once the run ends. The {@code virtual-threads} mode
+ * needs Java 21.
+ *
+ * @author Juan Calvopina
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(256)
+public class JdbcExecutionBenchmark {
+
+    private static final int RELEASES = 1000;
+
+    @Param({Constants.EXECUTION_WORKER, Constants.EXECUTION_VIRTUAL_THREADS})
+    private String mode;
+
+    private Vertx vertx;
+    private com.jcalvopinam.repository.reactivex.ReleaseRepository repository;
+
+    @Setup
+    public void setup() throws Exception {
+        vertx = Vertx.vertx();
+        JsonObject config = Application.config().put("jdbc.url", "jdbc:hsqldb:mem:execution-" + mode)
+                                        .put(Constants.CONFIG_DB_EXECUTION_MODE, mode)
+                                        .put(Constants.CONFIG_READ_MODEL_ENABLED, false)
+                                        .put(Constants.CONFIG_CACHE_MAX_SIZE, 0)
+                                        .put(Constants.CONFIG_COALESCE_READS, false)
+                                        .put(Constants.CONFIG_MAX_IN_FLIGHT, 1024);
+        Application.deploy(vertx, config);
+
+        repository = ReleaseRepository.createProxy(vertx, Constants.RELEASE_SERVICE_ADDRESS, config);
+        repository.rxInsertReleases(Payloads.releases(RELEASES, 1024)).blockingGet();
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        System.out.printf("%n%s: %d platform threads, %d at peak%n", mode, threads.getThreadCount(),
+                          threads.getPeakThreadCount());
+        vertx.close();
+    }
+
+    @Benchmark
+    public Release fetchReleaseById() {
+        return repository.rxFetchReleaseById(ThreadLocalRandom.current().nextInt(RELEASES)).blockingGet();
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.jcalvopinam.domain;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.JsonArray;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Converter for {@link com.jcalvopinam.domain.Release}.
+ * NOTE: This class has been automatically generated from the {@link com.jcalvopinam.domain.Release} original class using Vert.x codegen.
+ */
+public class ReleaseConverter {
+
+  public static void fromJson(Iterable<java.util.Map.Entry<String, Object>> json, Release obj) {
+    for (java.util.Map.Entry<String, Object> member : json) {
+      switch (member.getKey()) {
+        case "applicationName":
+          if (member.getValue() instanceof String) {
+            obj.setApplicationName((String)member.getValue());
+          }
+          break;
+        case "content":
+          if (member.getValue() instanceof String) {
+            obj.setContent((String)member.getValue());
+          }
+          break;
+        case "id":
+          if (member.getValue() instanceof Number) {
+            obj.setId(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "lastModified":
+          if (member.getValue() instanceof Number) {
+            obj.setLastModified(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "releaseDate":
+          if (member.getValue() instanceof String) {
+            obj.setReleaseDate((String)member.getValue());
+          }
+          break;
+        case "revision":
+          if (member.getValue() instanceof Number) {
+            obj.setRevision(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "version":
+          if (member.getValue() instanceof String) {
+            obj.setVersion((String)member.getValue());
+          }
+          break;
+      }
+    }
+  }
+
+  public static void toJson(Release obj, JsonObject json) {
+    toJson(obj, json.getMap());
+  }
+
+  public static void toJson(Release obj, java.util.Map<String, Object> json) {
+    if (obj.getApplicationName() != null) {
+      json.put("applicationName", obj.getApplicationName());
+    }
+    if (obj.getContent() != null) {
+      json.put("content", obj.getContent());
+    }
+    json.put("id", obj.getId());
+    json.put("lastModified", obj.getLastModified());
+    if (obj.getReleaseDate() != null) {
+      json.put("releaseDate", obj.getReleaseDate());
+    }
+    json.put("revision", obj.getRevision());
+    if (obj.getVersion() != null) {
+      json.put("version", obj.getVersion());
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.jcalvopinam.domain;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.JsonArray;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Converter for {@link com.jcalvopinam.domain.ReleaseVersion}.
+ * NOTE: This class has been automatically generated from the {@link com.jcalvopinam.domain.ReleaseVersion} original class using Vert.x codegen.
+ */
+public class ReleaseVersionConverter {
+
+  public static void fromJson(Iterable<java.util.Map.Entry<String, Object>> json, ReleaseVersion obj) {
+    for (java.util.Map.Entry<String, Object> member : json) {
+      switch (member.getKey()) {
+        case "lastModified":
+          if (member.getValue() instanceof Number) {
+            obj.setLastModified(((Number)member.getValue()).longValue());
+          }
+          break;
+        case "tag":
+          if (member.getValue() instanceof String) {
+            obj.setTag((String)member.getValue());
+          }
+          break;
+      }
+    }
+  }
+
+  public static void toJson(ReleaseVersion obj, JsonObject json) {
+    toJson(obj, json.getMap());
+  }
+
+  public static void toJson(ReleaseVersion obj, java.util.Map<String, Object> json) {
+    json.put("lastModified", obj.getLastModified());
+    if (obj.getTag() != null) {
+      json.put("tag", obj.getTag());
+    }
+  }
+}
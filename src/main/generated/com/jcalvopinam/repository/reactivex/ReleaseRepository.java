@@ -0,0 +1,459 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.jcalvopinam.repository.reactivex;
+
+import java.util.Map;
+import io.reactivex.Observable;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.Completable;
+import io.reactivex.Maybe;
+import java.util.List;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
+
+/**
+ *
+ * <p/>
+ * NOTE: This class has been automatically generated from the {@link com.jcalvopinam.repository.ReleaseRepository original} non RX-ified interface using Vert.x codegen.
+ */
+
+@io.vertx.lang.rx.RxGen(com.jcalvopinam.repository.ReleaseRepository.class)
+public class ReleaseRepository {
+
+  @Override
+  public String toString() {
+    return delegate.toString();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ReleaseRepository that = (ReleaseRepository) o;
+    return delegate.equals(that.delegate);
+  }
+  
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  public static final io.vertx.lang.rx.TypeArg<ReleaseRepository> __TYPE_ARG = new io.vertx.lang.rx.TypeArg<>(    obj -> new ReleaseRepository((com.jcalvopinam.repository.ReleaseRepository) obj),
+    ReleaseRepository::getDelegate
+  );
+
+  private final com.jcalvopinam.repository.ReleaseRepository delegate;
+  
+  public ReleaseRepository(com.jcalvopinam.repository.ReleaseRepository delegate) {
+    this.delegate = delegate;
+  }
+
+  public com.jcalvopinam.repository.ReleaseRepository getDelegate() {
+    return delegate;
+  }
+
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository fetchAllReleases(Handler<AsyncResult<List<Release>>> resultHandler) { 
+    delegate.fetchAllReleases(resultHandler);
+    return this;
+  }
+
+  public Single<List<Release>> rxFetchAllReleases() { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      fetchAllReleases(handler);
+    });
+  }
+
+  /**
+   * Streams every release to the given event bus address in chunks of <code>chunkSize</code> rows, each chunk being a
+   * {@link io.vertx.core.json.JsonArray} of releases. The next chunk is only read from the database once the
+   * consumer has replied to the previous one, so the consumer controls the pace. The result handler is completed
+   * after the last chunk has been acknowledged.
+   * @param address 
+   * @param chunkSize 
+   * @param resultHandler 
+   * @return 
+   */
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository streamAllReleases(String address, int chunkSize, Handler<AsyncResult<Void>> resultHandler) { 
+    delegate.streamAllReleases(address, chunkSize, resultHandler);
+    return this;
+  }
+
+  /**
+   * Streams every release to the given event bus address in chunks of <code>chunkSize</code> rows, each chunk being a
+   * {@link io.vertx.core.json.JsonArray} of releases. The next chunk is only read from the database once the
+   * consumer has replied to the previous one, so the consumer controls the pace. The result handler is completed
+   * after the last chunk has been acknowledged.
+   * @param address 
+   * @param chunkSize 
+   * @return 
+   */
+  public Completable rxStreamAllReleases(String address, int chunkSize) { 
+    return io.vertx.reactivex.impl.AsyncResultCompletable.toCompletable(handler -> {
+      streamAllReleases(address, chunkSize, handler);
+    });
+  }
+
+  /**
+   * Fetches at most <code>limit</code> releases whose id is greater than <code>afterId</code>, ordered by id. Seeking on the
+   * primary key keeps the cost of a page independent of its position in the table.
+   * @param afterId 
+   * @param limit 
+   * @param resultHandler 
+   * @return 
+   */
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository fetchReleasesPage(int afterId, int limit, Handler<AsyncResult<List<Release>>> resultHandler) { 
+    delegate.fetchReleasesPage(afterId, limit, resultHandler);
+    return this;
+  }
+
+  /**
+   * Fetches at most <code>limit</code> releases whose id is greater than <code>afterId</code>, ordered by id. Seeking on the
+   * primary key keeps the cost of a page independent of its position in the table.
+   * @param afterId 
+   * @param limit 
+   * @return 
+   */
+  public Single<List<Release>> rxFetchReleasesPage(int afterId, int limit) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      fetchReleasesPage(afterId, limit, handler);
+    });
+  }
+
+  /**
+   * Fetches a page of releases like {@link com.jcalvopinam.repository.reactivex.ReleaseRepository#fetchReleasesPage}, selecting only the given fields of
+   * {@link com.jcalvopinam.utils.Constants}, so listings that leave out the content do not read it
+   * from the database. Each release is a JSON object holding the selected fields.
+   * @param fields 
+   * @param afterId 
+   * @param limit 
+   * @param resultHandler 
+   * @return 
+   */
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository fetchReleaseFieldsPage(List<String> fields, int afterId, int limit, Handler<AsyncResult<List<JsonObject>>> resultHandler) { 
+    delegate.fetchReleaseFieldsPage(fields, afterId, limit, resultHandler);
+    return this;
+  }
+
+  /**
+   * Fetches a page of releases like {@link com.jcalvopinam.repository.reactivex.ReleaseRepository#fetchReleasesPage}, selecting only the given fields of
+   * {@link com.jcalvopinam.utils.Constants}, so listings that leave out the content do not read it
+   * from the database. Each release is a JSON object holding the selected fields.
+   * @param fields 
+   * @param afterId 
+   * @param limit 
+   * @return 
+   */
+  public Single<List<JsonObject>> rxFetchReleaseFieldsPage(List<String> fields, int afterId, int limit) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      fetchReleaseFieldsPage(fields, afterId, limit, handler);
+    });
+  }
+
+  /**
+   * Fetches a release, the result is <code>null</code> when the release does not exist.
+   * @param id 
+   * @param resultHandler 
+   * @return 
+   */
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository fetchReleaseById(int id, Handler<AsyncResult<Release>> resultHandler) { 
+    delegate.fetchReleaseById(id, resultHandler);
+    return this;
+  }
+
+  /**
+   * Fetches a release, the result is <code>null</code> when the release does not exist.
+   * @param id 
+   * @return 
+   */
+  public Maybe<Release> rxFetchReleaseById(int id) { 
+    return io.vertx.reactivex.impl.AsyncResultMaybe.toMaybe(handler -> {
+      fetchReleaseById(id, handler);
+    });
+  }
+
+  /**
+   * Fetches the releases with the given ids in a single call, in no particular order. The ids that do not exist are
+   * left out.
+   * @param ids 
+   * @param resultHandler 
+   * @return 
+   */
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository fetchReleasesByIds(List<Integer> ids, Handler<AsyncResult<List<Release>>> resultHandler) { 
+    delegate.fetchReleasesByIds(ids, resultHandler);
+    return this;
+  }
+
+  /**
+   * Fetches the releases with the given ids in a single call, in no particular order. The ids that do not exist are
+   * left out.
+   * @param ids 
+   * @return 
+   */
+  public Single<List<Release>> rxFetchReleasesByIds(List<Integer> ids) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      fetchReleasesByIds(ids, handler);
+    });
+  }
+
+  /**
+   * Fetches the content of a release, the result is <code>null</code> when the release does not exist.
+   * @param id 
+   * @param resultHandler 
+   * @return 
+   */
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository fetchReleaseContent(int id, Handler<AsyncResult<String>> resultHandler) { 
+    delegate.fetchReleaseContent(id, resultHandler);
+    return this;
+  }
+
+  /**
+   * Fetches the content of a release, the result is <code>null</code> when the release does not exist.
+   * @param id 
+   * @return 
+   */
+  public Maybe<String> rxFetchReleaseContent(int id) { 
+    return io.vertx.reactivex.impl.AsyncResultMaybe.toMaybe(handler -> {
+      fetchReleaseContent(id, handler);
+    });
+  }
+
+  /**
+   * Fetches the version of a release without reading its content, the result is <code>null</code> when the release does
+   * not exist.
+   * @param id 
+   * @param resultHandler 
+   * @return 
+   */
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository fetchReleaseVersion(int id, Handler<AsyncResult<ReleaseVersion>> resultHandler) { 
+    delegate.fetchReleaseVersion(id, resultHandler);
+    return this;
+  }
+
+  /**
+   * Fetches the version of a release without reading its content, the result is <code>null</code> when the release does
+   * not exist.
+   * @param id 
+   * @return 
+   */
+  public Maybe<ReleaseVersion> rxFetchReleaseVersion(int id) { 
+    return io.vertx.reactivex.impl.AsyncResultMaybe.toMaybe(handler -> {
+      fetchReleaseVersion(id, handler);
+    });
+  }
+
+  /**
+   * Fetches the version of the whole release listing with a single aggregate query.
+   * @param resultHandler 
+   * @return 
+   */
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository fetchReleasesVersion(Handler<AsyncResult<ReleaseVersion>> resultHandler) { 
+    delegate.fetchReleasesVersion(resultHandler);
+    return this;
+  }
+
+  /**
+   * Fetches the version of the whole release listing with a single aggregate query.
+   * @return 
+   */
+  public Single<ReleaseVersion> rxFetchReleasesVersion() { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      fetchReleasesVersion(handler);
+    });
+  }
+
+  /**
+   * Fetches the names of the applications that have at least one release, in alphabetical order.
+   * @param resultHandler 
+   * @return 
+   */
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository fetchApplicationNames(Handler<AsyncResult<List<String>>> resultHandler) { 
+    delegate.fetchApplicationNames(resultHandler);
+    return this;
+  }
+
+  /**
+   * Fetches the names of the applications that have at least one release, in alphabetical order.
+   * @return 
+   */
+  public Single<List<String>> rxFetchApplicationNames() { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      fetchApplicationNames(handler);
+    });
+  }
+
+  /**
+   * Fetches the releases of an application ordered by semantic version, oldest first.
+   * @param applicationName 
+   * @param resultHandler 
+   * @return 
+   */
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository fetchApplicationReleases(String applicationName, Handler<AsyncResult<List<Release>>> resultHandler) { 
+    delegate.fetchApplicationReleases(applicationName, resultHandler);
+    return this;
+  }
+
+  /**
+   * Fetches the releases of an application ordered by semantic version, oldest first.
+   * @param applicationName 
+   * @return 
+   */
+  public Single<List<Release>> rxFetchApplicationReleases(String applicationName) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      fetchApplicationReleases(applicationName, handler);
+    });
+  }
+
+  /**
+   * Fetches the release with the highest semantic version of an application, the result is <code>null</code> when the
+   * application has no releases. Only the versions are read to pick it, then the release itself.
+   * @param applicationName 
+   * @param resultHandler 
+   * @return 
+   */
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository fetchLatestRelease(String applicationName, Handler<AsyncResult<Release>> resultHandler) { 
+    delegate.fetchLatestRelease(applicationName, resultHandler);
+    return this;
+  }
+
+  /**
+   * Fetches the release with the highest semantic version of an application, the result is <code>null</code> when the
+   * application has no releases. Only the versions are read to pick it, then the release itself.
+   * @param applicationName 
+   * @return 
+   */
+  public Maybe<Release> rxFetchLatestRelease(String applicationName) { 
+    return io.vertx.reactivex.impl.AsyncResultMaybe.toMaybe(handler -> {
+      fetchLatestRelease(applicationName, handler);
+    });
+  }
+
+  /**
+   * Searches the application name, version and content of the releases, the result holds at most <code>limit</code>
+   * releases, best match first.
+   * @param query 
+   * @param limit 
+   * @param resultHandler 
+   * @return 
+   */
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository searchReleases(String query, int limit, Handler<AsyncResult<List<Release>>> resultHandler) { 
+    delegate.searchReleases(query, limit, resultHandler);
+    return this;
+  }
+
+  /**
+   * Searches the application name, version and content of the releases, the result holds at most <code>limit</code>
+   * releases, best match first.
+   * @param query 
+   * @param limit 
+   * @return 
+   */
+  public Single<List<Release>> rxSearchReleases(String query, int limit) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      searchReleases(query, limit, handler);
+    });
+  }
+
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository insertRelease(String applicationName, String version, String content, String releaseDate, Handler<AsyncResult<Void>> resultHandler) { 
+    delegate.insertRelease(applicationName, version, content, releaseDate, resultHandler);
+    return this;
+  }
+
+  public Completable rxInsertRelease(String applicationName, String version, String content, String releaseDate) { 
+    return io.vertx.reactivex.impl.AsyncResultCompletable.toCompletable(handler -> {
+      insertRelease(applicationName, version, content, releaseDate, handler);
+    });
+  }
+
+  /**
+   * Inserts all the releases with a single batch statement inside one transaction, the result holds the number of
+   * inserted rows for each release in the same order.
+   * @param releases 
+   * @param resultHandler 
+   * @return 
+   */
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository insertReleases(List<Release> releases, Handler<AsyncResult<List<Integer>>> resultHandler) { 
+    delegate.insertReleases(releases, resultHandler);
+    return this;
+  }
+
+  /**
+   * Inserts all the releases with a single batch statement inside one transaction, the result holds the number of
+   * inserted rows for each release in the same order.
+   * @param releases 
+   * @return 
+   */
+  public Single<List<Integer>> rxInsertReleases(List<Release> releases) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      insertReleases(releases, handler);
+    });
+  }
+
+  /**
+   * Updates the content of a release, the result is the number of updated rows (0 when the release does not exist).
+   * @param id 
+   * @param content 
+   * @param resultHandler 
+   * @return 
+   */
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository updateRelease(int id, String content, Handler<AsyncResult<Integer>> resultHandler) { 
+    delegate.updateRelease(id, content, resultHandler);
+    return this;
+  }
+
+  /**
+   * Updates the content of a release, the result is the number of updated rows (0 when the release does not exist).
+   * @param id 
+   * @param content 
+   * @return 
+   */
+  public Single<Integer> rxUpdateRelease(int id, String content) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      updateRelease(id, content, handler);
+    });
+  }
+
+  /**
+   * Deletes a release, the result is the number of deleted rows (0 when the release does not exist).
+   * @param id 
+   * @param resultHandler 
+   * @return 
+   */
+  public com.jcalvopinam.repository.reactivex.ReleaseRepository deleteRelease(int id, Handler<AsyncResult<Integer>> resultHandler) { 
+    delegate.deleteRelease(id, resultHandler);
+    return this;
+  }
+
+  /**
+   * Deletes a release, the result is the number of deleted rows (0 when the release does not exist).
+   * @param id 
+   * @return 
+   */
+  public Single<Integer> rxDeleteRelease(int id) { 
+    return io.vertx.reactivex.impl.AsyncResultSingle.toSingle(handler -> {
+      deleteRelease(id, handler);
+    });
+  }
+
+
+  public static  ReleaseRepository newInstance(com.jcalvopinam.repository.ReleaseRepository arg) {
+    return arg != null ? new ReleaseRepository(arg) : null;
+  }
+}
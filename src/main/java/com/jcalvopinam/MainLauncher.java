@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam;
+
+import com.jcalvopinam.utils.Constants;
+import io.vertx.core.Launcher;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.VertxPrometheusOptions;
+
+/**
+ * Vert.x launcher of {@link MainVerticle}. Metrics and thread pool options can only be set before the Vert.x instance
+ * is created, so they are configured here rather than in the verticle.
+ *
+ * @author Juan Calvopina
+ */
+public class MainLauncher extends Launcher {
+
+    private JsonObject config = new JsonObject();
+
+    public static void main(String[] args) {
+        new MainLauncher().dispatch(args);
+    }
+
+    @Override
+    public void afterConfigParsed(JsonObject config) {
+        this.config = config;
+    }
+
+    /**
+     * Pool sizes of 0 or less, the default, are derived from the cores: two event loops per core, as Vert.x does, and
+     * at least one worker per JDBC connection, since every JDBC call blocks a worker thread.
+     */
+    @Override
+    public void beforeStartingVertx(VertxOptions options) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        options.setEventLoopPoolSize(MainVerticle.sizeOrDefault(
+                config.getInteger(Constants.CONFIG_EVENT_LOOP_POOL_SIZE, 0), 2 * cores));
+        options.setWorkerPoolSize(MainVerticle.sizeOrDefault(
+                config.getInteger(Constants.CONFIG_WORKER_POOL_SIZE, 0),
+                Math.max(config.getInteger(Constants.CONFIG_JDBC_MAX_POOL_SIZE, 0),
+                         Math.max(VertxOptions.DEFAULT_WORKER_POOL_SIZE, 2 * cores))));
+
+        if (config.getBoolean(Constants.CONFIG_METRICS_ENABLED, true)) {
+            options.setMetricsOptions(new MicrometerMetricsOptions()
+                                              .setEnabled(true)
+                                              .setJvmMetricsEnabled(true)
+                                              .setPrometheusOptions(new VertxPrometheusOptions().setEnabled(true)));
+        }
+    }
+
+}
@@ -25,6 +25,7 @@
 
 package com.jcalvopinam;
 
+import com.jcalvopinam.utils.Constants;
 import com.jcalvopinam.verticle.HttpServerVerticle;
 import com.jcalvopinam.verticle.ReleaseDBVerticle;
 import io.reactivex.Single;
@@ -49,10 +50,24 @@ public class MainVerticle extends AbstractVerticle {
         return ConfigRetriever.create(vertx).rxGetConfig();
     }
 
+    /**
+     * Instance counts of 0 or less, the default, are derived from the cores: one HTTP verticle per core, so every
+     * core parses requests, and one DB verticle per two cores, since they mostly wait for the JDBC worker threads.
+     */
     private Single<String> deployVerticles(JsonObject config) {
-        DeploymentOptions opts = new DeploymentOptions().setInstances(2)
-                                                        .setConfig(config);
-        return deployDBVerticle(opts).flatMap(id -> deployHttpVerticle(opts));
+        int cores = Runtime.getRuntime().availableProcessors();
+        int dbInstances = sizeOrDefault(config.getInteger(Constants.CONFIG_DB_INSTANCES, 0), Math.max(1, cores / 2));
+        int httpInstances = sizeOrDefault(config.getInteger(Constants.CONFIG_HTTP_INSTANCES, 0), cores);
+
+        DeploymentOptions dbOpts = new DeploymentOptions().setInstances(dbInstances)
+                                                          .setConfig(config);
+        DeploymentOptions httpOpts = new DeploymentOptions().setInstances(httpInstances)
+                                                            .setConfig(config);
+        return deployDBVerticle(dbOpts).flatMap(id -> deployHttpVerticle(httpOpts));
+    }
+
+    static int sizeOrDefault(int size, int defaultSize) {
+        return size > 0 ? size : defaultSize;
     }
 
     private Single<String> deployDBVerticle(DeploymentOptions opts) {
@@ -25,30 +25,57 @@
 
 package com.jcalvopinam.domain;
 
-import java.util.Date;
-import java.util.concurrent.atomic.AtomicInteger;
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
 
 /**
+ * Release notes of one version of an application. The JSON conversion is done by the generated
+ * {@code ReleaseConverter}, field by field, without reflection.
+ *
  * @author Juan Calvopina
  */
+@DataObject(generateConverter = true)
 public class Release {
 
     private int id;
     private String applicationName;
     private String version;
     private String content;
-    private Date releaseDate;
+    private String releaseDate;
+    private int revision;
+    private long lastModified;
+
+    public Release() {
+    }
+
+    public Release(JsonObject json) {
+        ReleaseConverter.fromJson(json, this);
+    }
 
-    private Release(String applicationName, String version, String content, Date releaseDate) {
-        this.id = new AtomicInteger().getAndIncrement();
+    private Release(int id, String applicationName, String version, String content, String releaseDate,
+                    int revision, long lastModified) {
+        this.id = id;
         this.applicationName = applicationName;
         this.version = version;
         this.content = content;
         this.releaseDate = releaseDate;
+        this.revision = revision;
+        this.lastModified = lastModified;
+    }
+
+    public static Release of(int id, String applicationName, String version, String content, String releaseDate) {
+        return new Release(id, applicationName, version, content, releaseDate, 0, 0);
+    }
+
+    public static Release of(int id, String applicationName, String version, String content, String releaseDate,
+                             int revision, long lastModified) {
+        return new Release(id, applicationName, version, content, releaseDate, revision, lastModified);
     }
 
-    public static Release of(String applicationName, String version, String content, Date date) {
-        return new Release(applicationName, version, content, date);
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        ReleaseConverter.toJson(this, json);
+        return json;
     }
 
     public int getId() {
@@ -83,12 +110,34 @@ public class Release {
         this.content = content;
     }
 
-    public Date getReleaseDate() {
+    public String getReleaseDate() {
         return releaseDate;
     }
 
-    public void setReleaseDate(Date releaseDate) {
+    public void setReleaseDate(String releaseDate) {
         this.releaseDate = releaseDate;
     }
 
+    /**
+     * Number of times the release has been updated since it was inserted.
+     */
+    public int getRevision() {
+        return revision;
+    }
+
+    public void setRevision(int revision) {
+        this.revision = revision;
+    }
+
+    /**
+     * Epoch milliseconds of the insert or of the last update.
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+    }
+
 }
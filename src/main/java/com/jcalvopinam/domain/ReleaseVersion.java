@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.jcalvopinam.domain;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Version of a release, or of the whole release listing, read without loading the content. The tag changes with
+ * every write that changes the representation and is used as the entity tag of the HTTP responses.
+ *
+ * @author Juan Calvopina
+ */
+@DataObject(generateConverter = true)
+public class ReleaseVersion {
+
+    private String tag;
+    private long lastModified;
+
+    public ReleaseVersion() {
+    }
+
+    public ReleaseVersion(JsonObject json) {
+        ReleaseVersionConverter.fromJson(json, this);
+    }
+
+    private ReleaseVersion(String tag, long lastModified) {
+        this.tag = tag;
+        this.lastModified = lastModified;
+    }
+
+    public static ReleaseVersion of(Release release) {
+        return new ReleaseVersion(release.getId() + "-" + release.getRevision(), release.getLastModified());
+    }
+
+    public static ReleaseVersion of(int id, int revision, long lastModified) {
+        return new ReleaseVersion(id + "-" + revision, lastModified);
+    }
+
+    /**
+     * Version of the listing: the number of rows, the highest id (ids are never reused, so it moves with every
+     * insert) and the sum of the revisions (it moves with every update). Deletes always lower the count, so the
+     * last modification time is not part of the tag and is not tracked for the listing.
+     */
+    public static ReleaseVersion ofListing(long count, int maxId, long revisions) {
+        return new ReleaseVersion(count + "-" + maxId + "-" + revisions, 0);
+    }
+
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        ReleaseVersionConverter.toJson(this, json);
+        return json;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * Epoch milliseconds of the last write, 0 when unknown.
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+}
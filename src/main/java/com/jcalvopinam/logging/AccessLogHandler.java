@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.logging;
+
+import io.vertx.core.Handler;
+import io.vertx.reactivex.ext.web.Route;
+import io.vertx.reactivex.ext.web.RoutingContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes one JSON line per request to the {@code access} logger: the HTTP method, the route path that handled the
+ * request, the status code, the body bytes written and the latency in microseconds. The route path is logged rather
+ * than the request path, so the log never holds ids or query strings sent by clients. The line is built once the
+ * response is written, on the event loop, and the appender configured in {@code logback.xml} hands it to a background
+ * thread. Must be routed for every request before the body and session handlers and the routes, which may end the
+ * response.
+ *
+ * @author Juan Calvopina
+ */
+public class AccessLogHandler implements Handler<RoutingContext> {
+
+    private static final Logger ACCESS_LOGGER = LoggerFactory.getLogger("access");
+    private static final String UNMATCHED = "unmatched";
+    private static final int LINE_CAPACITY = 160;
+
+    @Override
+    public void handle(RoutingContext context) {
+        if (ACCESS_LOGGER.isInfoEnabled()) {
+            long start = System.nanoTime();
+            context.addBodyEndHandler(v -> ACCESS_LOGGER.info(accessLine(context, System.nanoTime() - start)));
+        }
+        context.next();
+    }
+
+    private static String accessLine(RoutingContext context, long latencyNanos) {
+        return new StringBuilder(LINE_CAPACITY)
+                .append("{\"ts\":").append(System.currentTimeMillis())
+                .append(",\"method\":\"").append(context.request().rawMethod())
+                .append("\",\"route\":\"").append(Optional.ofNullable(context.currentRoute())
+                                                            .map(Route::getPath)
+                                                            .orElse(UNMATCHED))
+                .append("\",\"status\":").append(context.response().getStatusCode())
+                .append(",\"bytes\":").append(context.response().bytesWritten())
+                .append(",\"latencyUs\":").append(TimeUnit.NANOSECONDS.toMicros(latencyNanos))
+                .append('}')
+                .toString();
+    }
+
+}
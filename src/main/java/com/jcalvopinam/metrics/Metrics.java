@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.metrics;
+
+import com.jcalvopinam.repository.ReleaseCache;
+import com.jcalvopinam.repository.ReleaseReadModel;
+import com.mchange.v2.c3p0.C3P0Registry;
+import com.mchange.v2.c3p0.PooledDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.micrometer.backends.BackendRegistries;
+
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * Access to the Micrometer registry set up by the Vert.x metrics SPI, empty when metrics are disabled.
+ *
+ * @author Juan Calvopina
+ */
+public final class Metrics {
+
+    public static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    private static final String JDBC_POOL_CONNECTIONS = "jdbc.pool.connections";
+    private static final String JDBC_POOL_WAITERS = "jdbc.pool.waiters";
+    private static final String READ_MODEL_RELEASES = "release.read.model.releases";
+    private static final String READ_MODEL_BYTES = "release.read.model.bytes";
+    private static final String READ_MODEL_COMPLETE = "release.read.model.complete";
+    private static final String CACHE_SIZE = "release.cache.size";
+    private static final String CACHE_HITS = "release.cache.hits";
+    private static final String CACHE_MISSES = "release.cache.misses";
+    private static final String CACHE_EVICTIONS = "release.cache.evictions";
+
+    private Metrics() {
+    }
+
+    public static Optional<MeterRegistry> registry() {
+        return Optional.ofNullable(BackendRegistries.getDefaultNow());
+    }
+
+    /**
+     * Registers the active, idle and waiters gauges of every C3P0 pool, the connection pool used by the JDBC client.
+     * Registering twice is a no-op.
+     */
+    public static void bindJdbcPool(MeterRegistry registry) {
+        Gauge.builder(JDBC_POOL_CONNECTIONS, registry, r -> sumPools(PooledDataSource::getNumBusyConnectionsAllUsers))
+             .tag("state", "active")
+             .register(registry);
+        Gauge.builder(JDBC_POOL_CONNECTIONS, registry, r -> sumPools(PooledDataSource::getNumIdleConnectionsAllUsers))
+             .tag("state", "idle")
+             .register(registry);
+        Gauge.builder(JDBC_POOL_WAITERS, registry,
+                      r -> sumPools(PooledDataSource::getNumThreadsAwaitingCheckoutDefaultUser))
+             .register(registry);
+    }
+
+    /**
+     * Registers the releases held, the estimated bytes and whether the model holds every release, 0 once a release
+     * was left out for the budget. Registering twice is a no-op.
+     */
+    public static void bindReadModel(MeterRegistry registry, ReleaseReadModel model) {
+        Gauge.builder(READ_MODEL_RELEASES, model, ReleaseReadModel::size).register(registry);
+        Gauge.builder(READ_MODEL_BYTES, model, ReleaseReadModel::bytes).register(registry);
+        Gauge.builder(READ_MODEL_COMPLETE, model, m -> m.isServing() ? 1 : 0).register(registry);
+    }
+
+    /**
+     * Registers the entries held, the hits, the misses and the evictions of a cache, tagged with its name. Registering
+     * twice is a no-op.
+     */
+    public static void bindCache(MeterRegistry registry, String name, ReleaseCache cache) {
+        Gauge.builder(CACHE_SIZE, cache, ReleaseCache::size).tag("cache", name).register(registry);
+        Gauge.builder(CACHE_HITS, cache, ReleaseCache::hits).tag("cache", name).register(registry);
+        Gauge.builder(CACHE_MISSES, cache, ReleaseCache::misses).tag("cache", name).register(registry);
+        Gauge.builder(CACHE_EVICTIONS, cache, ReleaseCache::evictions).tag("cache", name).register(registry);
+    }
+
+    private static double sumPools(PoolStatistic statistic) {
+        double sum = 0;
+        for (Object dataSource : C3P0Registry.getPooledDataSources()) {
+            try {
+                sum += statistic.applyAsInt((PooledDataSource) dataSource);
+            } catch (SQLException e) {
+                return Double.NaN;
+            }
+        }
+        return sum;
+    }
+
+    @FunctionalInterface
+    private interface PoolStatistic {
+
+        int applyAsInt(PooledDataSource dataSource) throws SQLException;
+
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.Handler;
+import io.vertx.reactivex.ext.web.Route;
+import io.vertx.reactivex.ext.web.RoutingContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of every request in a timer tagged with the route path that handled it, the HTTP method and
+ * the status code. Must be routed for every request before the body and session handlers and the routes, so the timer
+ * covers reading the body and sees the responses ended by any of them; the access log and tracing handlers may come
+ * before it.
+ *
+ * @author Juan Calvopina
+ */
+public class RouteMetricsHandler implements Handler<RoutingContext> {
+
+    private static final String HTTP_ROUTE_REQUESTS = "http.route.requests";
+    private static final String UNMATCHED = "unmatched";
+
+    private final MeterRegistry registry;
+
+    public RouteMetricsHandler(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void handle(RoutingContext context) {
+        long start = System.nanoTime();
+        context.addBodyEndHandler(v -> Timer.builder(HTTP_ROUTE_REQUESTS)
+                                            .tag("route", Optional.ofNullable(context.currentRoute())
+                                                                  .map(Route::getPath)
+                                                                  .orElse(UNMATCHED))
+                                            .tag("method", context.request().rawMethod())
+                                            .tag("status", String.valueOf(context.response().getStatusCode()))
+                                            .publishPercentiles(Metrics.PERCENTILES)
+                                            .register(registry)
+                                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        context.next();
+    }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
+import com.jcalvopinam.utils.Constants;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+import io.vertx.serviceproxy.ServiceException;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Bounds the number of calls in flight through a {@link ReleaseRepository} proxy. Once the bound is reached new calls
+ * fail at once with a {@link ServiceException} whose failure code is 503, instead of queueing on the event bus behind
+ * a saturated JDBC pool, so callers can shed load while the latency of the admitted calls stays bounded.
+ *
+ * @author Juan Calvopina
+ */
+public class BoundedReleaseRepository implements ReleaseRepository {
+
+    private static final String MESSAGE_TOO_MANY_CALLS = "Too many release repository calls in flight";
+
+    private final ReleaseRepository delegate;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    BoundedReleaseRepository(ReleaseRepository delegate, int maxInFlight) {
+        this.delegate = delegate;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public ReleaseRepository fetchAllReleases(Handler<AsyncResult<List<Release>>> resultHandler) {
+        admit(delegate::fetchAllReleases, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository streamAllReleases(String address, int chunkSize,
+                                               Handler<AsyncResult<Void>> resultHandler) {
+        admit(handler -> delegate.streamAllReleases(address, chunkSize, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesPage(int afterId, int limit,
+                                               Handler<AsyncResult<List<Release>>> resultHandler) {
+        admit(handler -> delegate.fetchReleasesPage(afterId, limit, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseFieldsPage(List<String> fields, int afterId, int limit,
+                                                    Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        admit(handler -> delegate.fetchReleaseFieldsPage(fields, afterId, limit, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseById(int id, Handler<AsyncResult<Release>> resultHandler) {
+        admit(handler -> delegate.fetchReleaseById(id, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesByIds(List<Integer> ids, Handler<AsyncResult<List<Release>>> resultHandler) {
+        admit(handler -> delegate.fetchReleasesByIds(ids, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseContent(int id, Handler<AsyncResult<String>> resultHandler) {
+        admit(handler -> delegate.fetchReleaseContent(id, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseVersion(int id, Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        admit(handler -> delegate.fetchReleaseVersion(id, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesVersion(Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        admit(delegate::fetchReleasesVersion, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationNames(Handler<AsyncResult<List<String>>> resultHandler) {
+        admit(delegate::fetchApplicationNames, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationReleases(String applicationName,
+                                                      Handler<AsyncResult<List<Release>>> resultHandler) {
+        admit(handler -> delegate.fetchApplicationReleases(applicationName, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchLatestRelease(String applicationName, Handler<AsyncResult<Release>> resultHandler) {
+        admit(handler -> delegate.fetchLatestRelease(applicationName, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository searchReleases(String query, int limit,
+                                            Handler<AsyncResult<List<Release>>> resultHandler) {
+        admit(handler -> delegate.searchReleases(query, limit, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertRelease(String applicationName, String version, String content,
+                                           String releaseDate, Handler<AsyncResult<Void>> resultHandler) {
+        admit(handler -> delegate.insertRelease(applicationName, version, content, releaseDate, handler),
+              resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertReleases(List<Release> releases,
+                                            Handler<AsyncResult<List<Integer>>> resultHandler) {
+        admit(handler -> delegate.insertReleases(releases, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository updateRelease(int id, String content, Handler<AsyncResult<Integer>> resultHandler) {
+        admit(handler -> delegate.updateRelease(id, content, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository deleteRelease(int id, Handler<AsyncResult<Integer>> resultHandler) {
+        admit(handler -> delegate.deleteRelease(id, handler), resultHandler);
+        return this;
+    }
+
+    private <T> void admit(Consumer<Handler<AsyncResult<T>>> call, Handler<AsyncResult<T>> resultHandler) {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            resultHandler.handle(Future.failedFuture(new ServiceException(Constants.STATUS_CODE_SERVICE_UNAVAILABLE,
+                                                                          MESSAGE_TOO_MANY_CALLS)));
+            return;
+        }
+
+        call.accept(ar -> {
+            inFlight.decrementAndGet();
+            resultHandler.handle(ar);
+        });
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-through cache in front of a {@link ReleaseRepository}. Single releases and the full listing are served from
+ * the {@link ReleaseCache}; every write invalidates the entries it may have changed.
+ *
+ * @author Juan Calvopina
+ */
+public class CachedReleaseRepository implements ReleaseRepository {
+
+    private static final String ALL_RELEASES = "all";
+
+    private final ReleaseRepository delegate;
+    private final ReleaseCache cache;
+
+    CachedReleaseRepository(ReleaseRepository delegate, ReleaseCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ReleaseRepository fetchAllReleases(Handler<AsyncResult<List<Release>>> resultHandler) {
+        List<Release> cached = (List<Release>) cache.get(ALL_RELEASES);
+        if (cached != null) {
+            resultHandler.handle(Future.succeededFuture(cached));
+            return this;
+        }
+
+        long generation = cache.generation();
+        delegate.fetchAllReleases(ar -> {
+            if (ar.succeeded()) {
+                cache.put(ALL_RELEASES, ar.result(), generation);
+            }
+            resultHandler.handle(ar);
+        });
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository streamAllReleases(String address, int chunkSize,
+                                               Handler<AsyncResult<Void>> resultHandler) {
+        delegate.streamAllReleases(address, chunkSize, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesPage(int afterId, int limit,
+                                               Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.fetchReleasesPage(afterId, limit, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseFieldsPage(List<String> fields, int afterId, int limit,
+                                                    Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        delegate.fetchReleaseFieldsPage(fields, afterId, limit, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseById(int id, Handler<AsyncResult<Release>> resultHandler) {
+        Release cached = (Release) cache.get(id);
+        if (cached != null) {
+            resultHandler.handle(Future.succeededFuture(cached));
+            return this;
+        }
+
+        long generation = cache.generation();
+        delegate.fetchReleaseById(id, ar -> {
+            // Misses are not cached, the id may be taken by the next insert
+            if (ar.succeeded() && ar.result() != null) {
+                cache.put(id, ar.result(), generation);
+            }
+            resultHandler.handle(ar);
+        });
+        return this;
+    }
+
+    /**
+     * The cached releases are served from the cache, the others are fetched in a single call and cached.
+     */
+    @Override
+    public ReleaseRepository fetchReleasesByIds(List<Integer> ids, Handler<AsyncResult<List<Release>>> resultHandler) {
+        List<Release> releases = new ArrayList<>(ids.size());
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            Release cached = (Release) cache.get(id);
+            if (cached != null) {
+                releases.add(cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            resultHandler.handle(Future.succeededFuture(releases));
+            return this;
+        }
+
+        long generation = cache.generation();
+        delegate.fetchReleasesByIds(missing, ar -> {
+            if (ar.succeeded()) {
+                ar.result().forEach(release -> cache.put(release.getId(), release, generation));
+                releases.addAll(ar.result());
+            }
+            resultHandler.handle(ar.map(releases));
+        });
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseContent(int id, Handler<AsyncResult<String>> resultHandler) {
+        Release cached = (Release) cache.get(id);
+        if (cached != null) {
+            resultHandler.handle(Future.succeededFuture(cached.getContent()));
+            return this;
+        }
+
+        delegate.fetchReleaseContent(id, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseVersion(int id, Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        delegate.fetchReleaseVersion(id, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesVersion(Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        delegate.fetchReleasesVersion(resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationNames(Handler<AsyncResult<List<String>>> resultHandler) {
+        delegate.fetchApplicationNames(resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationReleases(String applicationName,
+                                                      Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.fetchApplicationReleases(applicationName, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchLatestRelease(String applicationName, Handler<AsyncResult<Release>> resultHandler) {
+        delegate.fetchLatestRelease(applicationName, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository searchReleases(String query, int limit,
+                                            Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.searchReleases(query, limit, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertRelease(String applicationName, String version, String content,
+                                           String releaseDate, Handler<AsyncResult<Void>> resultHandler) {
+        delegate.insertRelease(applicationName, version, content, releaseDate, ar -> {
+            cache.invalidate(ALL_RELEASES);
+            resultHandler.handle(ar);
+        });
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertReleases(List<Release> releases,
+                                            Handler<AsyncResult<List<Integer>>> resultHandler) {
+        delegate.insertReleases(releases, ar -> {
+            cache.invalidate(ALL_RELEASES);
+            resultHandler.handle(ar);
+        });
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository updateRelease(int id, String content, Handler<AsyncResult<Integer>> resultHandler) {
+        delegate.updateRelease(id, content, ar -> {
+            cache.invalidate(id, ALL_RELEASES);
+            resultHandler.handle(ar);
+        });
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository deleteRelease(int id, Handler<AsyncResult<Integer>> resultHandler) {
+        delegate.deleteRelease(id, ar -> {
+            cache.invalidate(id, ALL_RELEASES);
+            resultHandler.handle(ar);
+        });
+        return this;
+    }
+
+}
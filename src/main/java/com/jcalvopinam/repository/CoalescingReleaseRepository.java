@@ -0,0 +1,296 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
+import com.jcalvopinam.utils.Constants;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces identical reads in flight through the {@link ReleaseRepository} proxies of a Vert.x instance: the first
+ * caller for a given release, page or listing sends the call, the callers arriving before it completes, from any
+ * proxy to the same address, wait for that call instead of sending their own, and they all get the same result on
+ * their own context. A burst of requests for the same release costs a single query however many HTTP verticle
+ * instances it is spread over. The waiters share the result instance, so they must not modify it.
+ * <p>
+ * Every write completed through a proxy to the address moves the shared write epoch forward, and a read never joins
+ * a call started in an earlier epoch, so a read issued after a write has completed sees that write.
+ *
+ * @author Juan Calvopina
+ */
+public class CoalescingReleaseRepository implements ReleaseRepository {
+
+    private static final String ALL = "all";
+
+    private final ReleaseRepository delegate;
+    private final ReadsInFlight reads;
+
+    CoalescingReleaseRepository(ReleaseRepository delegate, ReadsInFlight reads) {
+        this.delegate = delegate;
+        this.reads = reads;
+    }
+
+    @Override
+    public ReleaseRepository fetchAllReleases(Handler<AsyncResult<List<Release>>> resultHandler) {
+        reads.allReleases.call(ALL, delegate::fetchAllReleases, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository streamAllReleases(String address, int chunkSize,
+                                               Handler<AsyncResult<Void>> resultHandler) {
+        delegate.streamAllReleases(address, chunkSize, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesPage(int afterId, int limit,
+                                               Handler<AsyncResult<List<Release>>> resultHandler) {
+        reads.pages.call(afterId + ":" + limit, handler -> delegate.fetchReleasesPage(afterId, limit, handler),
+                         resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseFieldsPage(List<String> fields, int afterId, int limit,
+                                                    Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        reads.fieldPages.call(fields + ":" + afterId + ":" + limit,
+                              handler -> delegate.fetchReleaseFieldsPage(fields, afterId, limit, handler),
+                              resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseById(int id, Handler<AsyncResult<Release>> resultHandler) {
+        reads.releases.call(id, handler -> delegate.fetchReleaseById(id, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesByIds(List<Integer> ids, Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.fetchReleasesByIds(ids, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseContent(int id, Handler<AsyncResult<String>> resultHandler) {
+        reads.contents.call(id, handler -> delegate.fetchReleaseContent(id, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseVersion(int id, Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        reads.releaseVersions.call(id, handler -> delegate.fetchReleaseVersion(id, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesVersion(Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        reads.releasesVersions.call(ALL, delegate::fetchReleasesVersion, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationNames(Handler<AsyncResult<List<String>>> resultHandler) {
+        delegate.fetchApplicationNames(resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationReleases(String applicationName,
+                                                      Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.fetchApplicationReleases(applicationName, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchLatestRelease(String applicationName, Handler<AsyncResult<Release>> resultHandler) {
+        delegate.fetchLatestRelease(applicationName, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository searchReleases(String query, int limit,
+                                            Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.searchReleases(query, limit, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertRelease(String applicationName, String version, String content,
+                                           String releaseDate, Handler<AsyncResult<Void>> resultHandler) {
+        delegate.insertRelease(applicationName, version, content, releaseDate, written(resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertReleases(List<Release> releases,
+                                            Handler<AsyncResult<List<Integer>>> resultHandler) {
+        delegate.insertReleases(releases, written(resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository updateRelease(int id, String content, Handler<AsyncResult<Integer>> resultHandler) {
+        delegate.updateRelease(id, content, written(resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository deleteRelease(int id, Handler<AsyncResult<Integer>> resultHandler) {
+        delegate.deleteRelease(id, written(resultHandler));
+        return this;
+    }
+
+    /**
+     * Moves the epoch forward before the caller sees the outcome of the write, failed writes included since they may
+     * have been committed anyway.
+     */
+    private <T> Handler<AsyncResult<T>> written(Handler<AsyncResult<T>> resultHandler) {
+        return ar -> {
+            reads.written();
+            resultHandler.handle(ar);
+        };
+    }
+
+    /**
+     * The reads in flight through the proxies of a Vert.x instance to a service address and the epoch of the writes
+     * completed through them, shared by all of them through a local map.
+     */
+    static final class ReadsInFlight implements Shareable {
+
+        private final AtomicLong epoch = new AtomicLong();
+        private final InFlight<String, List<Release>> allReleases = new InFlight<>(epoch);
+        private final InFlight<String, List<Release>> pages = new InFlight<>(epoch);
+        private final InFlight<String, List<JsonObject>> fieldPages = new InFlight<>(epoch);
+        private final InFlight<Integer, Release> releases = new InFlight<>(epoch);
+        private final InFlight<Integer, String> contents = new InFlight<>(epoch);
+        private final InFlight<Integer, ReleaseVersion> releaseVersions = new InFlight<>(epoch);
+        private final InFlight<String, ReleaseVersion> releasesVersions = new InFlight<>(epoch);
+
+        static ReadsInFlight of(Vertx vertx, String address) {
+            LocalMap<String, ReadsInFlight> reads = vertx.sharedData().getLocalMap(Constants.RELEASE_READS_IN_FLIGHT);
+            reads.putIfAbsent(address, new ReadsInFlight());
+            return reads.get(address);
+        }
+
+        long writes() {
+            return epoch.get();
+        }
+
+        void written() {
+            epoch.incrementAndGet();
+        }
+
+    }
+
+    /**
+     * The callers waiting for the call in flight for each key. A call started before the last write is replaced by
+     * a new one for the next caller, its own waiters still get its result.
+     */
+    private static final class InFlight<K, T> {
+
+        private final AtomicLong writes;
+        private final Map<K, Pending<T>> calls = new HashMap<>();
+
+        InFlight(AtomicLong writes) {
+            this.writes = writes;
+        }
+
+        void call(K key, Consumer<Handler<AsyncResult<T>>> call, Handler<AsyncResult<T>> resultHandler) {
+            long epoch = writes.get();
+            Waiter<T> waiter = new Waiter<>(Vertx.currentContext(), resultHandler);
+            Pending<T> pending;
+            synchronized (calls) {
+                pending = calls.get(key);
+                if (pending != null && pending.epoch == epoch) {
+                    pending.waiters.add(waiter);
+                    return;
+                }
+                pending = new Pending<>(epoch);
+                pending.waiters.add(waiter);
+                calls.put(key, pending);
+            }
+
+            Pending<T> started = pending;
+            call.accept(ar -> {
+                synchronized (calls) {
+                    calls.remove(key, started);
+                }
+                started.waiters.forEach(joined -> joined.handle(ar));
+            });
+        }
+
+    }
+
+    private static final class Pending<T> {
+
+        private final long epoch;
+        private final List<Waiter<T>> waiters = new ArrayList<>();
+
+        private Pending(long epoch) {
+            this.epoch = epoch;
+        }
+
+    }
+
+    /**
+     * A caller waiting for a call, the result is handed back on its context when the call completes on another one.
+     */
+    private static final class Waiter<T> {
+
+        private final Context context;
+        private final Handler<AsyncResult<T>> resultHandler;
+
+        private Waiter(Context context, Handler<AsyncResult<T>> resultHandler) {
+            this.context = context;
+            this.resultHandler = resultHandler;
+        }
+
+        void handle(AsyncResult<T> ar) {
+            if (context == null || context == Vertx.currentContext()) {
+                resultHandler.handle(ar);
+            } else {
+                context.runOnContext(v -> resultHandler.handle(ar));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.jcalvopinam.repository;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.UpdateResult;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.ext.jdbc.JDBCClient;
+import io.vertx.reactivex.ext.sql.SQLClientHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the writes arriving within {@code maxDelay} milliseconds of each other, or until {@code maxSize} of them
+ * are pending, and runs them in a single transaction, so a burst of writes costs one commit, and one log sync in
+ * HSQLDB, instead of one per write. Each write completes once its group has been committed. When a group fails, for
+ * instance because one of its writes violates a constraint, its writes are retried one by one so a bad write does not
+ * fail the others.
+ *
+ * @author Juan Calvopina
+ */
+class GroupCommitWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GroupCommitWriter.class);
+    private static final long NO_TIMER = -1;
+
+    private final Vertx vertx;
+    private final JDBCClient dbClient;
+    private final long maxDelay;
+    private final int maxSize;
+
+    private List<Write> pending = new ArrayList<>();
+    private long timerId = NO_TIMER;
+
+    GroupCommitWriter(Vertx vertx, JDBCClient dbClient, long maxDelay, int maxSize) {
+        this.vertx = vertx;
+        this.dbClient = dbClient;
+        this.maxDelay = maxDelay;
+        this.maxSize = maxSize;
+    }
+
+    Single<UpdateResult> update(String query, JsonArray params) {
+        return Single.create(emitter -> enqueue(new Write(query, params, emitter)));
+    }
+
+    private void enqueue(Write write) {
+        List<Write> group = null;
+        synchronized (this) {
+            pending.add(write);
+            if (pending.size() >= maxSize) {
+                if (timerId != NO_TIMER) {
+                    vertx.cancelTimer(timerId);
+                }
+                group = drain();
+            } else if (timerId == NO_TIMER) {
+                timerId = vertx.setTimer(maxDelay, id -> {
+                    List<Write> expired;
+                    synchronized (this) {
+                        expired = drain();
+                    }
+                    commit(expired);
+                });
+            }
+        }
+
+        if (group != null) {
+            commit(group);
+        }
+    }
+
+    private List<Write> drain() {
+        List<Write> group = pending;
+        pending = new ArrayList<>();
+        timerId = NO_TIMER;
+        return group;
+    }
+
+    private void commit(List<Write> group) {
+        if (group.size() == 1) {
+            commitAlone(group.get(0));
+            return;
+        }
+
+        SQLClientHelper.inTransactionSingle(dbClient,
+                                            conn -> Observable.fromIterable(group)
+                                                              .concatMapSingle(write -> conn.rxUpdateWithParams(
+                                                                      write.query, write.params))
+                                                              .toList())
+                       .subscribe(results -> {
+                           for (int i = 0; i < group.size(); i++) {
+                               group.get(i).emitter.onSuccess(results.get(i));
+                           }
+                       }, t -> {
+                           LOGGER.warn("A group of {} writes failed, retrying them one by one: {}", group.size(),
+                                       t.getMessage());
+                           group.forEach(this::commitAlone);
+                       });
+    }
+
+    private void commitAlone(Write write) {
+        dbClient.rxUpdateWithParams(write.query, write.params)
+                .subscribe(write.emitter::onSuccess, write.emitter::onError);
+    }
+
+    private static final class Write {
+
+        private final String query;
+        private final JsonArray params;
+        private final SingleEmitter<UpdateResult> emitter;
+
+        private Write(String query, JsonArray params, SingleEmitter<UpdateResult> emitter) {
+            this.query = query;
+            this.params = params;
+            this.emitter = emitter;
+        }
+
+    }
+
+}
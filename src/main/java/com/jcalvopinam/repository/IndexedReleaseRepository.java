@@ -0,0 +1,256 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a {@link ReleaseSearchIndex} in step with the writes made through a {@link ReleaseRepository} and answers
+ * searches from it, loading only the releases that are returned.
+ * <p>
+ * Inserts do not return the generated ids, so after an insert every release with an id greater than the highest id
+ * indexed before the insert started is indexed. That also picks up concurrent inserts committed out of order, and
+ * indexing the same release twice is harmless. When that scan fails the next insert scans again from where it started.
+ *
+ * @author Juan Calvopina
+ */
+public class IndexedReleaseRepository implements ReleaseRepository {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexedReleaseRepository.class);
+
+    private static final int INDEXING_PAGE_SIZE = 500;
+
+    private final ReleaseRepository delegate;
+    private final ReleaseSearchIndex index;
+
+    IndexedReleaseRepository(ReleaseRepository delegate, ReleaseSearchIndex index,
+                             Handler<AsyncResult<ReleaseRepository>> readyHandler) {
+        this.delegate = delegate;
+        this.index = index;
+
+        if (index.claimInitialLoad()) {
+            indexAfter(index.maxId(), ar -> readyHandler.handle(ar.map(this)));
+        } else {
+            readyHandler.handle(Future.succeededFuture(this));
+        }
+    }
+
+    @Override
+    public ReleaseRepository fetchAllReleases(Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.fetchAllReleases(resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository streamAllReleases(String address, int chunkSize,
+                                               Handler<AsyncResult<Void>> resultHandler) {
+        delegate.streamAllReleases(address, chunkSize, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesPage(int afterId, int limit,
+                                               Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.fetchReleasesPage(afterId, limit, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseFieldsPage(List<String> fields, int afterId, int limit,
+                                                    Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        delegate.fetchReleaseFieldsPage(fields, afterId, limit, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseById(int id, Handler<AsyncResult<Release>> resultHandler) {
+        delegate.fetchReleaseById(id, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesByIds(List<Integer> ids, Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.fetchReleasesByIds(ids, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseContent(int id, Handler<AsyncResult<String>> resultHandler) {
+        delegate.fetchReleaseContent(id, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseVersion(int id, Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        delegate.fetchReleaseVersion(id, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesVersion(Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        delegate.fetchReleasesVersion(resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationNames(Handler<AsyncResult<List<String>>> resultHandler) {
+        delegate.fetchApplicationNames(resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationReleases(String applicationName,
+                                                      Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.fetchApplicationReleases(applicationName, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchLatestRelease(String applicationName, Handler<AsyncResult<Release>> resultHandler) {
+        delegate.fetchLatestRelease(applicationName, resultHandler);
+        return this;
+    }
+
+    /**
+     * The releases found are fetched in a single call and put back in the order of their score.
+     */
+    @Override
+    public ReleaseRepository searchReleases(String query, int limit,
+                                            Handler<AsyncResult<List<Release>>> resultHandler) {
+        List<Integer> ids = index.search(query, limit);
+        delegate.fetchReleasesByIds(ids, ar -> resultHandler.handle(ar.map(releases -> {
+            Map<Integer, Release> byId = new HashMap<>();
+            releases.forEach(release -> byId.put(release.getId(), release));
+            // Releases deleted since they were found are skipped
+            return ids.stream()
+                      .map(byId::get)
+                      .filter(Objects::nonNull)
+                      .collect(Collectors.toList());
+        })));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertRelease(String applicationName, String version, String content,
+                                           String releaseDate, Handler<AsyncResult<Void>> resultHandler) {
+        int failedScans = index.failedScans();
+        int indexedId = index.scanStart();
+        delegate.insertRelease(applicationName, version, content, releaseDate,
+                               ar -> afterInsert(indexedId, failedScans, ar, resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertReleases(List<Release> releases,
+                                            Handler<AsyncResult<List<Integer>>> resultHandler) {
+        int failedScans = index.failedScans();
+        int indexedId = index.scanStart();
+        delegate.insertReleases(releases, ar -> afterInsert(indexedId, failedScans, ar, resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository updateRelease(int id, String content, Handler<AsyncResult<Integer>> resultHandler) {
+        delegate.updateRelease(id, content, ar -> {
+            if (ar.failed() || ar.result() == 0) {
+                resultHandler.handle(ar);
+                return;
+            }
+
+            delegate.fetchReleaseById(id, release -> {
+                if (release.failed()) {
+                    LOGGER.warn("Could not index the release {}, it is left out of the searches: {}", id,
+                                release.cause().getMessage());
+                    index.remove(id);
+                } else if (release.result() != null) {
+                    index.add(release.result());
+                }
+                resultHandler.handle(ar);
+            });
+        });
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository deleteRelease(int id, Handler<AsyncResult<Integer>> resultHandler) {
+        delegate.deleteRelease(id, ar -> {
+            if (ar.succeeded() && ar.result() > 0) {
+                index.remove(id);
+            }
+            resultHandler.handle(ar);
+        });
+        return this;
+    }
+
+    private <T> void afterInsert(int indexedId, int failedScans, AsyncResult<T> insert,
+                                 Handler<AsyncResult<T>> resultHandler) {
+        if (insert.failed()) {
+            resultHandler.handle(insert);
+            return;
+        }
+
+        indexAfter(indexedId, indexed -> {
+            if (indexed.failed()) {
+                LOGGER.warn("Could not index the releases after {}, the next insert indexes them: {}", indexedId,
+                            indexed.cause().getMessage());
+                index.scanFailed(indexedId);
+            } else {
+                index.scanSucceeded(indexedId, failedScans);
+            }
+            resultHandler.handle(insert);
+        });
+    }
+
+    private void indexAfter(int afterId, Handler<AsyncResult<Void>> doneHandler) {
+        delegate.fetchReleasesPage(afterId, INDEXING_PAGE_SIZE, ar -> {
+            if (ar.failed()) {
+                doneHandler.handle(Future.failedFuture(ar.cause()));
+                return;
+            }
+
+            List<Release> page = ar.result();
+            page.forEach(index::add);
+            if (page.size() < INDEXING_PAGE_SIZE) {
+                doneHandler.handle(Future.succeededFuture());
+            } else {
+                indexAfter(page.get(page.size() - 1).getId(), doneHandler);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Repositories deployed in this Vert.x instance for a service address, each one with the context of the verticle
+ * that owns it. Used by {@link LocalReleaseRepository} to call them without going through the event bus.
+ *
+ * @author Juan Calvopina
+ */
+public class LocalReleaseRepositories implements Shareable {
+
+    private static final String LOCAL_REPOSITORIES = "release.repository.local";
+
+    private final List<Target> targets = new CopyOnWriteArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    static LocalReleaseRepositories get(Vertx vertx, String address) {
+        LocalMap<String, LocalReleaseRepositories> repositories = vertx.sharedData().getLocalMap(LOCAL_REPOSITORIES);
+        repositories.putIfAbsent(address, new LocalReleaseRepositories());
+        return repositories.get(address);
+    }
+
+    /**
+     * Registers a repository owned by the current verticle, its calls will run on the verticle context.
+     */
+    public static void register(Vertx vertx, String address, ReleaseRepository repository) {
+        get(vertx, address).targets.add(new Target(vertx.getOrCreateContext(), repository));
+    }
+
+    public static void unregister(Vertx vertx, String address, ReleaseRepository repository) {
+        get(vertx, address).targets.removeIf(target -> target.repository == repository);
+    }
+
+    /**
+     * Picks the next registered repository in round robin, {@code null} when there is none.
+     */
+    Target next() {
+        int size = targets.size();
+        if (size == 0) {
+            return null;
+        }
+        try {
+            return targets.get(Math.floorMod(next.getAndIncrement(), size));
+        } catch (IndexOutOfBoundsException e) {
+            // A repository was unregistered concurrently
+            return null;
+        }
+    }
+
+    static final class Target {
+
+        final Context context;
+        final ReleaseRepository repository;
+
+        private Target(Context context, ReleaseRepository repository) {
+            this.context = context;
+            this.repository = repository;
+        }
+
+    }
+
+}
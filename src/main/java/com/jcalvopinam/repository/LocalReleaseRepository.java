@@ -0,0 +1,218 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
+import com.jcalvopinam.tracing.TraceContext;
+import com.jcalvopinam.tracing.Tracing;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonObject;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+/**
+ * Calls a repository deployed in the same Vert.x instance directly instead of encoding the call into an event bus
+ * message. The call runs on the context of the verticle that owns the repository and the result is handed back on
+ * the caller context, so both sides keep their threading model, but arguments and results are passed by reference
+ * and must be treated as read-only. The trace of the caller, if any, is handed over like the event bus proxy does, and
+ * a call left without a result after the send timeout fails like an event bus call would, with a
+ * {@link ReplyFailure#TIMEOUT}. The call itself is not interrupted.
+ * <p>
+ * Falls back to the event bus proxy while no local repository is registered for the address.
+ *
+ * @author Juan Calvopina
+ */
+public class LocalReleaseRepository implements ReleaseRepository {
+
+    private final Vertx vertx;
+    private final LocalReleaseRepositories repositories;
+    private final ReleaseRepository remote;
+    private final String address;
+    private final long timeoutMs;
+
+    LocalReleaseRepository(Vertx vertx, String address, long timeoutMs, ReleaseRepository remote) {
+        this.vertx = vertx;
+        this.repositories = LocalReleaseRepositories.get(vertx, address);
+        this.remote = remote;
+        this.address = address;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public ReleaseRepository fetchAllReleases(Handler<AsyncResult<List<Release>>> resultHandler) {
+        dispatch(ReleaseRepository::fetchAllReleases, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository streamAllReleases(String address, int chunkSize,
+                                               Handler<AsyncResult<Void>> resultHandler) {
+        dispatch((repository, handler) -> repository.streamAllReleases(address, chunkSize, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesPage(int afterId, int limit,
+                                               Handler<AsyncResult<List<Release>>> resultHandler) {
+        dispatch((repository, handler) -> repository.fetchReleasesPage(afterId, limit, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseFieldsPage(List<String> fields, int afterId, int limit,
+                                                    Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        dispatch((repository, handler) -> repository.fetchReleaseFieldsPage(fields, afterId, limit, handler),
+                 resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseById(int id, Handler<AsyncResult<Release>> resultHandler) {
+        dispatch((repository, handler) -> repository.fetchReleaseById(id, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesByIds(List<Integer> ids, Handler<AsyncResult<List<Release>>> resultHandler) {
+        dispatch((repository, handler) -> repository.fetchReleasesByIds(ids, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseContent(int id, Handler<AsyncResult<String>> resultHandler) {
+        dispatch((repository, handler) -> repository.fetchReleaseContent(id, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseVersion(int id, Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        dispatch((repository, handler) -> repository.fetchReleaseVersion(id, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesVersion(Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        dispatch(ReleaseRepository::fetchReleasesVersion, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationNames(Handler<AsyncResult<List<String>>> resultHandler) {
+        dispatch(ReleaseRepository::fetchApplicationNames, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationReleases(String applicationName,
+                                                      Handler<AsyncResult<List<Release>>> resultHandler) {
+        dispatch((repository, handler) -> repository.fetchApplicationReleases(applicationName, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchLatestRelease(String applicationName, Handler<AsyncResult<Release>> resultHandler) {
+        dispatch((repository, handler) -> repository.fetchLatestRelease(applicationName, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository searchReleases(String query, int limit,
+                                            Handler<AsyncResult<List<Release>>> resultHandler) {
+        dispatch((repository, handler) -> repository.searchReleases(query, limit, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertRelease(String applicationName, String version, String content,
+                                           String releaseDate, Handler<AsyncResult<Void>> resultHandler) {
+        dispatch((repository, handler) -> repository.insertRelease(applicationName, version, content, releaseDate,
+                                                                   handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertReleases(List<Release> releases,
+                                            Handler<AsyncResult<List<Integer>>> resultHandler) {
+        dispatch((repository, handler) -> repository.insertReleases(releases, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository updateRelease(int id, String content, Handler<AsyncResult<Integer>> resultHandler) {
+        dispatch((repository, handler) -> repository.updateRelease(id, content, handler), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository deleteRelease(int id, Handler<AsyncResult<Integer>> resultHandler) {
+        dispatch((repository, handler) -> repository.deleteRelease(id, handler), resultHandler);
+        return this;
+    }
+
+    private <T> void dispatch(BiConsumer<ReleaseRepository, Handler<AsyncResult<T>>> call,
+                              Handler<AsyncResult<T>> resultHandler) {
+        LocalReleaseRepositories.Target target = repositories.next();
+        if (target == null) {
+            call.accept(remote, resultHandler);
+            return;
+        }
+
+        Context caller = vertx.getOrCreateContext();
+        TraceContext trace = Tracing.outgoing();
+        AtomicBoolean completed = new AtomicBoolean();
+        long timer = timeoutMs > 0 ? vertx.setTimer(timeoutMs, id -> {
+            if (completed.compareAndSet(false, true)) {
+                resultHandler.handle(Future.failedFuture(new ReplyException(
+                        ReplyFailure.TIMEOUT, "Timed out after waiting " + timeoutMs + "(ms) for a reply. address: "
+                                              + address)));
+            }
+        }) : -1;
+        Handler<AsyncResult<T>> callerHandler = ar -> caller.runOnContext(v -> {
+            if (completed.compareAndSet(false, true)) {
+                vertx.cancelTimer(timer);
+                resultHandler.handle(ar);
+            }
+        });
+        target.context.runOnContext(v -> {
+            try {
+                Tracing.setIncoming(trace);
+                call.accept(target.repository, callerHandler);
+            } catch (Exception e) {
+                callerHandler.handle(Future.failedFuture(e));
+            }
+        });
+    }
+
+}
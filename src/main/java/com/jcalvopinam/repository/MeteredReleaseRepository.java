@@ -0,0 +1,188 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
+import com.jcalvopinam.metrics.Metrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the round trip of every call to a {@link ReleaseRepository}, tagged with the method name and its outcome.
+ * Wrapped around the event bus proxy it measures the event bus hop plus the work done by the repository.
+ *
+ * @author Juan Calvopina
+ */
+public class MeteredReleaseRepository implements ReleaseRepository {
+
+    private static final String RELEASE_REPOSITORY_CALLS = "release.repository.calls";
+
+    private final ReleaseRepository delegate;
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    MeteredReleaseRepository(ReleaseRepository delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+    }
+
+    @Override
+    public ReleaseRepository fetchAllReleases(Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.fetchAllReleases(timed("fetchAllReleases", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository streamAllReleases(String address, int chunkSize,
+                                               Handler<AsyncResult<Void>> resultHandler) {
+        delegate.streamAllReleases(address, chunkSize, timed("streamAllReleases", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesPage(int afterId, int limit,
+                                               Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.fetchReleasesPage(afterId, limit, timed("fetchReleasesPage", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseFieldsPage(List<String> fields, int afterId, int limit,
+                                                    Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        delegate.fetchReleaseFieldsPage(fields, afterId, limit, timed("fetchReleaseFieldsPage", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseById(int id, Handler<AsyncResult<Release>> resultHandler) {
+        delegate.fetchReleaseById(id, timed("fetchReleaseById", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesByIds(List<Integer> ids, Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.fetchReleasesByIds(ids, timed("fetchReleasesByIds", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseContent(int id, Handler<AsyncResult<String>> resultHandler) {
+        delegate.fetchReleaseContent(id, timed("fetchReleaseContent", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseVersion(int id, Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        delegate.fetchReleaseVersion(id, timed("fetchReleaseVersion", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesVersion(Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        delegate.fetchReleasesVersion(timed("fetchReleasesVersion", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationNames(Handler<AsyncResult<List<String>>> resultHandler) {
+        delegate.fetchApplicationNames(timed("fetchApplicationNames", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationReleases(String applicationName,
+                                                      Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.fetchApplicationReleases(applicationName, timed("fetchApplicationReleases", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchLatestRelease(String applicationName, Handler<AsyncResult<Release>> resultHandler) {
+        delegate.fetchLatestRelease(applicationName, timed("fetchLatestRelease", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository searchReleases(String query, int limit,
+                                            Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.searchReleases(query, limit, timed("searchReleases", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertRelease(String applicationName, String version, String content,
+                                           String releaseDate, Handler<AsyncResult<Void>> resultHandler) {
+        delegate.insertRelease(applicationName, version, content, releaseDate, timed("insertRelease", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertReleases(List<Release> releases,
+                                            Handler<AsyncResult<List<Integer>>> resultHandler) {
+        delegate.insertReleases(releases, timed("insertReleases", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository updateRelease(int id, String content, Handler<AsyncResult<Integer>> resultHandler) {
+        delegate.updateRelease(id, content, timed("updateRelease", resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository deleteRelease(int id, Handler<AsyncResult<Integer>> resultHandler) {
+        delegate.deleteRelease(id, timed("deleteRelease", resultHandler));
+        return this;
+    }
+
+    private <T> Handler<AsyncResult<T>> timed(String method, Handler<AsyncResult<T>> resultHandler) {
+        long start = System.nanoTime();
+        return ar -> {
+            timer(method, ar.succeeded()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            resultHandler.handle(ar);
+        };
+    }
+
+    private Timer timer(String method, boolean succeeded) {
+        String outcome = succeeded ? "success" : "failure";
+        return timers.computeIfAbsent(method + '.' + outcome,
+                                      key -> Timer.builder(RELEASE_REPOSITORY_CALLS)
+                                                  .tag("method", method)
+                                                  .tag("outcome", outcome)
+                                                  .publishPercentiles(Metrics.PERCENTILES)
+                                                  .register(registry));
+    }
+
+}
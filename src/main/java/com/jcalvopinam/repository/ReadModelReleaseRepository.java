@@ -0,0 +1,393 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
+import com.jcalvopinam.utils.Constants;
+import com.jcalvopinam.utils.VersionComparator;
+import io.reactivex.Flowable;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.CompletableHelper;
+import io.vertx.reactivex.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Answers the reads from a {@link ReleaseReadModel} on the calling thread, without going to the database, and applies
+ * every write to the model once the database has committed it. Until the model is loaded the reads go to the
+ * database, and so do the listings and the releases left out once the model has gone over its memory budget.
+ * Searches are left to {@link IndexedReleaseRepository}.
+ * <p>
+ * Like {@link IndexedReleaseRepository}, the releases inserted after the highest id in the model are read back after
+ * an insert, and an updated release is read back after the update.
+ *
+ * @author Juan Calvopina
+ */
+public class ReadModelReleaseRepository implements ReleaseRepository {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadModelReleaseRepository.class);
+
+    private static final int LOADING_PAGE_SIZE = 500;
+
+    private final Vertx vertx;
+    private final ReleaseRepository delegate;
+    private final ReleaseReadModel model;
+
+    ReadModelReleaseRepository(io.vertx.core.Vertx vertx, ReleaseRepository delegate, ReleaseReadModel model,
+                               Handler<AsyncResult<ReleaseRepository>> readyHandler) {
+        this.vertx = new Vertx(vertx);
+        this.delegate = delegate;
+        this.model = model;
+
+        if (model.claimInitialLoad()) {
+            loadAfter(model.maxId(), ar -> {
+                if (ar.succeeded()) {
+                    model.markLoaded();
+                    LOGGER.info("Loaded {} releases, about {} bytes, into the read model", model.size(),
+                                model.bytes());
+                }
+                readyHandler.handle(ar.map(this));
+            });
+        } else {
+            readyHandler.handle(Future.succeededFuture(this));
+        }
+    }
+
+    @Override
+    public ReleaseRepository fetchAllReleases(Handler<AsyncResult<List<Release>>> resultHandler) {
+        if (model.isServing()) {
+            resultHandler.handle(Future.succeededFuture(model.releases()));
+        } else {
+            delegate.fetchAllReleases(resultHandler);
+        }
+        return this;
+    }
+
+    /**
+     * The ids are read up front and each chunk is read once the previous one has been acknowledged, releases deleted
+     * meanwhile are left out.
+     */
+    @Override
+    public ReleaseRepository streamAllReleases(String address, int chunkSize,
+                                               Handler<AsyncResult<Void>> resultHandler) {
+        if (!model.isServing()) {
+            delegate.streamAllReleases(address, chunkSize, resultHandler);
+            return this;
+        }
+
+        Flowable.fromIterable(model.ids())
+                .buffer(chunkSize)
+                .concatMapCompletable(ids -> vertx.eventBus()
+                                                  .rxSend(address, new JsonArray(model.get(ids)
+                                                                                      .stream()
+                                                                                      .map(Release::toJson)
+                                                                                      .collect(Collectors.toList())))
+                                                  .ignoreElement())
+                .subscribe(CompletableHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesPage(int afterId, int limit,
+                                               Handler<AsyncResult<List<Release>>> resultHandler) {
+        if (model.isServing()) {
+            resultHandler.handle(Future.succeededFuture(model.page(afterId, limit)));
+        } else {
+            delegate.fetchReleasesPage(afterId, limit, resultHandler);
+        }
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseFieldsPage(List<String> fields, int afterId, int limit,
+                                                    Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        if (!model.isServing()) {
+            delegate.fetchReleaseFieldsPage(fields, afterId, limit, resultHandler);
+        } else if (!Constants.RELEASE_FIELDS.containsAll(fields)) {
+            resultHandler.handle(Future.failedFuture(new IllegalArgumentException("Unknown release fields " + fields)));
+        } else {
+            resultHandler.handle(Future.succeededFuture(model.page(afterId, limit).stream()
+                                                             .map(release -> toFields(fields, release.toJson()))
+                                                             .collect(Collectors.toList())));
+        }
+        return this;
+    }
+
+    /**
+     * A stale release read from the database is put back in the model.
+     */
+    @Override
+    public ReleaseRepository fetchReleaseById(int id, Handler<AsyncResult<Release>> resultHandler) {
+        if (answer(id, () -> model.get(id), resultHandler)) {
+            return this;
+        }
+
+        if (model.isStale(id)) {
+            model.readStarted();
+            delegate.fetchReleaseById(id, ar -> {
+                if (ar.succeeded() && ar.result() != null) {
+                    model.put(ar.result());
+                }
+                model.readEnded();
+                resultHandler.handle(ar);
+            });
+        } else {
+            delegate.fetchReleaseById(id, resultHandler);
+        }
+        return this;
+    }
+
+    /**
+     * The releases the model answers for are read from it, the others are fetched from the database in a single call.
+     */
+    @Override
+    public ReleaseRepository fetchReleasesByIds(List<Integer> ids, Handler<AsyncResult<List<Release>>> resultHandler) {
+        List<Release> releases = new ArrayList<>(ids.size());
+        List<Integer> missing = new ArrayList<>();
+        synchronized (model) {
+            for (Integer id : ids) {
+                if (!model.answers(id)) {
+                    missing.add(id);
+                    continue;
+                }
+                Release release = model.get(id);
+                if (release != null) {
+                    releases.add(release);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            resultHandler.handle(Future.succeededFuture(releases));
+            return this;
+        }
+
+        delegate.fetchReleasesByIds(missing, ar -> {
+            if (ar.succeeded()) {
+                releases.addAll(ar.result());
+            }
+            resultHandler.handle(ar.map(releases));
+        });
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseContent(int id, Handler<AsyncResult<String>> resultHandler) {
+        Supplier<String> content = () -> {
+            Release release = model.get(id);
+            return release != null ? release.getContent() : null;
+        };
+        if (!answer(id, content, resultHandler)) {
+            delegate.fetchReleaseContent(id, resultHandler);
+        }
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseVersion(int id, Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        if (!answer(id, () -> model.version(id), resultHandler)) {
+            delegate.fetchReleaseVersion(id, resultHandler);
+        }
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesVersion(Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        if (model.isServing()) {
+            resultHandler.handle(Future.succeededFuture(model.listingVersion()));
+        } else {
+            delegate.fetchReleasesVersion(resultHandler);
+        }
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationNames(Handler<AsyncResult<List<String>>> resultHandler) {
+        if (model.isServing()) {
+            resultHandler.handle(Future.succeededFuture(model.applicationNames()));
+        } else {
+            delegate.fetchApplicationNames(resultHandler);
+        }
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationReleases(String applicationName,
+                                                      Handler<AsyncResult<List<Release>>> resultHandler) {
+        if (model.isServing()) {
+            List<Release> releases = model.applicationReleases(applicationName);
+            releases.sort(byVersion());
+            resultHandler.handle(Future.succeededFuture(releases));
+        } else {
+            delegate.fetchApplicationReleases(applicationName, resultHandler);
+        }
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchLatestRelease(String applicationName, Handler<AsyncResult<Release>> resultHandler) {
+        if (model.isServing()) {
+            resultHandler.handle(Future.succeededFuture(model.applicationReleases(applicationName).stream()
+                                                             .max(byVersion())
+                                                             .orElse(null)));
+        } else {
+            delegate.fetchLatestRelease(applicationName, resultHandler);
+        }
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository searchReleases(String query, int limit,
+                                            Handler<AsyncResult<List<Release>>> resultHandler) {
+        delegate.searchReleases(query, limit, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertRelease(String applicationName, String version, String content,
+                                           String releaseDate, Handler<AsyncResult<Void>> resultHandler) {
+        int loadedId = model.maxId();
+        delegate.insertRelease(applicationName, version, content, releaseDate,
+                               ar -> afterInsert(loadedId, ar, resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertReleases(List<Release> releases,
+                                            Handler<AsyncResult<List<Integer>>> resultHandler) {
+        int loadedId = model.maxId();
+        delegate.insertReleases(releases, ar -> afterInsert(loadedId, ar, resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository updateRelease(int id, String content, Handler<AsyncResult<Integer>> resultHandler) {
+        delegate.updateRelease(id, content, ar -> {
+            if (ar.failed() || ar.result() == 0) {
+                resultHandler.handle(ar);
+                return;
+            }
+
+            model.readStarted();
+            delegate.fetchReleaseById(id, release -> {
+                if (release.failed()) {
+                    LOGGER.warn("Could not apply the update of the release {}, it is read from the database until "
+                                + "refreshed: {}", id, release.cause().getMessage());
+                    model.markStale(id);
+                } else if (release.result() != null) {
+                    model.put(release.result());
+                }
+                model.readEnded();
+                resultHandler.handle(ar);
+            });
+        });
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository deleteRelease(int id, Handler<AsyncResult<Integer>> resultHandler) {
+        delegate.deleteRelease(id, ar -> {
+            if (ar.succeeded() && ar.result() > 0) {
+                model.delete(id);
+            }
+            resultHandler.handle(ar);
+        });
+        return this;
+    }
+
+    /**
+     * Answers from the model when it may answer the reads of the release, the check and the read are done under the
+     * lock of the model so the row cannot be left out in between.
+     */
+    private <T> boolean answer(int id, Supplier<T> read, Handler<AsyncResult<T>> resultHandler) {
+        T result;
+        synchronized (model) {
+            if (!model.answers(id)) {
+                return false;
+            }
+            result = read.get();
+        }
+        resultHandler.handle(Future.succeededFuture(result));
+        return true;
+    }
+
+    private <T> void afterInsert(int loadedId, AsyncResult<T> insert, Handler<AsyncResult<T>> resultHandler) {
+        if (insert.failed()) {
+            resultHandler.handle(insert);
+            return;
+        }
+
+        loadAfter(loadedId, loaded -> {
+            if (loaded.failed()) {
+                LOGGER.warn("Could not apply the releases inserted after {}: {}", loadedId,
+                            loaded.cause().getMessage());
+            }
+            resultHandler.handle(insert);
+        });
+    }
+
+    private void loadAfter(int afterId, Handler<AsyncResult<Void>> doneHandler) {
+        model.readStarted();
+        delegate.fetchReleasesPage(afterId, LOADING_PAGE_SIZE, ar -> {
+            if (ar.failed()) {
+                model.readEnded();
+                doneHandler.handle(Future.failedFuture(ar.cause()));
+                return;
+            }
+
+            List<Release> page = ar.result();
+            page.forEach(model::put);
+            model.readEnded();
+            if (page.size() < LOADING_PAGE_SIZE) {
+                doneHandler.handle(Future.succeededFuture());
+            } else {
+                loadAfter(page.get(page.size() - 1).getId(), doneHandler);
+            }
+        });
+    }
+
+    private static Comparator<Release> byVersion() {
+        return Comparator.comparing(Release::getVersion, VersionComparator.INSTANCE)
+                         .thenComparingInt(Release::getId);
+    }
+
+    private static JsonObject toFields(List<String> fields, JsonObject release) {
+        JsonObject projected = new JsonObject();
+        fields.forEach(field -> projected.put(field, release.getValue(field)));
+        return projected;
+    }
+
+}
@@ -0,0 +1,330 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
+import io.vertx.core.shareddata.Shareable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Copy of the release table kept in memory, shared by every {@link ReleaseRepository} instance of a Vert.x instance,
+ * see {@link ReadModelReleaseRepository}.
+ * <p>
+ * Releases are kept as immutable rows, application names are shared between rows, and every read returns a new
+ * {@link Release}. The size of the rows is estimated as they are added; a row that does not fit in the budget is not
+ * admitted, from then on the model only answers the reads of the releases it holds and the rest go to the database,
+ * see {@link #answers(int)}.
+ * <p>
+ * Rows are only replaced by a higher or equal revision and deleted ids are not added back, so a row fetched before
+ * a concurrent write cannot overwrite it. The reads that fill the model are bracketed by {@link #readStarted()} and
+ * {@link #readEnded()}; deleted ids are remembered only while such a read is in flight, a read started after the
+ * delete cannot see the row.
+ *
+ * @author Juan Calvopina
+ */
+public class ReleaseReadModel implements Shareable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReleaseReadModel.class);
+
+    // Object headers, fields and the entries of the maps, a rough figure for a 64-bit JVM
+    private static final long ROW_OVERHEAD = 160;
+    private static final long STRING_OVERHEAD = 40;
+
+    private final long maxBytes;
+    private final TreeMap<Integer, Row> rows = new TreeMap<>();
+    private final TreeMap<String, Set<Integer>> applications = new TreeMap<>();
+    private final Map<String, String> applicationNames = new HashMap<>();
+    private final Set<Integer> deleted = new HashSet<>();
+    private final Map<Integer, Integer> stale = new HashMap<>();
+
+    private long bytes;
+    private long revisions;
+    private int readsInFlight;
+    private int maxId = -1;
+    private boolean initialLoadClaimed;
+    private boolean loaded;
+    private boolean complete = true;
+
+    public ReleaseReadModel(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns true only for the first caller, which is in charge of filling the model from the database.
+     */
+    public synchronized boolean claimInitialLoad() {
+        boolean claimed = !initialLoadClaimed;
+        initialLoadClaimed = true;
+        return claimed;
+    }
+
+    public synchronized void markLoaded() {
+        loaded = true;
+    }
+
+    /**
+     * Whether the model holds every release and may answer the listings.
+     */
+    public synchronized boolean isServing() {
+        return loaded && complete && stale.isEmpty();
+    }
+
+    /**
+     * Whether the model may answer the reads of the release, with null when the release does not exist. Once a row
+     * was left out for the budget only the releases held are answered, and a stale release is never answered.
+     */
+    public synchronized boolean answers(int id) {
+        return loaded && !stale.containsKey(id) && (complete || rows.containsKey(id));
+    }
+
+    public synchronized boolean isStale(int id) {
+        return stale.containsKey(id);
+    }
+
+    /**
+     * Highest id ever added, -1 when nothing was added yet.
+     */
+    public synchronized int maxId() {
+        return maxId;
+    }
+
+    public synchronized int size() {
+        return rows.size();
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Adds the release, or replaces an older revision of it. A release that does not fit in the budget is left out,
+     * and an older revision it replaces is removed.
+     */
+    public synchronized void put(Release release) {
+        int id = release.getId();
+        maxId = Math.max(maxId, id);
+        Row previous = rows.get(id);
+        if (deleted.contains(id) || previous != null && previous.revision > release.getRevision()
+            || release.getRevision() < stale.getOrDefault(id, 0)) {
+            return;
+        }
+
+        stale.remove(id);
+        if (previous != null) {
+            rows.remove(id);
+            remove(previous);
+        }
+        long size = Row.estimatedSize(release.getVersion(), release.getContent(), release.getReleaseDate());
+        if (bytes + size > maxBytes) {
+            leaveOut(id);
+            return;
+        }
+
+        String applicationName = release.getApplicationName();
+        if (applicationName != null) {
+            applicationName = applicationNames.computeIfAbsent(applicationName, name -> name);
+            applications.computeIfAbsent(applicationName, name -> new TreeSet<>()).add(id);
+        }
+        Row row = new Row(id, applicationName, release.getVersion(), release.getContent(), release.getReleaseDate(),
+                          release.getRevision(), release.getLastModified());
+        rows.put(id, row);
+        bytes += size;
+        revisions += row.revision;
+    }
+
+    /**
+     * Called before reading releases from the database to put them in the model.
+     */
+    public synchronized void readStarted() {
+        readsInFlight++;
+    }
+
+    /**
+     * Called once the releases read are in the model, the deleted ids are forgotten when no read is left.
+     */
+    public synchronized void readEnded() {
+        if (--readsInFlight == 0) {
+            deleted.clear();
+        }
+    }
+
+    /**
+     * Removes a release whose write could not be read back. Its reads and the listings go to the database until a
+     * revision newer than the one removed is added, or the release is deleted.
+     */
+    public synchronized void markStale(int id) {
+        Row row = rows.remove(id);
+        if (row != null) {
+            remove(row);
+        }
+        stale.merge(id, row != null ? row.revision + 1 : 0, Math::max);
+    }
+
+    public synchronized void delete(int id) {
+        deleted.add(id);
+        stale.remove(id);
+        Row row = rows.remove(id);
+        if (row != null) {
+            remove(row);
+        }
+    }
+
+    public synchronized Release get(int id) {
+        Row row = rows.get(id);
+        return row != null ? row.toRelease() : null;
+    }
+
+    public synchronized ReleaseVersion version(int id) {
+        Row row = rows.get(id);
+        return row != null ? ReleaseVersion.of(id, row.revision, row.lastModified) : null;
+    }
+
+    public synchronized ReleaseVersion listingVersion() {
+        return ReleaseVersion.ofListing(rows.size(), rows.isEmpty() ? -1 : rows.lastKey(), revisions);
+    }
+
+    public synchronized List<Integer> ids() {
+        return new ArrayList<>(rows.keySet());
+    }
+
+    public synchronized List<Release> releases() {
+        List<Release> releases = new ArrayList<>(rows.size());
+        rows.values().forEach(row -> releases.add(row.toRelease()));
+        return releases;
+    }
+
+    public synchronized List<Release> get(List<Integer> ids) {
+        List<Release> releases = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Row row = rows.get(id);
+            if (row != null) {
+                releases.add(row.toRelease());
+            }
+        }
+        return releases;
+    }
+
+    public synchronized List<Release> page(int afterId, int limit) {
+        List<Release> releases = new ArrayList<>(Math.min(limit, rows.size()));
+        for (Row row : rows.tailMap(afterId, false).values()) {
+            if (releases.size() == limit) {
+                break;
+            }
+            releases.add(row.toRelease());
+        }
+        return releases;
+    }
+
+    public synchronized List<String> applicationNames() {
+        return new ArrayList<>(applications.keySet());
+    }
+
+    /**
+     * Releases of the application in id order.
+     */
+    public synchronized List<Release> applicationReleases(String applicationName) {
+        if (applicationName == null) {
+            return Collections.emptyList();
+        }
+        return get(new ArrayList<>(applications.getOrDefault(applicationName, Collections.emptySet())));
+    }
+
+    private void leaveOut(int id) {
+        if (complete) {
+            LOGGER.warn("The release {} does not fit in the {} bytes of the read model, which holds {} releases; the "
+                        + "listings and the releases left out are read from the database", id, maxBytes, rows.size());
+            complete = false;
+        }
+    }
+
+    private void remove(Row row) {
+        bytes -= row.estimatedSize();
+        revisions -= row.revision;
+        if (row.applicationName != null) {
+            Set<Integer> ids = applications.get(row.applicationName);
+            ids.remove(row.id);
+            if (ids.isEmpty()) {
+                applications.remove(row.applicationName);
+                applicationNames.remove(row.applicationName);
+            }
+        }
+    }
+
+    private static final class Row {
+
+        private final int id;
+        private final String applicationName;
+        private final String version;
+        private final String content;
+        private final String releaseDate;
+        private final int revision;
+        private final long lastModified;
+
+        private Row(int id, String applicationName, String version, String content, String releaseDate, int revision,
+                    long lastModified) {
+            this.id = id;
+            this.applicationName = applicationName;
+            this.version = version;
+            this.content = content;
+            this.releaseDate = releaseDate;
+            this.revision = revision;
+            this.lastModified = lastModified;
+        }
+
+        Release toRelease() {
+            return Release.of(id, applicationName, version, content, releaseDate, revision, lastModified);
+        }
+
+        long estimatedSize() {
+            return estimatedSize(version, content, releaseDate);
+        }
+
+        /**
+         * The application name is shared, so it is not counted.
+         */
+        static long estimatedSize(String version, String content, String releaseDate) {
+            return ROW_OVERHEAD + sizeOf(version) + sizeOf(content) + sizeOf(releaseDate);
+        }
+
+        private static long sizeOf(String value) {
+            return value != null ? STRING_OVERHEAD + 2L * value.length() : 0;
+        }
+
+    }
+
+}
@@ -25,13 +25,22 @@
 
 package com.jcalvopinam.repository;
 
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
+import com.jcalvopinam.metrics.Metrics;
+import com.jcalvopinam.repository.CoalescingReleaseRepository.ReadsInFlight;
+import com.jcalvopinam.tracing.Span;
+import com.jcalvopinam.tracing.Tracing;
+import com.jcalvopinam.utils.Constants;
 import io.vertx.codegen.annotations.Fluent;
 import io.vertx.codegen.annotations.GenIgnore;
+import io.vertx.codegen.annotations.Nullable;
 import io.vertx.codegen.annotations.ProxyGen;
 import io.vertx.codegen.annotations.VertxGen;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.jdbc.JDBCClient;
 
@@ -46,31 +55,223 @@ import java.util.Map;
 public interface ReleaseRepository {
 
     @GenIgnore
-    static ReleaseRepository create(JDBCClient dbClient, Map<String, String> sqlQueries,
+    static ReleaseRepository create(Vertx vertx, JDBCClient dbClient, Map<String, String> sqlQueries,
                                     Handler<AsyncResult<ReleaseRepository>> readyHandler) {
-        return new ReleaseRepositoryImpl(dbClient, sqlQueries, readyHandler);
+        return create(vertx, dbClient, sqlQueries, new JsonObject(), readyHandler);
+    }
+
+    /**
+     * Creates the repository, with {@code db.group.commit.max.delay.ms} greater than zero single writes are committed
+     * in groups, see {@link GroupCommitWriter}.
+     */
+    @GenIgnore
+    static ReleaseRepository create(Vertx vertx, JDBCClient dbClient, Map<String, String> sqlQueries,
+                                    JsonObject config, Handler<AsyncResult<ReleaseRepository>> readyHandler) {
+        return create(vertx, dbClient, null, sqlQueries, config, readyHandler);
+    }
+
+    /**
+     * Creates the repository running its single statements with the given executor, see {@link SqlExecutor}, or on
+     * the worker pool through the JDBC client when it is {@code null}.
+     */
+    @GenIgnore
+    static ReleaseRepository create(Vertx vertx, JDBCClient dbClient, SqlExecutor sql, Map<String, String> sqlQueries,
+                                    JsonObject config, Handler<AsyncResult<ReleaseRepository>> readyHandler) {
+        return new ReleaseRepositoryImpl(vertx, dbClient, sql, sqlQueries, config, readyHandler);
+    }
+
+    /**
+     * Creates a repository storing the releases in the log, which must have been acquired, instead of the database,
+     * see {@link SegmentLog}.
+     */
+    @GenIgnore
+    static ReleaseRepository createSegmentLog(Vertx vertx, SegmentLog log) {
+        return new SegmentLogReleaseRepository(vertx, log);
+    }
+
+    /**
+     * Wraps the repository bound to the event bus so the calls received within a trace record their span, see
+     * {@link TracingReleaseRepository}.
+     */
+    @GenIgnore
+    static ReleaseRepository createTraced(ReleaseRepository repository) {
+        return new TracingReleaseRepository(repository, Span.Kind.SERVER);
+    }
+
+    @GenIgnore
+    static ReleaseRepository createCached(ReleaseRepository repository, ReleaseCache cache) {
+        return new CachedReleaseRepository(repository, cache);
+    }
+
+    /**
+     * Wraps the repository with an in-memory copy of the releases answering the reads, the ready handler is called once
+     * the first repository sharing the model has loaded it, see {@link ReadModelReleaseRepository}.
+     */
+    @GenIgnore
+    static void createReadModel(Vertx vertx, ReleaseRepository repository, ReleaseReadModel model,
+                                Handler<AsyncResult<ReleaseRepository>> readyHandler) {
+        new ReadModelReleaseRepository(vertx, repository, model, readyHandler);
+    }
+
+    /**
+     * Wraps the repository with a search index, the ready handler is called once the releases missing from the index
+     * have been indexed.
+     */
+    @GenIgnore
+    static void createIndexed(ReleaseRepository repository, ReleaseSearchIndex index,
+                              Handler<AsyncResult<ReleaseRepository>> readyHandler) {
+        new IndexedReleaseRepository(repository, index, readyHandler);
     }
 
     @GenIgnore
     static com.jcalvopinam.repository.reactivex.ReleaseRepository createProxy(Vertx vertx, String address) {
+        return createProxy(vertx, address, new JsonObject().put(Constants.CONFIG_LOCAL_DISPATCH, false));
+    }
+
+    /**
+     * Creates a proxy to the repository bound to the address. With {@code repository.local.dispatch}, and unless
+     * Vert.x is clustered, calls go straight to the repositories deployed in this Vert.x instance, see
+     * {@link LocalReleaseRepository}. At most {@code repository.max.in.flight} calls may be pending at once, the
+     * ones over the limit fail fast, see {@link BoundedReleaseRepository}, and calls, dispatched locally or through
+     * the event bus, fail once {@code repository.call.timeout.ms} elapse without a reply. With
+     * {@code repository.coalesce.reads} identical concurrent reads through any proxy of the Vert.x instance share a
+     * single call, see {@link CoalescingReleaseRepository}. With {@code tracing.enabled} the calls made within a
+     * trace record their span and carry the trace to the repository, see {@link TracingReleaseRepository}.
+     */
+    @GenIgnore
+    static com.jcalvopinam.repository.reactivex.ReleaseRepository createProxy(Vertx vertx, String address,
+                                                                              JsonObject config) {
+        DeliveryOptions options = new DeliveryOptions()
+                .setSendTimeout(config.getLong(Constants.CONFIG_CALL_TIMEOUT_MS, DeliveryOptions.DEFAULT_TIMEOUT));
+        ReleaseRepository remote = new ReleaseRepositoryVertxEBProxy(vertx, address, options);
+        ReleaseRepository dispatched = config.getBoolean(Constants.CONFIG_LOCAL_DISPATCH, true) && !vertx.isClustered()
+                                       ? new LocalReleaseRepository(vertx, address, options.getSendTimeout(), remote)
+                                       : remote;
+        ReleaseRepository bounded = new BoundedReleaseRepository(
+                dispatched, config.getInteger(Constants.CONFIG_MAX_IN_FLIGHT, Constants.DEFAULT_MAX_IN_FLIGHT));
+        ReleaseRepository coalesced = config.getBoolean(Constants.CONFIG_COALESCE_READS, true)
+                                      ? new CoalescingReleaseRepository(bounded, ReadsInFlight.of(vertx, address))
+                                      : bounded;
+        boolean tracing = config.getBoolean(Constants.CONFIG_TRACING_ENABLED, false);
+        if (tracing) {
+            Tracing.propagateOverEventBus(vertx);
+        }
+        ReleaseRepository proxy = tracing ? new TracingReleaseRepository(coalesced, Span.Kind.CLIENT) : coalesced;
         return new com.jcalvopinam.repository.reactivex.ReleaseRepository(
-                new ReleaseRepositoryVertxEBProxy(vertx, address));
+                Metrics.registry()
+                       .<ReleaseRepository>map(registry -> new MeteredReleaseRepository(proxy, registry))
+                       .orElse(proxy));
     }
 
     @Fluent
-    ReleaseRepository fetchAllReleases(Handler<AsyncResult<List<JsonObject>>> resultHandler);
+    ReleaseRepository fetchAllReleases(Handler<AsyncResult<List<Release>>> resultHandler);
 
+    /**
+     * Streams every release to the given event bus address in chunks of {@code chunkSize} rows, each chunk being a
+     * {@link io.vertx.core.json.JsonArray} of releases. The next chunk is only read from the database once the
+     * consumer has replied to the previous one, so the consumer controls the pace. The result handler is completed
+     * after the last chunk has been acknowledged.
+     */
     @Fluent
-    ReleaseRepository fetchReleaseById(int id, Handler<AsyncResult<JsonObject>> resultHandler);
+    ReleaseRepository streamAllReleases(String address, int chunkSize, Handler<AsyncResult<Void>> resultHandler);
+
+    /**
+     * Fetches at most {@code limit} releases whose id is greater than {@code afterId}, ordered by id. Seeking on the
+     * primary key keeps the cost of a page independent of its position in the table.
+     */
+    @Fluent
+    ReleaseRepository fetchReleasesPage(int afterId, int limit, Handler<AsyncResult<List<Release>>> resultHandler);
+
+    /**
+     * Fetches a page of releases like {@link #fetchReleasesPage}, selecting only the given fields of
+     * {@link com.jcalvopinam.utils.Constants#RELEASE_FIELDS}, so listings that leave out the content do not read it
+     * from the database. Each release is a JSON object holding the selected fields.
+     */
+    @Fluent
+    ReleaseRepository fetchReleaseFieldsPage(List<String> fields, int afterId, int limit,
+                                             Handler<AsyncResult<List<JsonObject>>> resultHandler);
+
+    /**
+     * Fetches a release, the result is {@code null} when the release does not exist.
+     */
+    @Fluent
+    ReleaseRepository fetchReleaseById(int id, Handler<AsyncResult<@Nullable Release>> resultHandler);
+
+    /**
+     * Fetches the releases with the given ids in a single call, in no particular order. The ids that do not exist are
+     * left out.
+     */
+    @Fluent
+    ReleaseRepository fetchReleasesByIds(List<Integer> ids, Handler<AsyncResult<List<Release>>> resultHandler);
+
+    /**
+     * Fetches the content of a release, the result is {@code null} when the release does not exist.
+     */
+    @Fluent
+    ReleaseRepository fetchReleaseContent(int id, Handler<AsyncResult<@Nullable String>> resultHandler);
+
+    /**
+     * Fetches the version of a release without reading its content, the result is {@code null} when the release does
+     * not exist.
+     */
+    @Fluent
+    ReleaseRepository fetchReleaseVersion(int id, Handler<AsyncResult<@Nullable ReleaseVersion>> resultHandler);
+
+    /**
+     * Fetches the version of the whole release listing with a single aggregate query.
+     */
+    @Fluent
+    ReleaseRepository fetchReleasesVersion(Handler<AsyncResult<ReleaseVersion>> resultHandler);
+
+    /**
+     * Fetches the names of the applications that have at least one release, in alphabetical order.
+     */
+    @Fluent
+    ReleaseRepository fetchApplicationNames(Handler<AsyncResult<List<String>>> resultHandler);
+
+    /**
+     * Fetches the releases of an application ordered by semantic version, oldest first.
+     */
+    @Fluent
+    ReleaseRepository fetchApplicationReleases(String applicationName,
+                                               Handler<AsyncResult<List<Release>>> resultHandler);
+
+    /**
+     * Fetches the release with the highest semantic version of an application, the result is {@code null} when the
+     * application has no releases. Only the versions are read to pick it, then the release itself.
+     */
+    @Fluent
+    ReleaseRepository fetchLatestRelease(String applicationName,
+                                         Handler<AsyncResult<@Nullable Release>> resultHandler);
+
+    /**
+     * Searches the application name, version and content of the releases, the result holds at most {@code limit}
+     * releases, best match first.
+     */
+    @Fluent
+    ReleaseRepository searchReleases(String query, int limit, Handler<AsyncResult<List<Release>>> resultHandler);
 
     @Fluent
     ReleaseRepository insertRelease(String applicationName, String version, String content, String releaseDate,
                                     Handler<AsyncResult<Void>> resultHandler);
 
+    /**
+     * Inserts all the releases with a single batch statement inside one transaction, the result holds the number of
+     * inserted rows for each release in the same order.
+     */
+    @Fluent
+    ReleaseRepository insertReleases(List<Release> releases, Handler<AsyncResult<List<Integer>>> resultHandler);
+
+    /**
+     * Updates the content of a release, the result is the number of updated rows (0 when the release does not exist).
+     */
     @Fluent
-    ReleaseRepository updateRelease(int id, String content, Handler<AsyncResult<Void>> resultHandler);
+    ReleaseRepository updateRelease(int id, String content, Handler<AsyncResult<Integer>> resultHandler);
 
+    /**
+     * Deletes a release, the result is the number of deleted rows (0 when the release does not exist).
+     */
     @Fluent
-    ReleaseRepository deleteRelease(int id, Handler<AsyncResult<Void>> resultHandler);
+    ReleaseRepository deleteRelease(int id, Handler<AsyncResult<Integer>> resultHandler);
 
 }
@@ -25,103 +25,371 @@
 
 package com.jcalvopinam.repository;
 
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
 import com.jcalvopinam.utils.Constants;
+import com.jcalvopinam.utils.VersionComparator;
+import io.reactivex.Completable;
+import io.reactivex.Maybe;
 import io.reactivex.Single;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.sql.ResultSet;
+import io.vertx.ext.sql.UpdateResult;
 import io.vertx.reactivex.CompletableHelper;
+import io.vertx.reactivex.MaybeHelper;
 import io.vertx.reactivex.SingleHelper;
+import io.vertx.reactivex.core.Vertx;
 import io.vertx.reactivex.ext.jdbc.JDBCClient;
 import io.vertx.reactivex.ext.sql.SQLClientHelper;
+import io.vertx.reactivex.ext.sql.SQLConnection;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * @author Juan Calvopina
  */
 public class ReleaseRepositoryImpl implements ReleaseRepository {
 
+    private static final int ID_COLUMN = 0;
+    private static final int APPLICATION_NAME_COLUMN = 1;
+    private static final int VERSION_COLUMN = 2;
+    private static final int CONTENT_COLUMN = 3;
+    private static final int RELEASE_DATE_COLUMN = 4;
+    private static final int REVISION_COLUMN = 5;
+    private static final int LAST_MODIFIED_COLUMN = 6;
+
+    private static final String REVISION = "REVISION";
+    private static final String LAST_MODIFIED = "LASTMODIFIED";
+    private static final String VERSION = "VERSION";
+    private static final int VERSION_LENGTH = 32;
+
     private final Map<String, String> sqlQueries;
     private final JDBCClient dbClient;
+    private final SqlExecutor sql;
+    private final Vertx vertx;
+    private final GroupCommitWriter groupCommitWriter;
 
-    ReleaseRepositoryImpl(io.vertx.ext.jdbc.JDBCClient dbClient, Map<String, String> sqlQueries,
+    ReleaseRepositoryImpl(io.vertx.core.Vertx vertx, io.vertx.ext.jdbc.JDBCClient dbClient, SqlExecutor sql,
+                          Map<String, String> sqlQueries, JsonObject config,
                           Handler<AsyncResult<ReleaseRepository>> readyHandler) {
+        this.vertx = new Vertx(vertx);
         this.dbClient = new JDBCClient(dbClient);
+        this.sql = sql != null ? sql : SqlExecutor.of(this.dbClient);
         this.sqlQueries = sqlQueries;
+        long groupCommitDelay = config.getLong(Constants.CONFIG_GROUP_COMMIT_MAX_DELAY_MS, 0L);
+        this.groupCommitWriter = groupCommitDelay > 0
+                                 ? new GroupCommitWriter(this.vertx, this.dbClient, groupCommitDelay,
+                                                         config.getInteger(Constants.CONFIG_GROUP_COMMIT_MAX_SIZE,
+                                                                           Constants.DEFAULT_GROUP_COMMIT_MAX_SIZE))
+                                 : null;
 
         SQLClientHelper.usingConnectionSingle(this.dbClient,
                                               conn -> conn.rxExecute(sqlQueries.get(Constants.CREATE_RELEASE_TABLE))
+                                                          .andThen(migrateColumns(conn))
+                                                          .andThen(conn.rxExecute(
+                                                                  sqlQueries.get(Constants.CREATE_RELEASE_INDEX)))
                                                           .andThen(Single.just(this)))
                        .subscribe(SingleHelper.toObserver(readyHandler));
     }
 
+    /**
+     * Brings tables created by older versions up to date: the revision and lastModified columns are added, HSQLDB
+     * has no {@code add column if not exists}, and the version column is widened to hold semantic versions.
+     */
+    private Completable migrateColumns(SQLConnection conn) {
+        return conn.rxQuery(sqlQueries.get(Constants.GET_RELEASE_COLUMNS))
+                   .flatMapCompletable(result -> {
+                       Map<String, Integer> columns = new HashMap<>();
+                       result.getResults().forEach(row -> columns.put(row.getString(0).toUpperCase(),
+                                                                      row.getInteger(1)));
+                       boolean narrowVersion = columns.getOrDefault(VERSION, VERSION_LENGTH) < VERSION_LENGTH;
+                       return Completable.concatArray(
+                               addColumnIfMissing(conn, columns, REVISION, Constants.ADD_REVISION_COLUMN),
+                               addColumnIfMissing(conn, columns, LAST_MODIFIED, Constants.ADD_LAST_MODIFIED_COLUMN),
+                               narrowVersion ? conn.rxExecute(sqlQueries.get(Constants.WIDEN_VERSION_COLUMN))
+                                             : Completable.complete());
+                   });
+    }
+
+    private Completable addColumnIfMissing(SQLConnection conn, Map<String, Integer> columns, String column,
+                                           String query) {
+        return columns.containsKey(column) ? Completable.complete() : conn.rxExecute(sqlQueries.get(query));
+    }
+
     @Override
-    public ReleaseRepository fetchAllReleases(Handler<AsyncResult<List<JsonObject>>> resultHandler) {
-        dbClient.rxQuery(sqlQueries.get(Constants.GET_ALL_RELEASE))
-                .map(ResultSet::getRows)
-                .subscribe(SingleHelper.toObserver(resultHandler));
+    public ReleaseRepository fetchAllReleases(Handler<AsyncResult<List<Release>>> resultHandler) {
+        sql.query(sqlQueries.get(Constants.GET_ALL_RELEASE), new JsonArray())
+           .map(ReleaseRepositoryImpl::toReleases)
+           .subscribe(SingleHelper.toObserver(resultHandler));
         return this;
     }
 
     @Override
-    public ReleaseRepository fetchReleaseById(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
-        dbClient.rxQueryWithParams(sqlQueries.get(Constants.GET_RELEASE_BY_ID),
-                                   new JsonArray().add(id))
-                .map(result -> {
-                    if (result.getNumRows() > 0) {
-                        JsonObject release = result.getRows().get(0);
-                        return new JsonObject().put(Constants.FOUND, true)
-                                               .put(Constants.ID, release.getInteger(Constants.ID.toUpperCase()))
-                                               .put(Constants.APPLICATION_NAME,
-                                                    release.getString(Constants.APPLICATION_NAME.toUpperCase()))
-                                               .put(Constants.VERSION,
-                                                    release.getString(Constants.VERSION.toUpperCase()))
-                                               .put(Constants.CONTENT,
-                                                    release.getString(Constants.CONTENT.toUpperCase()))
-                                               .put(Constants.RELEASE_DATE,
-                                                    release.getString(Constants.RELEASE_DATE.toUpperCase()));
-                    } else {
-                        return new JsonObject().put(Constants.FOUND, false);
-                    }
-                })
-                .subscribe(SingleHelper.toObserver(resultHandler));
+    public ReleaseRepository streamAllReleases(String address, int chunkSize,
+                                               Handler<AsyncResult<Void>> resultHandler) {
+        SQLClientHelper.usingConnectionCompletable(
+                dbClient,
+                conn -> conn.rxQueryStream(sqlQueries.get(Constants.GET_ALL_RELEASE))
+                            .flatMapCompletable(stream -> stream.toFlowable()
+                                                                .map(row -> toRelease(row).toJson())
+                                                                .buffer(chunkSize)
+                                                                .concatMapCompletable(chunk -> vertx
+                                                                        .eventBus()
+                                                                        .rxSend(address, new JsonArray(chunk))
+                                                                        .ignoreElement())
+                                                                // A failed reply or a consumer gone ends the query
+                                                                .doOnError(t -> stream.close())))
+                       .subscribe(CompletableHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesPage(int afterId, int limit,
+                                               Handler<AsyncResult<List<Release>>> resultHandler) {
+        sql.query(sqlQueries.get(Constants.GET_RELEASES_PAGE), new JsonArray().add(afterId).add(limit))
+           .map(ReleaseRepositoryImpl::toReleases)
+           .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseFieldsPage(List<String> fields, int afterId, int limit,
+                                                    Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        // The field names are the column names, only the known ones may reach the query text
+        if (!Constants.RELEASE_FIELDS.containsAll(fields)) {
+            resultHandler.handle(Future.failedFuture(new IllegalArgumentException("Unknown release fields " + fields)));
+            return this;
+        }
+
+        String columns = String.join(", ", fields);
+        sql.query(String.format(sqlQueries.get(Constants.GET_RELEASE_FIELDS_PAGE), columns),
+                  new JsonArray().add(afterId).add(limit))
+           .map(result -> result.getResults().stream()
+                                .map(row -> toFields(fields, row))
+                                .collect(Collectors.toList()))
+           .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseById(int id, Handler<AsyncResult<Release>> resultHandler) {
+        fetchRelease(id).subscribe(MaybeHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesByIds(List<Integer> ids, Handler<AsyncResult<List<Release>>> resultHandler) {
+        if (ids.isEmpty()) {
+            resultHandler.handle(Future.succeededFuture(new ArrayList<>()));
+            return this;
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        sql.query(String.format(sqlQueries.get(Constants.GET_RELEASES_BY_IDS), placeholders),
+                  new JsonArray(new ArrayList<>(ids)))
+           .map(ReleaseRepositoryImpl::toReleases)
+           .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseContent(int id, Handler<AsyncResult<String>> resultHandler) {
+        sql.query(sqlQueries.get(Constants.GET_RELEASE_CONTENT), new JsonArray().add(id))
+           .flatMapMaybe(result -> result.getNumRows() > 0 ? Maybe.just(result.getResults().get(0).getString(0))
+                                                           : Maybe.<String>empty())
+           .subscribe(MaybeHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    private Maybe<Release> fetchRelease(int id) {
+        return sql.query(sqlQueries.get(Constants.GET_RELEASE_BY_ID), new JsonArray().add(id))
+                  .flatMapMaybe(result -> result.getNumRows() > 0 ? Maybe.just(toRelease(result.getResults().get(0)))
+                                                                  : Maybe.empty());
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseVersion(int id, Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        sql.query(sqlQueries.get(Constants.GET_RELEASE_VERSION), new JsonArray().add(id))
+           .flatMapMaybe(result -> result.getNumRows() > 0 ? Maybe.just(toVersion(id, result.getResults().get(0)))
+                                                           : Maybe.<ReleaseVersion>empty())
+           .subscribe(MaybeHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesVersion(Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        sql.query(sqlQueries.get(Constants.GET_RELEASES_VERSION), new JsonArray())
+           .map(result -> {
+               JsonArray row = result.getResults().get(0);
+               return ReleaseVersion.ofListing(row.getLong(0), row.getInteger(1), row.getLong(2));
+           })
+           .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationNames(Handler<AsyncResult<List<String>>> resultHandler) {
+        sql.query(sqlQueries.get(Constants.GET_APPLICATION_NAME), new JsonArray())
+           .map(result -> result.getResults().stream()
+                                .map(row -> row.getString(0))
+                                .collect(Collectors.toList()))
+           .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationReleases(String applicationName,
+                                                      Handler<AsyncResult<List<Release>>> resultHandler) {
+        sql.query(sqlQueries.get(Constants.GET_APPLICATION_RELEASES), new JsonArray().add(applicationName))
+           .map(result -> result.getResults().stream()
+                                .map(ReleaseRepositoryImpl::toRelease)
+                                .sorted(Comparator.comparing(Release::getVersion, VersionComparator.INSTANCE)
+                                                  .thenComparingInt(Release::getId))
+                                .collect(Collectors.toList()))
+           .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    /**
+     * Semantic versions cannot be ordered by the database, so the id and version of every release of the application
+     * are read through the applicationName index and only the latest one is loaded with its content.
+     */
+    @Override
+    public ReleaseRepository fetchLatestRelease(String applicationName, Handler<AsyncResult<Release>> resultHandler) {
+        Comparator<JsonArray> byVersion = Comparator.<JsonArray, String>comparing(row -> row.getString(1),
+                                                                                   VersionComparator.INSTANCE)
+                                                    .thenComparingInt(row -> row.getInteger(0));
+
+        sql.query(sqlQueries.get(Constants.GET_ID_AND_APP_NAME), new JsonArray().add(applicationName))
+           .flatMapMaybe(result -> result.getResults().stream()
+                                         .max(byVersion)
+                                         .map(row -> fetchRelease(row.getInteger(0)))
+                                         .orElse(Maybe.empty()))
+           .subscribe(MaybeHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    /**
+     * Scans and indexes every release on each call, {@link IndexedReleaseRepository} keeps the index instead.
+     */
+    @Override
+    public ReleaseRepository searchReleases(String query, int limit,
+                                            Handler<AsyncResult<List<Release>>> resultHandler) {
+        sql.query(sqlQueries.get(Constants.GET_ALL_RELEASE), new JsonArray())
+           .map(ReleaseRepositoryImpl::toReleases)
+           .map(releases -> {
+               ReleaseSearchIndex index = new ReleaseSearchIndex();
+               releases.forEach(index::add);
+               Map<Integer, Release> byId = releases.stream()
+                                                    .collect(Collectors.toMap(Release::getId, Function.identity()));
+               return index.search(query, limit).stream()
+                           .map(byId::get)
+                           .collect(Collectors.toList());
+           })
+           .subscribe(SingleHelper.toObserver(resultHandler));
         return this;
     }
 
     @Override
     public ReleaseRepository insertRelease(String applicationName, String version, String content, String releaseDate,
                                            Handler<AsyncResult<Void>> resultHandler) {
-        dbClient.rxUpdateWithParams(sqlQueries.get(Constants.INSERT_RELEASE),
-                                    new JsonArray().add(applicationName)
-                                                   .add(version)
-                                                   .add(content)
-                                                   .add(LocalDate.now().toString()))
-                .toCompletable()
+        update(sqlQueries.get(Constants.INSERT_RELEASE),
+               new JsonArray().add(applicationName)
+                              .add(version)
+                              .add(content)
+                              .add(LocalDate.now().toString())
+                              .add(System.currentTimeMillis()))
+                .ignoreElement()
                 .subscribe(CompletableHelper.toObserver(resultHandler));
         return this;
     }
 
     @Override
-    public ReleaseRepository updateRelease(int id, String content, Handler<AsyncResult<Void>> resultHandler) {
-        dbClient.rxUpdateWithParams(sqlQueries.get(Constants.UPDATE_RELEASE),
-                                    new JsonArray().add(content).add(id))
-                .toCompletable()
-                .subscribe(CompletableHelper.toObserver(resultHandler));
+    public ReleaseRepository insertReleases(List<Release> releases,
+                                            Handler<AsyncResult<List<Integer>>> resultHandler) {
+        String releaseDate = LocalDate.now().toString();
+        long lastModified = System.currentTimeMillis();
+        List<JsonArray> params = releases.stream()
+                                         .map(release -> new JsonArray()
+                                                 .add(release.getApplicationName())
+                                                 .add(release.getVersion())
+                                                 .add(release.getContent())
+                                                 .add(releaseDate)
+                                                 .add(lastModified))
+                                         .collect(Collectors.toList());
+
+        SQLClientHelper.inTransactionSingle(dbClient,
+                                            conn -> conn.rxBatchWithParams(sqlQueries.get(Constants.INSERT_RELEASE),
+                                                                           params))
+                       .subscribe(SingleHelper.toObserver(resultHandler));
         return this;
     }
 
     @Override
-    public ReleaseRepository deleteRelease(int id, Handler<AsyncResult<Void>> resultHandler) {
-        dbClient.rxUpdateWithParams(sqlQueries.get(Constants.DELETE_RELEASE),
-                                    new JsonArray().add(id))
-                .toCompletable()
-                .subscribe(CompletableHelper.toObserver(resultHandler));
+    public ReleaseRepository updateRelease(int id, String content, Handler<AsyncResult<Integer>> resultHandler) {
+        update(sqlQueries.get(Constants.UPDATE_RELEASE),
+               new JsonArray().add(content).add(System.currentTimeMillis()).add(id))
+                .map(UpdateResult::getUpdated)
+                .subscribe(SingleHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository deleteRelease(int id, Handler<AsyncResult<Integer>> resultHandler) {
+        update(sqlQueries.get(Constants.DELETE_RELEASE), new JsonArray().add(id))
+                .map(UpdateResult::getUpdated)
+                .subscribe(SingleHelper.toObserver(resultHandler));
         return this;
     }
 
+    /**
+     * Single writes go through the group commit when it is enabled, each one is autocommitted otherwise.
+     */
+    private Single<UpdateResult> update(String query, JsonArray params) {
+        return groupCommitWriter != null ? groupCommitWriter.update(query, params) : sql.update(query, params);
+    }
+
+    static List<Release> toReleases(ResultSet result) {
+        return result.getResults().stream()
+                     .map(ReleaseRepositoryImpl::toRelease)
+                     .collect(Collectors.toList());
+    }
+
+    /**
+     * Maps a row of the release queries, which all select the columns in the same order.
+     */
+    static Release toRelease(JsonArray row) {
+        return Release.of(row.getInteger(ID_COLUMN),
+                          row.getString(APPLICATION_NAME_COLUMN),
+                          row.getString(VERSION_COLUMN),
+                          row.getString(CONTENT_COLUMN),
+                          row.getString(RELEASE_DATE_COLUMN),
+                          row.getInteger(REVISION_COLUMN),
+                          row.getLong(LAST_MODIFIED_COLUMN));
+    }
+
+    private static JsonObject toFields(List<String> fields, JsonArray row) {
+        JsonObject release = new JsonObject();
+        for (int i = 0; i < fields.size(); i++) {
+            release.put(fields.get(i), row.getValue(i));
+        }
+        return release;
+    }
+
+    private static ReleaseVersion toVersion(int id, JsonArray row) {
+        return ReleaseVersion.of(id, row.getInteger(0), row.getLong(1));
+    }
+
 }
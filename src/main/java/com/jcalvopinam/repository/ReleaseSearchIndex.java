@@ -0,0 +1,228 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import io.vertx.core.shareddata.Shareable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over the application name, version and content of the releases, shared by every
+ * {@link ReleaseRepository} instance of a Vert.x instance. Only the term frequencies are kept, never the content.
+ * <p>
+ * Results are ranked with BM25: rare terms weigh more than common ones, repeated terms saturate, and long release
+ * notes do not win just because they are long.
+ *
+ * @author Juan Calvopina
+ */
+public class ReleaseSearchIndex implements Shareable {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}.]+");
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+    private final Map<Integer, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Integer, Integer> lengths = new HashMap<>();
+
+    private long totalLength;
+    private int maxId = -1;
+    private int unindexedAfter = Integer.MAX_VALUE;
+    private int failedScans;
+    private boolean initialLoadClaimed;
+
+    /**
+     * Adds the release to the index, replacing the previous terms of the same id.
+     */
+    public synchronized void add(Release release) {
+        remove(release.getId());
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String text : new String[]{release.getApplicationName(), release.getVersion(), release.getContent()}) {
+            for (String term : tokenize(text)) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+        }
+
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(release.getId(), entry.getValue());
+            length += entry.getValue();
+        }
+        documents.put(release.getId(), frequencies);
+        lengths.put(release.getId(), length);
+        totalLength += length;
+        maxId = Math.max(maxId, release.getId());
+    }
+
+    public synchronized void remove(int id) {
+        Map<String, Integer> frequencies = documents.remove(id);
+        if (frequencies == null) {
+            return;
+        }
+
+        for (String term : frequencies.keySet()) {
+            Map<Integer, Integer> ids = postings.get(term);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= lengths.remove(id);
+    }
+
+    /**
+     * Returns the ids of at most {@code limit} releases matching any term of the query, best match first.
+     */
+    public synchronized List<Integer> search(String query, int limit) {
+        if (documents.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        double averageLength = (double) totalLength / documents.size();
+        Map<Integer, Double> scores = new HashMap<>();
+        for (String term : new LinkedHashSet<>(tokenize(query))) {
+            Map<Integer, Integer> ids = postings.get(term);
+            if (ids == null) {
+                continue;
+            }
+
+            double idf = Math.log(1 + (documents.size() - ids.size() + 0.5) / (ids.size() + 0.5));
+            ids.forEach((id, frequency) -> {
+                double norm = frequency + K1 * (1 - B + B * lengths.get(id) / averageLength);
+                scores.merge(id, idf * frequency * (K1 + 1) / norm, Double::sum);
+            });
+        }
+
+        Comparator<Map.Entry<Integer, Double>> byScore = Map.Entry.<Integer, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        PriorityQueue<Map.Entry<Integer, Double>> best = new PriorityQueue<>(byScore);
+        for (Map.Entry<Integer, Double> score : scores.entrySet()) {
+            best.offer(score);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Integer> ids = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ids.add(best.poll().getKey());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    /**
+     * Returns true only for the first caller, which is in charge of filling the index from the database; the other
+     * repository instances sharing the index do not read the whole table again.
+     */
+    public synchronized boolean claimInitialLoad() {
+        boolean claimed = !initialLoadClaimed;
+        initialLoadClaimed = true;
+        return claimed;
+    }
+
+    /**
+     * Highest id ever indexed, -1 when nothing was indexed yet. Ids are never reused, so every release inserted after
+     * a call has a greater id.
+     */
+    public synchronized int maxId() {
+        return maxId;
+    }
+
+    /**
+     * Id after which the releases inserted from now on are to be indexed: the highest id indexed, or a lower one left
+     * by a scan that failed.
+     */
+    public synchronized int scanStart() {
+        return Math.min(maxId, unindexedAfter);
+    }
+
+    public synchronized int failedScans() {
+        return failedScans;
+    }
+
+    /**
+     * Keeps the releases after {@code afterId} to be indexed by the next scan.
+     */
+    public synchronized void scanFailed(int afterId) {
+        unindexedAfter = Math.min(unindexedAfter, afterId);
+        failedScans++;
+    }
+
+    /**
+     * A scan from {@code afterId} that started when {@code failedScansBefore} scans had failed has indexed every
+     * release left by those failures.
+     */
+    public synchronized void scanSucceeded(int afterId, int failedScansBefore) {
+        if (failedScans == failedScansBefore && afterId <= unindexedAfter) {
+            unindexedAfter = Integer.MAX_VALUE;
+        }
+    }
+
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> terms = new ArrayList<>();
+        for (String token : SEPARATORS.split(text.toLowerCase())) {
+            String term = trimDots(token);
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Dots are kept inside a term so versions such as 1.2.3 stay searchable, but not at its ends.
+     */
+    private static String trimDots(String token) {
+        int start = 0;
+        int end = token.length();
+        while (start < end && token.charAt(start) == '.') {
+            start++;
+        }
+        while (end > start && token.charAt(end - 1) == '.') {
+            end--;
+        }
+        return token.substring(start, end);
+    }
+
+}
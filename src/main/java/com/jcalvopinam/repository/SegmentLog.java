@@ -0,0 +1,599 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only storage of releases in memory-mapped segment files, shared by every {@link ReleaseRepository} instance
+ * of a Vert.x instance.
+ * <p>
+ * Every insert, update and delete appends a record to the active segment: its length, a CRC32 of the rest of the
+ * record, a sequence number, the record type, the release id and, for inserts and updates, the release as JSON. An
+ * in-memory index maps each live release id to its latest record, so reads are a lookup and a copy out of the mapped
+ * file, and another one maps each application name to the ids of its releases. Full segments are sealed and a new
+ * one is started.
+ * <p>
+ * Recovery scans every segment and keeps, for each id, the record with the highest sequence number; a record with a
+ * bad length or CRC ends its segment, so a write torn by a crash is dropped. Compaction copies the live records of the
+ * sealed segments, with their sequence numbers, to a new segment and deletes the sealed ones; the copy runs without
+ * holding the lock, so reads and writes go on meanwhile.
+ * <p>
+ * Writes reach the operating system as soon as they are appended, so they survive a crash of the process, and are
+ * forced to disk by {@link #sync()}.
+ *
+ * @author Juan Calvopina
+ */
+public class SegmentLog implements Shareable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SegmentLog.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String COMPACTING_SUFFIX = ".compacting";
+    private static final int LENGTH_OFFSET = 0;
+    private static final int CRC_OFFSET = 4;
+    private static final int SEQUENCE_OFFSET = 8;
+    private static final int TYPE_OFFSET = 16;
+    private static final int ID_OFFSET = 17;
+    private static final int HEADER_SIZE = 21;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int APPLICATION_NAME_LENGTH = 255;
+    private static final int VERSION_LENGTH = 32;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final TreeMap<Integer, Location> index = new TreeMap<>();
+    private final Map<String, Set<Integer>> applications = new HashMap<>();
+    private final List<Segment> segments = new ArrayList<>();
+
+    private Segment active;
+    private int lastSegmentNumber;
+    private long sequence;
+    private int nextId;
+    private long revisions;
+    private int references;
+    private boolean compacting;
+
+    public SegmentLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens the log, recovering it from the segment files, on the first call. Each call must be paired with a call to
+     * {@link #release()}.
+     */
+    public synchronized void acquire() throws IOException {
+        if (references++ == 0) {
+            recover();
+        }
+    }
+
+    /**
+     * Forces and closes the segments once every {@link #acquire()} has been released.
+     */
+    public synchronized void release() throws IOException {
+        if (--references == 0) {
+            for (Segment segment : segments) {
+                segment.close();
+            }
+            segments.clear();
+            index.clear();
+            applications.clear();
+            active = null;
+        }
+    }
+
+    public synchronized Release get(int id) {
+        Location location = index.get(id);
+        return location != null ? read(location) : null;
+    }
+
+    public synchronized List<Release> get(List<Integer> ids) {
+        List<Release> releases = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Location location = index.get(id);
+            if (location != null) {
+                releases.add(read(location));
+            }
+        }
+        return releases;
+    }
+
+    public synchronized List<Integer> ids() {
+        return new ArrayList<>(index.keySet());
+    }
+
+    public synchronized List<Release> releases() {
+        List<Release> releases = new ArrayList<>(index.size());
+        index.values().forEach(location -> releases.add(read(location)));
+        return releases;
+    }
+
+    /**
+     * The application names in order, null first.
+     */
+    public synchronized List<String> applicationNames() {
+        List<String> names = new ArrayList<>(applications.keySet());
+        names.sort(Comparator.nullsFirst(Comparator.naturalOrder()));
+        return names;
+    }
+
+    /**
+     * Releases of the application in id order.
+     */
+    public synchronized List<Release> applicationReleases(String applicationName) {
+        return get(new ArrayList<>(applications.getOrDefault(applicationName, Collections.emptySet())));
+    }
+
+    public synchronized List<Release> page(int afterId, int limit) {
+        List<Release> releases = new ArrayList<>(Math.min(limit, index.size()));
+        for (Location location : index.tailMap(afterId, false).values()) {
+            if (releases.size() == limit) {
+                break;
+            }
+            releases.add(read(location));
+        }
+        return releases;
+    }
+
+    public synchronized ReleaseVersion version(int id) {
+        Location location = index.get(id);
+        return location != null ? ReleaseVersion.of(id, location.revision, location.lastModified) : null;
+    }
+
+    public synchronized ReleaseVersion listingVersion() {
+        return ReleaseVersion.ofListing(index.size(), index.isEmpty() ? -1 : index.lastKey(), revisions);
+    }
+
+    /**
+     * Appends a new release and returns its id.
+     */
+    public synchronized int insert(String applicationName, String version, String content, String releaseDate,
+                                   long lastModified) throws IOException {
+        Release release = Release.of(nextId, applicationName, version, content, releaseDate, 0, lastModified);
+        validate(release);
+        put(release);
+        return nextId++;
+    }
+
+    /**
+     * Appends a new revision of the release with the given content, returns {@code false} when it does not exist.
+     */
+    public synchronized boolean update(int id, String content, long lastModified) throws IOException {
+        Location location = index.get(id);
+        if (location == null) {
+            return false;
+        }
+
+        Release release = read(location);
+        release.setContent(content);
+        release.setRevision(release.getRevision() + 1);
+        release.setLastModified(lastModified);
+        put(release);
+        return true;
+    }
+
+    /**
+     * Appends a tombstone for the release, returns {@code false} when it does not exist.
+     */
+    public synchronized boolean delete(int id) throws IOException {
+        Location location = index.remove(id);
+        if (location == null) {
+            return false;
+        }
+
+        location.segment.liveBytes -= location.length;
+        revisions -= location.revision;
+        removeApplication(id, location.applicationName);
+        append(++sequence, DELETE, id, new byte[0]);
+        return true;
+    }
+
+    /**
+     * Forces the segments written since the previous call to disk.
+     */
+    public void sync() {
+        List<Segment> dirty = new ArrayList<>();
+        synchronized (this) {
+            for (Segment segment : segments) {
+                if (segment.dirty) {
+                    segment.dirty = false;
+                    dirty.add(segment);
+                }
+            }
+        }
+        dirty.forEach(segment -> segment.buffer.force());
+    }
+
+    /**
+     * Whether the dead records, replaced or deleted, make up at least {@code ratio} of the sealed segments.
+     */
+    public synchronized boolean needsCompaction(double ratio) {
+        long size = 0;
+        long live = 0;
+        for (Segment segment : segments) {
+            if (segment != active) {
+                size += segment.size;
+                live += segment.liveBytes;
+            }
+        }
+        return size > 0 && size - live >= ratio * size;
+    }
+
+    /**
+     * Copies the live records of the sealed segments to a new segment, then drops the sealed segments.
+     */
+    public void compact() throws IOException {
+        List<Segment> sealed = new ArrayList<>();
+        List<Map.Entry<Integer, Location>> live = new ArrayList<>();
+        int maxId;
+        int number;
+        synchronized (this) {
+            if (compacting || references == 0) {
+                return;
+            }
+            segments.stream().filter(segment -> segment != active).forEach(sealed::add);
+            if (sealed.isEmpty()) {
+                return;
+            }
+            index.entrySet().stream()
+                 .filter(entry -> entry.getValue().segment != active)
+                 .forEach(entry -> live.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue())));
+            compacting = true;
+            maxId = nextId - 1;
+            number = ++lastSegmentNumber;
+        }
+
+        try {
+            Segment compacted = copy(live, maxId, number);
+            synchronized (this) {
+                int offset = 0;
+                for (Map.Entry<Integer, Location> entry : live) {
+                    Location location = entry.getValue();
+                    // A release written or deleted during the copy keeps its newer record
+                    if (index.get(entry.getKey()) == location) {
+                        index.put(entry.getKey(), new Location(compacted, offset, location.length,
+                                                               location.applicationName, location.revision,
+                                                               location.lastModified));
+                        compacted.liveBytes += location.length;
+                    }
+                    offset += location.length;
+                }
+                segments.removeAll(sealed);
+                segments.add(compacted);
+            }
+            for (Segment segment : sealed) {
+                segment.close();
+                Files.deleteIfExists(segment.path);
+            }
+            LOGGER.info("Compacted {} segments into {} with {} releases", sealed.size(), compacted.path.getFileName(),
+                        live.size());
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    /**
+     * The sealed segments are not written anymore, so they are read without the lock. A tombstone of the highest id
+     * handed out, with the lowest sequence number, keeps the ids of deleted releases from being reused.
+     */
+    private Segment copy(List<Map.Entry<Integer, Location>> live, int maxId, int number) throws IOException {
+        int size = HEADER_SIZE;
+        for (Map.Entry<Integer, Location> entry : live) {
+            size += entry.getValue().length;
+        }
+
+        Path temporary = directory.resolve(segmentName(number) + COMPACTING_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            for (Map.Entry<Integer, Location> entry : live) {
+                Location location = entry.getValue();
+                ByteBuffer record = location.segment.buffer.duplicate();
+                record.position(location.offset).limit(location.offset + location.length);
+                buffer.put(record);
+            }
+            buffer.put(record(0, DELETE, maxId, new byte[0]));
+            buffer.force();
+        }
+
+        Path path = directory.resolve(segmentName(number));
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        Segment segment = Segment.open(path, size);
+        segment.size = size;
+        return segment;
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        sequence = 0;
+        nextId = 0;
+        revisions = 0;
+        lastSegmentNumber = 0;
+
+        Map<Integer, Long> sequences = new HashMap<>();
+        Map<Integer, Location> locations = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            List<Path> paths = new ArrayList<>();
+            files.forEach(paths::add);
+            paths.sort(null);
+            for (Path path : paths) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(COMPACTING_SUFFIX)) {
+                    // A compaction that did not complete, the sealed segments it was copying are still there
+                    Files.delete(path);
+                } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                    int number = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                                                                 name.length() - SEGMENT_SUFFIX.length()));
+                    lastSegmentNumber = Math.max(lastSegmentNumber, number);
+                    Segment segment = Segment.open(path, (int) Files.size(path));
+                    segments.add(segment);
+                    scan(segment, sequences, locations);
+                }
+            }
+        }
+
+        locations.forEach((id, location) -> {
+            index.put(id, location);
+            addApplication(id, location.applicationName);
+            location.segment.liveBytes += location.length;
+            revisions += location.revision;
+        });
+        LOGGER.info("Recovered {} releases from {} segments in {}", index.size(), segments.size(), directory);
+    }
+
+    private void scan(Segment segment, Map<Integer, Long> sequences, Map<Integer, Location> locations) {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(offset + LENGTH_OFFSET);
+            if (length == 0) {
+                break;
+            }
+            if (length < HEADER_SIZE || offset + length > buffer.capacity()
+                || !checksumMatches(buffer, offset, length)) {
+                LOGGER.warn("Dropping the corrupted end of {} after offset {}", segment.path, offset);
+                zero(buffer, offset);
+                break;
+            }
+
+            long recordSequence = buffer.getLong(offset + SEQUENCE_OFFSET);
+            byte type = buffer.get(offset + TYPE_OFFSET);
+            int id = buffer.getInt(offset + ID_OFFSET);
+            sequence = Math.max(sequence, recordSequence);
+            nextId = Math.max(nextId, id + 1);
+            if (recordSequence > sequences.getOrDefault(id, -1L)) {
+                sequences.put(id, recordSequence);
+                if (type == PUT) {
+                    Location location = new Location(segment, offset, length, null, 0, 0);
+                    Release release = read(location);
+                    locations.put(id, new Location(segment, offset, length, release.getApplicationName(),
+                                                   release.getRevision(), release.getLastModified()));
+                } else {
+                    locations.remove(id);
+                }
+            }
+            offset += length;
+        }
+        segment.size = offset;
+    }
+
+    private void put(Release release) throws IOException {
+        byte[] payload = release.toJson().encode().getBytes(StandardCharsets.UTF_8);
+        Location previous = index.get(release.getId());
+        Location location = append(++sequence, PUT, release.getId(), payload);
+        if (previous != null) {
+            previous.segment.liveBytes -= previous.length;
+            revisions -= previous.revision;
+            removeApplication(release.getId(), previous.applicationName);
+        }
+
+        location.segment.liveBytes += location.length;
+        index.put(release.getId(), new Location(location.segment, location.offset, location.length,
+                                                release.getApplicationName(), release.getRevision(),
+                                                release.getLastModified()));
+        addApplication(release.getId(), release.getApplicationName());
+        revisions += release.getRevision();
+    }
+
+    private void addApplication(int id, String applicationName) {
+        applications.computeIfAbsent(applicationName, name -> new TreeSet<>()).add(id);
+    }
+
+    private void removeApplication(int id, String applicationName) {
+        Set<Integer> ids = applications.get(applicationName);
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            applications.remove(applicationName);
+        }
+    }
+
+    private Location append(long recordSequence, byte type, int id, byte[] payload) throws IOException {
+        if (references == 0) {
+            throw new IllegalStateException("The segment log " + directory + " is closed");
+        }
+
+        int length = HEADER_SIZE + payload.length;
+        if (active == null || active.size + length > active.buffer.capacity()) {
+            int number = ++lastSegmentNumber;
+            active = Segment.open(directory.resolve(segmentName(number)), Math.max(segmentSize, length));
+            segments.add(active);
+        }
+
+        int offset = active.size;
+        ByteBuffer buffer = active.buffer.duplicate();
+        buffer.position(offset);
+        buffer.put(record(recordSequence, type, id, payload));
+        active.size += length;
+        active.dirty = true;
+        return new Location(active, offset, length, null, 0, 0);
+    }
+
+    private Release read(Location location) {
+        byte[] payload = new byte[location.length - HEADER_SIZE];
+        ByteBuffer buffer = location.segment.buffer.duplicate();
+        buffer.position(location.offset + HEADER_SIZE);
+        buffer.get(payload);
+        return new Release(new JsonObject(new String(payload, StandardCharsets.UTF_8)));
+    }
+
+    private static ByteBuffer record(long recordSequence, byte type, int id, byte[] payload) {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        record.putInt(HEADER_SIZE + payload.length)
+              .putInt(0)
+              .putLong(recordSequence)
+              .put(type)
+              .putInt(id)
+              .put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), SEQUENCE_OFFSET, record.capacity() - SEQUENCE_OFFSET);
+        record.putInt(CRC_OFFSET, (int) crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    private static boolean checksumMatches(MappedByteBuffer buffer, int offset, int length) {
+        byte[] checked = new byte[length - SEQUENCE_OFFSET];
+        ByteBuffer record = buffer.duplicate();
+        record.position(offset + SEQUENCE_OFFSET);
+        record.get(checked);
+        CRC32 crc = new CRC32();
+        crc.update(checked);
+        return (int) crc.getValue() == buffer.getInt(offset + CRC_OFFSET);
+    }
+
+    /**
+     * Clears a torn record, so the records appended after it are not followed by its remains.
+     */
+    private static void zero(MappedByteBuffer buffer, int offset) {
+        ByteBuffer tail = buffer.duplicate();
+        tail.position(offset);
+        byte[] zeros = new byte[Math.min(tail.remaining(), 4096)];
+        while (tail.hasRemaining()) {
+            tail.put(zeros, 0, Math.min(zeros.length, tail.remaining()));
+        }
+    }
+
+    /**
+     * Applies the column lengths of the database, so both stores accept the same releases.
+     */
+    static void validate(Release release) {
+        checkLength(release.getApplicationName(), APPLICATION_NAME_LENGTH);
+        checkLength(release.getVersion(), VERSION_LENGTH);
+    }
+
+    private static void checkLength(String value, int maxLength) {
+        if (value != null && value.length() > maxLength) {
+            throw new IllegalArgumentException("The value " + value + " is longer than " + maxLength + " characters");
+        }
+    }
+
+    private static String segmentName(int number) {
+        return String.format("%s%010d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int size;
+        private int liveBytes;
+        private boolean dirty;
+
+        private Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, int capacity) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                   StandardOpenOption.WRITE);
+            return new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+        }
+
+        void close() throws IOException {
+            buffer.force();
+            channel.close();
+        }
+
+    }
+
+    private static final class Location {
+
+        private final Segment segment;
+        private final int offset;
+        private final int length;
+        private final String applicationName;
+        private final int revision;
+        private final long lastModified;
+
+        private Location(Segment segment, int offset, int length, String applicationName, int revision,
+                         long lastModified) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.applicationName = applicationName;
+            this.revision = revision;
+            this.lastModified = lastModified;
+        }
+
+    }
+
+}
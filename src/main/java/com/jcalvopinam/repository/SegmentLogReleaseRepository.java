@@ -0,0 +1,260 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
+import com.jcalvopinam.utils.Constants;
+import com.jcalvopinam.utils.VersionComparator;
+import io.reactivex.Flowable;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.CompletableHelper;
+import io.vertx.reactivex.core.Vertx;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stores the releases in a {@link SegmentLog} instead of the database. Reads by id, by page and by application are
+ * memory copies out of the mapped segments, so they are answered on the calling thread. The writes, which may start a
+ * new segment file, and the reads that decode every release run on a worker thread.
+ *
+ * @author Juan Calvopina
+ */
+public class SegmentLogReleaseRepository implements ReleaseRepository {
+
+    private final Vertx vertx;
+    private final SegmentLog log;
+
+    SegmentLogReleaseRepository(io.vertx.core.Vertx vertx, SegmentLog log) {
+        this.vertx = new Vertx(vertx);
+        this.log = log;
+    }
+
+    @Override
+    public ReleaseRepository fetchAllReleases(Handler<AsyncResult<List<Release>>> resultHandler) {
+        completeBlocking(log::releases, resultHandler);
+        return this;
+    }
+
+    /**
+     * The ids are read up front and each chunk is read once the previous one has been acknowledged, releases deleted
+     * meanwhile are left out.
+     */
+    @Override
+    public ReleaseRepository streamAllReleases(String address, int chunkSize,
+                                               Handler<AsyncResult<Void>> resultHandler) {
+        Flowable.fromIterable(log.ids())
+                .buffer(chunkSize)
+                .concatMapCompletable(ids -> vertx.eventBus()
+                                                  .rxSend(address, new JsonArray(log.get(ids)
+                                                                                    .stream()
+                                                                                    .map(Release::toJson)
+                                                                                    .collect(Collectors.toList())))
+                                                  .ignoreElement())
+                .subscribe(CompletableHelper.toObserver(resultHandler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesPage(int afterId, int limit,
+                                               Handler<AsyncResult<List<Release>>> resultHandler) {
+        complete(() -> log.page(afterId, limit), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseFieldsPage(List<String> fields, int afterId, int limit,
+                                                    Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        complete(() -> {
+            if (!Constants.RELEASE_FIELDS.containsAll(fields)) {
+                throw new IllegalArgumentException("Unknown release fields " + fields);
+            }
+            return log.page(afterId, limit).stream()
+                      .map(release -> toFields(fields, release.toJson()))
+                      .collect(Collectors.toList());
+        }, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseById(int id, Handler<AsyncResult<Release>> resultHandler) {
+        complete(() -> log.get(id), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesByIds(List<Integer> ids, Handler<AsyncResult<List<Release>>> resultHandler) {
+        complete(() -> log.get(ids), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseContent(int id, Handler<AsyncResult<String>> resultHandler) {
+        complete(() -> {
+            Release release = log.get(id);
+            return release != null ? release.getContent() : null;
+        }, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseVersion(int id, Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        complete(() -> log.version(id), resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesVersion(Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        complete(log::listingVersion, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationNames(Handler<AsyncResult<List<String>>> resultHandler) {
+        complete(log::applicationNames, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationReleases(String applicationName,
+                                                      Handler<AsyncResult<List<Release>>> resultHandler) {
+        complete(() -> {
+            List<Release> releases = log.applicationReleases(applicationName);
+            releases.sort(byVersion());
+            return releases;
+        }, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchLatestRelease(String applicationName, Handler<AsyncResult<Release>> resultHandler) {
+        complete(() -> log.applicationReleases(applicationName).stream().max(byVersion()).orElse(null),
+                 resultHandler);
+        return this;
+    }
+
+    /**
+     * Scans and indexes every release on each call, {@link IndexedReleaseRepository} keeps the index instead.
+     */
+    @Override
+    public ReleaseRepository searchReleases(String query, int limit,
+                                            Handler<AsyncResult<List<Release>>> resultHandler) {
+        completeBlocking(() -> {
+            List<Release> releases = log.releases();
+            ReleaseSearchIndex index = new ReleaseSearchIndex();
+            releases.forEach(index::add);
+            Map<Integer, Release> byId = releases.stream()
+                                                 .collect(Collectors.toMap(Release::getId, Function.identity()));
+            return index.search(query, limit).stream()
+                        .map(byId::get)
+                        .collect(Collectors.toList());
+        }, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertRelease(String applicationName, String version, String content, String releaseDate,
+                                           Handler<AsyncResult<Void>> resultHandler) {
+        completeBlocking(() -> {
+            log.insert(applicationName, version, content, LocalDate.now().toString(), System.currentTimeMillis());
+            return null;
+        }, resultHandler);
+        return this;
+    }
+
+    /**
+     * Every release is validated before the first one is appended, so a rejected batch appends nothing.
+     */
+    @Override
+    public ReleaseRepository insertReleases(List<Release> releases,
+                                            Handler<AsyncResult<List<Integer>>> resultHandler) {
+        completeBlocking(() -> {
+            releases.forEach(SegmentLog::validate);
+            String releaseDate = LocalDate.now().toString();
+            long lastModified = System.currentTimeMillis();
+            List<Integer> inserted = new ArrayList<>(releases.size());
+            for (Release release : releases) {
+                log.insert(release.getApplicationName(), release.getVersion(), release.getContent(), releaseDate,
+                           lastModified);
+                inserted.add(1);
+            }
+            return inserted;
+        }, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository updateRelease(int id, String content, Handler<AsyncResult<Integer>> resultHandler) {
+        completeBlocking(() -> log.update(id, content, System.currentTimeMillis()) ? 1 : 0, resultHandler);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository deleteRelease(int id, Handler<AsyncResult<Integer>> resultHandler) {
+        completeBlocking(() -> log.delete(id) ? 1 : 0, resultHandler);
+        return this;
+    }
+
+    private static Comparator<Release> byVersion() {
+        return Comparator.comparing(Release::getVersion, VersionComparator.INSTANCE)
+                         .thenComparingInt(Release::getId);
+    }
+
+    private static JsonObject toFields(List<String> fields, JsonObject release) {
+        JsonObject projected = new JsonObject();
+        fields.forEach(field -> projected.put(field, release.getValue(field)));
+        return projected;
+    }
+
+    /**
+     * Runs the call on a worker thread, in order with the other blocking calls of the caller's context.
+     */
+    private <T> void completeBlocking(Callable<T> call, Handler<AsyncResult<T>> resultHandler) {
+        vertx.getDelegate().<T>executeBlocking(future -> complete(call, future), resultHandler);
+    }
+
+    private static <T> void complete(Callable<T> call, Handler<AsyncResult<T>> resultHandler) {
+        Future<T> result;
+        try {
+            result = Future.succeededFuture(call.call());
+        } catch (Exception e) {
+            result = Future.failedFuture(e);
+        }
+        resultHandler.handle(result);
+    }
+
+}
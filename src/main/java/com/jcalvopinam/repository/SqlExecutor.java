@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.tracing.Span;
+import com.jcalvopinam.tracing.Tracing;
+import io.reactivex.Single;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.ResultSet;
+import io.vertx.ext.sql.UpdateResult;
+import io.vertx.reactivex.ext.jdbc.JDBCClient;
+import io.vertx.reactivex.ext.sql.SQLConnection;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Runs the single statements of {@link ReleaseRepositoryImpl}. The statements that need a connection of their own,
+ * the schema migration, the streaming query, the batches and the group commits, go through the JDBC client.
+ *
+ * @author Juan Calvopina
+ */
+public interface SqlExecutor {
+
+    /**
+     * Runs the statements on the Vert.x worker pool, through the JDBC client. Within a trace a statement takes its
+     * connection first, so its span tells the wait for a worker thread and a pooled connection from the execution.
+     */
+    static SqlExecutor of(JDBCClient dbClient) {
+        return new SqlExecutor() {
+            @Override
+            public Single<ResultSet> query(String sql, JsonArray params) {
+                Span span = startSpan(sql);
+                if (span == null) {
+                    return dbClient.rxQueryWithParams(sql, params);
+                }
+                return traced(span, connection -> connection.rxQueryWithParams(sql, params));
+            }
+
+            @Override
+            public Single<UpdateResult> update(String sql, JsonArray params) {
+                Span span = startSpan(sql);
+                if (span == null) {
+                    return dbClient.rxUpdateWithParams(sql, params);
+                }
+                return traced(span, connection -> connection.rxUpdateWithParams(sql, params));
+            }
+
+            private <T> Single<T> traced(Span span, Function<SQLConnection, Single<T>> statement) {
+                return Tracing.endWith(span, dbClient.rxGetConnection().flatMap(connection -> {
+                    span.queued();
+                    return statement.apply(connection).doFinally(connection::close);
+                }));
+            }
+        };
+    }
+
+    /**
+     * Starts the span of a statement, named after its operation, {@code null} outside a trace.
+     */
+    static Span startSpan(String sql) {
+        if (Tracing.current() == null) {
+            return null;
+        }
+        String trimmed = sql.trim();
+        int end = trimmed.indexOf(' ');
+        String operation = (end < 0 ? trimmed : trimmed.substring(0, end)).toLowerCase(Locale.ROOT);
+        return Tracing.startChild("db." + operation, Span.Kind.CLIENT).attribute("db.statement", sql);
+    }
+
+    Single<ResultSet> query(String sql, JsonArray params);
+
+    Single<UpdateResult> update(String sql, JsonArray params);
+
+}
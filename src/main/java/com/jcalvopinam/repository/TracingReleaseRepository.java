@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
+import com.jcalvopinam.tracing.Span;
+import com.jcalvopinam.tracing.TraceContext;
+import com.jcalvopinam.tracing.Tracing;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Records a span for every call to a {@link ReleaseRepository} made within a trace. Wrapped around the event bus
+ * proxy, as a {@link Span.Kind#CLIENT} span, it covers the whole round trip and hands the trace over to the call, see
+ * {@link Tracing#propagateOverEventBus}. Wrapped around the repository bound to the event bus, as a
+ * {@link Span.Kind#SERVER} span, it continues the trace received with the call: the span starts when the call was
+ * sent, so its queue time is the event bus hop plus the wait for the event loop of the DB verticle, and the
+ * statements run by the call are its children.
+ *
+ * @author Juan Calvopina
+ */
+public class TracingReleaseRepository implements ReleaseRepository {
+
+    private static final String SPAN_PREFIX = "ReleaseRepository/";
+
+    private final ReleaseRepository delegate;
+    private final Span.Kind kind;
+
+    TracingReleaseRepository(ReleaseRepository delegate, Span.Kind kind) {
+        this.delegate = delegate;
+        this.kind = kind;
+    }
+
+    @Override
+    public ReleaseRepository fetchAllReleases(Handler<AsyncResult<List<Release>>> resultHandler) {
+        traced("fetchAllReleases", resultHandler, delegate::fetchAllReleases);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository streamAllReleases(String address, int chunkSize,
+                                               Handler<AsyncResult<Void>> resultHandler) {
+        traced("streamAllReleases", resultHandler, handler -> delegate.streamAllReleases(address, chunkSize, handler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesPage(int afterId, int limit,
+                                               Handler<AsyncResult<List<Release>>> resultHandler) {
+        traced("fetchReleasesPage", resultHandler, handler -> delegate.fetchReleasesPage(afterId, limit, handler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseFieldsPage(List<String> fields, int afterId, int limit,
+                                                    Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+        traced("fetchReleaseFieldsPage", resultHandler,
+               handler -> delegate.fetchReleaseFieldsPage(fields, afterId, limit, handler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseById(int id, Handler<AsyncResult<Release>> resultHandler) {
+        traced("fetchReleaseById", resultHandler, handler -> delegate.fetchReleaseById(id, handler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesByIds(List<Integer> ids, Handler<AsyncResult<List<Release>>> resultHandler) {
+        traced("fetchReleasesByIds", resultHandler, handler -> delegate.fetchReleasesByIds(ids, handler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseContent(int id, Handler<AsyncResult<String>> resultHandler) {
+        traced("fetchReleaseContent", resultHandler, handler -> delegate.fetchReleaseContent(id, handler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleaseVersion(int id, Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        traced("fetchReleaseVersion", resultHandler, handler -> delegate.fetchReleaseVersion(id, handler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchReleasesVersion(Handler<AsyncResult<ReleaseVersion>> resultHandler) {
+        traced("fetchReleasesVersion", resultHandler, delegate::fetchReleasesVersion);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationNames(Handler<AsyncResult<List<String>>> resultHandler) {
+        traced("fetchApplicationNames", resultHandler, delegate::fetchApplicationNames);
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchApplicationReleases(String applicationName,
+                                                      Handler<AsyncResult<List<Release>>> resultHandler) {
+        traced("fetchApplicationReleases", resultHandler,
+               handler -> delegate.fetchApplicationReleases(applicationName, handler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository fetchLatestRelease(String applicationName, Handler<AsyncResult<Release>> resultHandler) {
+        traced("fetchLatestRelease", resultHandler, handler -> delegate.fetchLatestRelease(applicationName, handler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository searchReleases(String query, int limit,
+                                            Handler<AsyncResult<List<Release>>> resultHandler) {
+        traced("searchReleases", resultHandler, handler -> delegate.searchReleases(query, limit, handler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertRelease(String applicationName, String version, String content,
+                                           String releaseDate, Handler<AsyncResult<Void>> resultHandler) {
+        traced("insertRelease", resultHandler,
+               handler -> delegate.insertRelease(applicationName, version, content, releaseDate, handler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository insertReleases(List<Release> releases,
+                                            Handler<AsyncResult<List<Integer>>> resultHandler) {
+        traced("insertReleases", resultHandler, handler -> delegate.insertReleases(releases, handler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository updateRelease(int id, String content, Handler<AsyncResult<Integer>> resultHandler) {
+        traced("updateRelease", resultHandler, handler -> delegate.updateRelease(id, content, handler));
+        return this;
+    }
+
+    @Override
+    public ReleaseRepository deleteRelease(int id, Handler<AsyncResult<Integer>> resultHandler) {
+        traced("deleteRelease", resultHandler, handler -> delegate.deleteRelease(id, handler));
+        return this;
+    }
+
+    private <T> void traced(String method, Handler<AsyncResult<T>> resultHandler,
+                            Consumer<Handler<AsyncResult<T>>> call) {
+        Span parent = Tracing.current();
+        Span span = kind == Span.Kind.CLIENT ? clientSpan(parent, method) : serverSpan(method);
+        if (span == null) {
+            call.accept(resultHandler);
+            return;
+        }
+
+        span.attribute("rpc.method", method);
+        Tracing.withCurrent(span, () -> call.accept(ar -> {
+            span.end(ar.cause());
+            Tracing.withCurrent(parent, () -> resultHandler.handle(ar));
+        }));
+    }
+
+    private static Span clientSpan(Span parent, String method) {
+        return parent == null ? null : parent.child(SPAN_PREFIX + method, Span.Kind.CLIENT);
+    }
+
+    private static Span serverSpan(String method) {
+        TraceContext incoming = Tracing.takeIncoming();
+        if (incoming == null) {
+            return null;
+        }
+        Span span = Span.start(SPAN_PREFIX + method, Span.Kind.SERVER, incoming, incoming.sentAtNanos());
+        span.queued();
+        return span;
+    }
+
+}
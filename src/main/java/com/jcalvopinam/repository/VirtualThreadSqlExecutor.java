@@ -0,0 +1,232 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.tracing.Span;
+import com.jcalvopinam.tracing.Tracing;
+import io.reactivex.Single;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.ext.jdbc.spi.DataSourceProvider;
+import io.vertx.ext.jdbc.spi.impl.C3P0DataSourceProvider;
+import io.vertx.ext.sql.ResultSet;
+import io.vertx.ext.sql.UpdateResult;
+
+import javax.sql.DataSource;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs each statement on a virtual thread of its own instead of a thread of the Vert.x worker pool, so the number of
+ * statements in flight is only bounded by the connection pool, and completes the result on the Vert.x context of the
+ * caller. Shared by every {@link ReleaseRepository} instance of a Vert.x instance, along with its connection pool.
+ * <p>
+ * Virtual threads need Java 21, the executor is looked up by reflection so the project still builds for Java 8.
+ *
+ * @author Juan Calvopina
+ */
+public class VirtualThreadSqlExecutor implements SqlExecutor, Shareable {
+
+    private static final String NEW_VIRTUAL_THREAD_EXECUTOR = "newVirtualThreadPerTaskExecutor";
+
+    private final JsonObject config;
+    private final DataSourceProvider provider = new C3P0DataSourceProvider();
+
+    private ExecutorService executor;
+    private DataSource dataSource;
+    private int references;
+
+    /**
+     * Creates the executor for the connection pool described by the JDBC client configuration.
+     */
+    public VirtualThreadSqlExecutor(JsonObject config) {
+        this.config = config;
+    }
+
+    public static boolean isSupported() {
+        try {
+            Executors.class.getMethod(NEW_VIRTUAL_THREAD_EXECUTOR);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts the executor and the connection pool on the first call. Each call must be paired with a call to
+     * {@link #release()}.
+     */
+    public synchronized void acquire() throws SQLException {
+        if (references == 0) {
+            if (!isSupported()) {
+                throw new IllegalStateException("Virtual threads need Java 21, running on " +
+                                                System.getProperty("java.version"));
+            }
+            try {
+                executor = (ExecutorService) Executors.class.getMethod(NEW_VIRTUAL_THREAD_EXECUTOR).invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not create the virtual thread executor", e);
+            }
+            dataSource = provider.getDataSource(config);
+        }
+        references++;
+    }
+
+    /**
+     * Stops the executor and closes the connection pool once every {@link #acquire()} has been released.
+     */
+    public synchronized void release() throws SQLException {
+        if (--references == 0) {
+            executor.shutdown();
+            provider.close(dataSource);
+        }
+    }
+
+    /**
+     * The connection pool, shared with the JDBC client that runs the other statements.
+     */
+    public synchronized DataSource dataSource() {
+        return dataSource;
+    }
+
+    @Override
+    public Single<ResultSet> query(String sql, JsonArray params) {
+        return execute(SqlExecutor.startSpan(sql), connection -> {
+            try (PreparedStatement statement = prepare(connection, sql, params);
+                 java.sql.ResultSet rows = statement.executeQuery()) {
+                ResultSetMetaData metaData = rows.getMetaData();
+                List<String> columnNames = new ArrayList<>(metaData.getColumnCount());
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    columnNames.add(metaData.getColumnLabel(i));
+                }
+
+                List<JsonArray> results = new ArrayList<>();
+                while (rows.next()) {
+                    JsonArray row = new JsonArray(new ArrayList<>(columnNames.size()));
+                    for (int i = 1; i <= columnNames.size(); i++) {
+                        row.add(toJsonValue(rows.getObject(i)));
+                    }
+                    results.add(row);
+                }
+                return new ResultSet(columnNames, results, null);
+            }
+        });
+    }
+
+    @Override
+    public Single<UpdateResult> update(String sql, JsonArray params) {
+        return execute(SqlExecutor.startSpan(sql), connection -> {
+            try (PreparedStatement statement = prepare(connection, sql, params)) {
+                return new UpdateResult(statement.executeUpdate(), new JsonArray());
+            }
+        });
+    }
+
+    /**
+     * Within a trace the span of the statement tells the wait for a virtual thread and a pooled connection from the
+     * execution.
+     */
+    private <T> Single<T> execute(Span span, Statement<T> statement) {
+        Single<T> execution = Single.create(emitter -> {
+            Context context = Vertx.currentContext();
+            ExecutorService current;
+            DataSource pool;
+            synchronized (this) {
+                current = executor;
+                pool = dataSource;
+            }
+            current.execute(() -> {
+                T result = null;
+                Throwable failure = null;
+                try (Connection connection = pool.getConnection()) {
+                    if (span != null) {
+                        span.queued();
+                    }
+                    result = statement.run(connection);
+                } catch (Throwable t) {
+                    failure = t;
+                }
+
+                T value = result;
+                Throwable cause = failure;
+                Runnable complete = () -> {
+                    if (cause != null) {
+                        emitter.onError(cause);
+                    } else {
+                        emitter.onSuccess(value);
+                    }
+                };
+                if (context != null) {
+                    context.runOnContext(v -> complete.run());
+                } else {
+                    complete.run();
+                }
+            });
+        });
+        return span == null ? execution : Tracing.endWith(span, execution);
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, JsonArray params)
+            throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < params.size(); i++) {
+            statement.setObject(i + 1, params.getValue(i));
+        }
+        return statement;
+    }
+
+    /**
+     * Converts the column values the way the JDBC client does for the types of the release table.
+     */
+    private static Object toJsonValue(Object value) throws SQLException {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Clob) {
+            Clob clob = (Clob) value;
+            return clob.getSubString(1, (int) clob.length());
+        }
+        return value.toString();
+    }
+
+    @FunctionalInterface
+    private interface Statement<T> {
+
+        T run(Connection connection) throws SQLException;
+
+    }
+
+}
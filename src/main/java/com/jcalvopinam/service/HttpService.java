@@ -36,8 +36,20 @@ public interface HttpService {
 
     void getReleaseById(RoutingContext context);
 
+    void getReleaseContent(RoutingContext context);
+
+    void searchReleases(RoutingContext context);
+
+    void getApplications(RoutingContext context);
+
+    void getApplicationReleases(RoutingContext context);
+
+    void getLatestRelease(RoutingContext context);
+
     void saveRelease(RoutingContext context);
 
+    void saveReleases(RoutingContext context);
+
     void updateRelease(RoutingContext context);
 
     void deleteRelease(RoutingContext context);
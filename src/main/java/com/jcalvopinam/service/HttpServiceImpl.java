@@ -25,17 +25,42 @@
 
 package com.jcalvopinam.service;
 
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
+import com.jcalvopinam.repository.ReleaseCache;
 import com.jcalvopinam.repository.reactivex.ReleaseRepository;
 import com.jcalvopinam.utils.Constants;
-import io.reactivex.Flowable;
+import io.netty.buffer.Unpooled;
+import io.reactivex.Single;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.core.buffer.Buffer;
+import io.vertx.reactivex.core.eventbus.Message;
+import io.vertx.reactivex.core.eventbus.MessageConsumer;
+import io.vertx.reactivex.core.http.HttpServerResponse;
 import io.vertx.reactivex.ext.web.RoutingContext;
+import io.vertx.serviceproxy.ServiceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author Juan Calvopina
@@ -45,41 +70,343 @@ public class HttpServiceImpl implements HttpService {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpServiceImpl.class);
 
     private static final String MESSAGE_RELEASE_WITHOUT_ID = "There is no release with ID ";
+    private static final String MESSAGE_APPLICATION_WITHOUT_RELEASES = "There are no releases of the application ";
 
-    private ReleaseRepository dbService;
+    private static final String STREAM_PREFIX = "{\"" + Constants.SUCCESS + "\":true,\"" + Constants.RELEASE + "\":[";
+    private static final String STREAM_SUFFIX = "]}";
+    private static final String NDJSON = "ndjson";
+    private static final String WEAK_PREFIX = "W/";
+    private static final String ANY_TAG = "*";
 
-    public HttpServiceImpl(ReleaseRepository dbService) {
+    private final Vertx vertx;
+    private final ReleaseRepository dbService;
+    private final int chunkSize;
+    private final int pageMaxLimit;
+    private final int bulkMaxItems;
+    private final int compressionMinSize;
+    private final String retryAfter;
+    private final int payloadLogSampleRate;
+    private final AtomicLong payloadLogCount = new AtomicLong();
+    private final ReleaseCache responseCache;
+
+    public HttpServiceImpl(Vertx vertx, ReleaseRepository dbService, JsonObject config) {
+        this(vertx, dbService, null, config);
+    }
+
+    /**
+     * Creates the service, with a response cache the encoded responses of single releases are kept in it and written
+     * as they are, see {@link #getReleaseById}.
+     */
+    public HttpServiceImpl(Vertx vertx, ReleaseRepository dbService, ReleaseCache responseCache, JsonObject config) {
+        this.vertx = vertx;
         this.dbService = dbService;
+        this.responseCache = responseCache;
+        this.chunkSize = config.getInteger(Constants.CONFIG_STREAM_CHUNK_SIZE, Constants.DEFAULT_STREAM_CHUNK_SIZE);
+        this.pageMaxLimit = config.getInteger(Constants.CONFIG_PAGE_MAX_LIMIT, Constants.DEFAULT_PAGE_MAX_LIMIT);
+        this.bulkMaxItems = config.getInteger(Constants.CONFIG_BULK_MAX_ITEMS, Constants.DEFAULT_BULK_MAX_ITEMS);
+        this.compressionMinSize = config.getBoolean(Constants.CONFIG_COMPRESSION_ENABLED, true)
+                                  ? config.getInteger(Constants.CONFIG_COMPRESSION_MIN_SIZE,
+                                                      Constants.DEFAULT_COMPRESSION_MIN_SIZE)
+                                  : 0;
+        this.retryAfter = String.valueOf(config.getInteger(Constants.CONFIG_RETRY_AFTER_SECONDS,
+                                                           Constants.DEFAULT_RETRY_AFTER_SECONDS));
+        this.payloadLogSampleRate = Math.max(1, config.getInteger(Constants.CONFIG_PAYLOAD_LOG_SAMPLE_RATE,
+                                                                  Constants.DEFAULT_PAYLOAD_LOG_SAMPLE_RATE));
     }
 
+    /**
+     * The listing is preceded by its version, which answers conditional requests with a 304 and gives the entity tag
+     * of the response otherwise.
+     */
     @Override
     public void getAllReleases(RoutingContext context) {
-        dbService.rxFetchAllReleases()
-                 .flatMapPublisher(Flowable::fromIterable)
-                 .map(this::buildRelease)
-                 .collect(JsonArray::new, JsonArray::add)
-                 .subscribe(rls -> successfulResponse(context, Constants.STATUS_CODE_OK, Constants.RELEASE, rls),
-                            t -> failedResponse(context, Constants.INTERNAL_SERVER_ERROR, t.getMessage()));
+        releasesVersion().subscribe(version -> {
+            if (isNotModified(context, version)) {
+                notModifiedResponse(context, version);
+            } else if (context.request().params().contains(Constants.FIELDS)
+                    || context.request().params().contains(Constants.LIMIT)
+                    || context.request().params().contains(Constants.AFTER)) {
+                getReleasesPage(context, version);
+            } else {
+                streamAllReleases(context, version);
+            }
+        }, t -> errorResponse(context, t));
+    }
+
+    /**
+     * The version of the listing is an aggregate over the whole table, it is kept in the response cache until a
+     * release is written rather than queried for every listing. Without the cache it is queried every time.
+     */
+    private Single<ReleaseVersion> releasesVersion() {
+        if (responseCache == null) {
+            return dbService.rxFetchReleasesVersion();
+        }
+
+        Object cached = responseCache.get(Constants.RELEASES_VERSION);
+        if (cached != null) {
+            return Single.just((ReleaseVersion) cached);
+        }
+        long generation = responseCache.generation();
+        return dbService.rxFetchReleasesVersion()
+                        .doOnSuccess(version -> responseCache.put(Constants.RELEASES_VERSION, version, generation));
+    }
+
+    private void getReleasesPage(RoutingContext context, ReleaseVersion version) {
+        int limit;
+        int afterId;
+        try {
+            limit = Integer.parseInt(Optional.ofNullable(context.request().getParam(Constants.LIMIT))
+                                             .orElse(String.valueOf(pageMaxLimit)));
+            afterId = decodeCursor(context.request().getParam(Constants.AFTER));
+        } catch (IllegalArgumentException e) {
+            failedResponse(context, Constants.STATUS_CODE_BAD_REQUEST, "Invalid limit or cursor");
+            return;
+        }
+
+        if (limit < 1 || limit > pageMaxLimit) {
+            failedResponse(context, Constants.STATUS_CODE_BAD_REQUEST,
+                           "The limit must be between 1 and " + pageMaxLimit);
+            return;
+        }
+
+        if (context.request().params().contains(Constants.FIELDS)) {
+            getReleaseFieldsPage(context, version, afterId, limit);
+            return;
+        }
+
+        // One extra row tells whether there is a next page without a count query
+        dbService.rxFetchReleasesPage(afterId, limit + 1)
+                 .subscribe(rls -> {
+                     List<Release> page = rls.size() > limit ? rls.subList(0, limit) : rls;
+                     String next = rls.size() > limit ? encodeCursor(page.get(limit - 1).getId()) : null;
+                     putValidators(context.response(), version);
+                     successfulResponse(context, Constants.STATUS_CODE_OK, Constants.RELEASE, toJsonArray(page), next);
+                 }, t -> errorResponse(context, t));
     }
 
+    /**
+     * A listing narrowed to the {@code fields} parameter, a comma separated list of release fields, is always paged
+     * and always includes the id, the cursor is built from it.
+     */
+    private void getReleaseFieldsPage(RoutingContext context, ReleaseVersion version, int afterId, int limit) {
+        List<String> fields = parseFields(context.request().getParam(Constants.FIELDS));
+        if (!Constants.RELEASE_FIELDS.containsAll(fields)) {
+            failedResponse(context, Constants.STATUS_CODE_BAD_REQUEST,
+                           "The fields must be among " + String.join(",", Constants.RELEASE_FIELDS));
+            return;
+        }
+
+        dbService.rxFetchReleaseFieldsPage(fields, afterId, limit + 1)
+                 .subscribe(rls -> {
+                     List<JsonObject> page = rls.size() > limit ? rls.subList(0, limit) : rls;
+                     String next = rls.size() > limit
+                                   ? encodeCursor(page.get(limit - 1).getInteger(Constants.ID)) : null;
+                     putValidators(context.response(), version);
+                     successfulResponse(context, Constants.STATUS_CODE_OK, Constants.RELEASE, new JsonArray(page),
+                                        next);
+                 }, t -> errorResponse(context, t));
+    }
+
+    private static List<String> parseFields(String fields) {
+        List<String> parsed = new ArrayList<>();
+        parsed.add(Constants.ID);
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (!trimmed.isEmpty() && !parsed.contains(trimmed)) {
+                parsed.add(trimmed);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * A chunk is acknowledged once the response has room for the next one. When the client goes away, the chunk
+     * waiting for the response to drain is failed at once, so the repository closes its cursor and connection instead
+     * of waiting for the send timeout.
+     */
+    private void streamAllReleases(RoutingContext context, ReleaseVersion version) {
+        HttpServerResponse response = context.response();
+        MessageConsumer<JsonArray> consumer = vertx.eventBus()
+                                                   .consumer(Constants.RELEASE_STREAM_ADDRESS + UUID.randomUUID());
+        boolean[] firstRelease = {true};
+        AtomicReference<Message<JsonArray>> draining = new AtomicReference<>();
+
+        consumer.handler(message -> {
+            if (response.closed()) {
+                message.fail(Constants.INTERNAL_SERVER_ERROR, "The client closed the connection");
+                return;
+            }
+            writeStreamHead(response, version);
+
+            Buffer chunk = Buffer.buffer();
+            for (Object release : message.body()) {
+                if (!firstRelease[0]) {
+                    chunk.appendString(",");
+                }
+                firstRelease[0] = false;
+                chunk.appendString(((JsonObject) release).encode());
+            }
+            response.write(chunk);
+
+            if (response.writeQueueFull()) {
+                draining.set(message);
+                response.drainHandler(v -> {
+                    if (draining.compareAndSet(message, null)) {
+                        message.reply(null);
+                    }
+                });
+            } else {
+                message.reply(null);
+            }
+        });
+        response.closeHandler(v -> {
+            Message<JsonArray> message = draining.getAndSet(null);
+            if (message != null) {
+                message.fail(Constants.INTERNAL_SERVER_ERROR, "The client closed the connection");
+            }
+            consumer.unregister();
+        });
+
+        consumer.rxCompletionHandler()
+                .andThen(dbService.rxStreamAllReleases(consumer.address(), chunkSize))
+                .doFinally(consumer::unregister)
+                .subscribe(() -> {
+                    writeStreamHead(response, version);
+                    response.end(STREAM_SUFFIX);
+                }, t -> {
+                    if (response.headWritten()) {
+                        LOGGER.error("The release stream was interrupted: {}", t.getMessage());
+                        response.close();
+                    } else {
+                        errorResponse(context, t);
+                    }
+                });
+    }
+
+    /**
+     * Conditional requests are first checked against the version of the release, which does not read the content.
+     * A release found in the response cache is answered from it, without calling the repository or encoding JSON.
+     */
     @Override
     public void getReleaseById(RoutingContext context) {
         int id = Integer.parseInt(context.request().getParam(Constants.ID));
 
+        EncodedRelease cached = responseCache != null ? (EncodedRelease) responseCache.get(id) : null;
+        if (cached != null) {
+            if (isNotModified(context, cached.version)) {
+                notModifiedResponse(context, cached.version);
+            } else {
+                encodedResponse(context, cached);
+            }
+            return;
+        }
+
+        if (context.request().getHeader(Constants.IF_NONE_MATCH) == null
+                && context.request().getHeader(Constants.IF_MODIFIED_SINCE) == null) {
+            fetchReleaseById(context, id);
+            return;
+        }
+
+        dbService.rxFetchReleaseVersion(id)
+                 .subscribe(version -> {
+                                if (isNotModified(context, version)) {
+                                    notModifiedResponse(context, version);
+                                } else {
+                                    fetchReleaseById(context, id);
+                                }
+                            },
+                            t -> errorResponse(context, t),
+                            () -> failedResponse(context, Constants.STATUS_CODE_NOT_FOUND,
+                                                 MESSAGE_RELEASE_WITHOUT_ID + id));
+    }
+
+    /**
+     * The response is encoded once per version of the release. It is only cached when no write to a release has been
+     * seen since the fetch started, so a fetch racing with an update cannot put the old version back. This relies on
+     * the generation being read before the fetch, and on the proxy never answering a fetch with a read started before
+     * it, see {@link com.jcalvopinam.repository.CoalescingReleaseRepository}.
+     */
+    private void fetchReleaseById(RoutingContext context, int id) {
+        long generation = responseCache != null ? responseCache.generation() : 0;
         dbService.rxFetchReleaseById(id)
                  .subscribe(rls -> {
-                     if (rls.getBoolean(Constants.FOUND)) {
-                         JsonObject payload = new JsonObject()
-                                 .put(Constants.ID, rls.getInteger(Constants.ID))
-                                 .put(Constants.APPLICATION_NAME, rls.getString(Constants.APPLICATION_NAME))
-                                 .put(Constants.VERSION, rls.getString(Constants.VERSION))
-                                 .put(Constants.CONTENT, rls.getString(Constants.CONTENT))
-                                 .put(Constants.RELEASE_DATE, rls.getString(Constants.RELEASE_DATE));
-                         successfulResponse(context, Constants.STATUS_CODE_OK, Constants.RELEASE, payload);
-                     } else {
-                         failedResponse(context, Constants.STATUS_CODE_NOT_FOUND, MESSAGE_RELEASE_WITHOUT_ID + id);
-                     }
-                 }, t -> failedResponse(context, Constants.INTERNAL_SERVER_ERROR, t.getMessage()));
+                                EncodedRelease encoded = new EncodedRelease(ReleaseVersion.of(rls), encodeRelease(rls));
+                                if (responseCache != null) {
+                                    responseCache.put(id, encoded, generation);
+                                }
+                                encodedResponse(context, encoded);
+                            },
+                            t -> errorResponse(context, t),
+                            () -> failedResponse(context, Constants.STATUS_CODE_NOT_FOUND,
+                                                 MESSAGE_RELEASE_WITHOUT_ID + id));
+    }
+
+    @Override
+    public void getReleaseContent(RoutingContext context) {
+        int id = Integer.parseInt(context.request().getParam(Constants.ID));
+
+        dbService.rxFetchReleaseContent(id)
+                 .subscribe(content -> successfulResponse(context, Constants.STATUS_CODE_OK, Constants.CONTENT,
+                                                          content),
+                            t -> errorResponse(context, t),
+                            () -> failedResponse(context, Constants.STATUS_CODE_NOT_FOUND,
+                                                 MESSAGE_RELEASE_WITHOUT_ID + id));
+    }
+
+    @Override
+    public void searchReleases(RoutingContext context) {
+        String query = context.request().getParam(Constants.QUERY);
+        int limit;
+        try {
+            limit = Integer.parseInt(Optional.ofNullable(context.request().getParam(Constants.LIMIT))
+                                             .orElse(String.valueOf(Constants.DEFAULT_SEARCH_LIMIT)));
+        } catch (NumberFormatException e) {
+            failedResponse(context, Constants.STATUS_CODE_BAD_REQUEST, "Invalid limit");
+            return;
+        }
+
+        if (query == null || query.trim().isEmpty()) {
+            failedResponse(context, Constants.STATUS_CODE_BAD_REQUEST, "The query parameter q is required");
+            return;
+        }
+        if (limit < 1 || limit > pageMaxLimit) {
+            failedResponse(context, Constants.STATUS_CODE_BAD_REQUEST,
+                           "The limit must be between 1 and " + pageMaxLimit);
+            return;
+        }
+
+        dbService.rxSearchReleases(query, limit)
+                 .subscribe(rls -> successfulResponse(context, Constants.STATUS_CODE_OK, Constants.RELEASE,
+                                                      toJsonArray(rls)),
+                            t -> errorResponse(context, t));
+    }
+
+    @Override
+    public void getApplications(RoutingContext context) {
+        dbService.rxFetchApplicationNames()
+                 .subscribe(names -> successfulResponse(context, Constants.STATUS_CODE_OK, Constants.APPLICATION,
+                                                        new JsonArray(names)),
+                            t -> errorResponse(context, t));
+    }
+
+    @Override
+    public void getApplicationReleases(RoutingContext context) {
+        dbService.rxFetchApplicationReleases(context.request().getParam(Constants.NAME))
+                 .subscribe(rls -> successfulResponse(context, Constants.STATUS_CODE_OK, Constants.RELEASE,
+                                                      toJsonArray(rls)),
+                            t -> errorResponse(context, t));
+    }
+
+    @Override
+    public void getLatestRelease(RoutingContext context) {
+        String name = context.request().getParam(Constants.NAME);
+
+        dbService.rxFetchLatestRelease(name)
+                 .subscribe(rls -> successfulResponse(context, Constants.STATUS_CODE_OK, Constants.RELEASE,
+                                                      rls.toJson()),
+                            t -> errorResponse(context, t),
+                            () -> failedResponse(context, Constants.STATUS_CODE_NOT_FOUND,
+                                                 MESSAGE_APPLICATION_WITHOUT_RELEASES + name));
     }
 
     @Override
@@ -92,11 +419,10 @@ public class HttpServiceImpl implements HttpService {
                                           release.getString(Constants.VERSION),
                                           release.getString(Constants.CONTENT),
                                           release.getString(Constants.RELEASE_DATE))
-                         .doOnComplete(
-                                 () -> LOGGER
-                                         .debug("The release was created successfully!\n{}", release.encodePrettily()))
+                         .doOnTerminate(() -> releaseChanged(null))
+                         .doOnComplete(() -> debugPayload("The release was created successfully!", release))
                          .subscribe(() -> successfulResponse(context, Constants.STATUS_CODE_CREATED, null, null),
-                                    t -> failedResponse(context, Constants.INTERNAL_SERVER_ERROR, t.getMessage()));
+                                    t -> errorResponse(context, t));
             }
         } catch (Exception e) {
             failedResponse(context, Constants.STATUS_CODE_BAD_REQUEST, "Does not exist body");
@@ -104,36 +430,77 @@ public class HttpServiceImpl implements HttpService {
 
     }
 
+    @Override
+    public void saveReleases(RoutingContext context) {
+        List<Object> items;
+        try {
+            items = parseBulkBody(context);
+        } catch (Exception e) {
+            failedResponse(context, Constants.STATUS_CODE_BAD_REQUEST, "The body must be a JSON array or NDJSON");
+            return;
+        }
+
+        if (items.isEmpty() || items.size() > bulkMaxItems) {
+            failedResponse(context, Constants.STATUS_CODE_BAD_REQUEST,
+                           "A bulk request must contain between 1 and " + bulkMaxItems + " releases");
+            return;
+        }
+
+        List<JsonObject> results = new ArrayList<>(items.size());
+        List<Integer> validIndexes = new ArrayList<>();
+        List<Release> validReleases = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            Object item = items.get(i);
+            if (item instanceof JsonObject && isReleaseComplete((JsonObject) item)) {
+                validIndexes.add(i);
+                validReleases.add(new Release((JsonObject) item));
+                results.add(null);
+            } else {
+                results.add(new JsonObject().put(Constants.INDEX, i)
+                                            .put(Constants.SUCCESS, false)
+                                            .put(Constants.ERROR, "Bad request payload"));
+            }
+        }
+
+        if (validReleases.isEmpty()) {
+            successfulResponse(context, Constants.STATUS_CODE_OK, Constants.RESULTS, new JsonArray(results));
+            return;
+        }
+
+        dbService.rxInsertReleases(validReleases)
+                 .doOnEvent((counts, t) -> releaseChanged(null))
+                 .subscribe(counts -> {
+                     for (int i = 0; i < validIndexes.size(); i++) {
+                         int index = validIndexes.get(i);
+                         results.set(index, new JsonObject().put(Constants.INDEX, index)
+                                                            .put(Constants.SUCCESS, counts.get(i) > 0));
+                     }
+                     LOGGER.debug("{} releases were created in bulk", validReleases.size());
+                     successfulResponse(context, Constants.STATUS_CODE_CREATED, Constants.RESULTS,
+                                        new JsonArray(results));
+                 }, t -> errorResponse(context, t));
+    }
+
     @Override
     public void updateRelease(RoutingContext context) {
         int id = Integer.parseInt(context.request().getParam(Constants.ID));
 
         try {
             JsonObject release = context.getBodyAsJson();
-            dbService.rxFetchReleaseById(id)
-                     .subscribe(obj -> {
-                         if (obj.getBoolean(Constants.FOUND)) {
-
-                             if (isRequestValid(context, release, Constants.CONTENT)) {
-                                 dbService.rxUpdateRelease(id, release.getString(Constants.CONTENT))
-                                          .doOnComplete(() -> LOGGER.debug("The release was updated successfully!\n{}",
-                                                                           release.encodePrettily()))
-                                          .subscribe(() -> successfulResponse(context,
-                                                                              Constants.STATUS_CODE_OK,
-                                                                              null,
-                                                                              null),
-                                                     t -> failedResponse(context,
-                                                                         Constants.INTERNAL_SERVER_ERROR,
-                                                                         t.getMessage()));
+
+            if (isRequestValid(context, release, Constants.CONTENT)) {
+                dbService.rxUpdateRelease(id, release.getString(Constants.CONTENT))
+                         .doOnEvent((updated, t) -> releaseChanged(id))
+                         .subscribe(updated -> {
+                             if (updated > 0) {
+                                 debugPayload("The release was updated successfully!", release);
+                                 successfulResponse(context, Constants.STATUS_CODE_OK, null, null);
                              } else {
-                                 failedResponse(context, Constants.STATUS_CODE_BAD_REQUEST,
-                                                "The body does not contains the CONTENT attribute" + id);
+                                 failedResponse(context, Constants.STATUS_CODE_NOT_FOUND,
+                                                MESSAGE_RELEASE_WITHOUT_ID + id);
                              }
-                         } else {
-                             failedResponse(context, Constants.STATUS_CODE_NO_CONTENT,
-                                            MESSAGE_RELEASE_WITHOUT_ID + id);
-                         }
-                     }, t -> failedResponse(context, Constants.INTERNAL_SERVER_ERROR, t.getMessage()));
+                         }, t -> errorResponse(context, t));
+            }
         } catch (Exception e) {
             failedResponse(context, Constants.STATUS_CODE_BAD_REQUEST, "Does not exist body");
         }
@@ -143,27 +510,48 @@ public class HttpServiceImpl implements HttpService {
     public void deleteRelease(RoutingContext context) {
         int id = Integer.parseInt(context.request().getParam(Constants.ID));
 
-        dbService.rxFetchReleaseById(id)
-                 .subscribe(obj -> {
-                     if (obj.getBoolean(Constants.FOUND)) {
-                         dbService.rxDeleteRelease(id)
-                                  .doOnComplete(() -> LOGGER.debug("The release was deleted successfully!"))
-                                  .subscribe(() -> successfulResponse(context, Constants.STATUS_CODE_OK, null, null),
-                                             t -> failedResponse(context, Constants.INTERNAL_SERVER_ERROR,
-                                                                 t.getMessage()));
+        dbService.rxDeleteRelease(id)
+                 .doOnEvent((deleted, t) -> releaseChanged(id))
+                 .subscribe(deleted -> {
+                     if (deleted > 0) {
+                         LOGGER.debug("The release was deleted successfully!");
+                         successfulResponse(context, Constants.STATUS_CODE_OK, null, null);
                      } else {
-                         failedResponse(context, Constants.STATUS_CODE_NO_CONTENT, MESSAGE_RELEASE_WITHOUT_ID + id);
+                         failedResponse(context, Constants.STATUS_CODE_NOT_FOUND, MESSAGE_RELEASE_WITHOUT_ID + id);
                      }
-                 }, t -> failedResponse(context, Constants.INTERNAL_SERVER_ERROR, t.getMessage()));
+                 }, t -> errorResponse(context, t));
+    }
+
+    /**
+     * Drops the cached listing version, and the cached response of a release once it has been written to, even when
+     * the write failed, as it may have been committed anyway. The id is null for an insert. The change is published
+     * for the HTTP verticles of the other Vert.x instances.
+     */
+    private void releaseChanged(Integer id) {
+        if (responseCache != null) {
+            responseCache.invalidate(id, Constants.RELEASES_VERSION);
+            vertx.eventBus().publish(Constants.RELEASE_CHANGES_ADDRESS, id);
+        }
     }
 
-    private JsonObject buildRelease(JsonObject release) {
-        return new JsonObject()
-                .put(Constants.ID, release.getInteger(Constants.ID.toUpperCase()))
-                .put(Constants.APPLICATION_NAME, release.getString(Constants.APPLICATION_NAME.toUpperCase()))
-                .put(Constants.VERSION, release.getString(Constants.VERSION.toUpperCase()))
-                .put(Constants.CONTENT, release.getString(Constants.CONTENT.toUpperCase()))
-                .put(Constants.RELEASE_DATE, release.getString(Constants.RELEASE_DATE.toUpperCase()));
+    private void writeStreamHead(HttpServerResponse response, ReleaseVersion version) {
+        if (!response.headWritten()) {
+            putValidators(response, version);
+            response.setChunked(true)
+                    .setStatusCode(Constants.STATUS_CODE_OK)
+                    .putHeader(Constants.CONTENT_TYPE, Constants.APPLICATION_JSON_UTF_8)
+                    .write(STREAM_PREFIX);
+        }
+    }
+
+    /**
+     * Pretty-printing a payload costs more than writing it to the database, so it is only done when debug is enabled,
+     * and then for one write out of {@code http.payload.log.sample.rate}.
+     */
+    private void debugPayload(String message, JsonObject payload) {
+        if (LOGGER.isDebugEnabled() && payloadLogCount.getAndIncrement() % payloadLogSampleRate == 0) {
+            LOGGER.debug("{}\n{}", message, payload.encodePrettily());
+        }
     }
 
     private boolean isRequestValid(RoutingContext context, JsonObject release, String... expectedKeys) {
@@ -171,36 +559,200 @@ public class HttpServiceImpl implements HttpService {
             return true;
         }
 
-        String payload = release.encodePrettily();
-        LOGGER.error("Bad release creation JSON payload: {} from {}", payload, context.request().remoteAddress());
+        // The payload is encoded by the logger, on one line, only if the message is logged
+        LOGGER.error("Bad release creation JSON payload: {} from {}", release, context.request().remoteAddress());
 
         context.response().setStatusCode(Constants.STATUS_CODE_BAD_REQUEST);
         context.response().putHeader(Constants.CONTENT_TYPE, Constants.APPLICATION_JSON_UTF_8);
-        context.response().end(new JsonObject().put(Constants.SUCCESS, false)
-                                               .put(Constants.ERROR, "Bad request payload").encode());
+        end(context.response(), new JsonObject().put(Constants.SUCCESS, false)
+                                                .put(Constants.ERROR, "Bad request payload").encode());
         return false;
     }
 
+    private static boolean isReleaseComplete(JsonObject release) {
+        return release.getValue(Constants.APPLICATION_NAME) instanceof String
+                && release.getValue(Constants.VERSION) instanceof String
+                && release.getValue(Constants.CONTENT) instanceof String;
+    }
+
+    private static List<Object> parseBulkBody(RoutingContext context) {
+        String body = context.getBodyAsString();
+        String contentType = Optional.ofNullable(context.request().getHeader(Constants.CONTENT_TYPE)).orElse("");
+        List<Object> items = new ArrayList<>();
+
+        if (contentType.contains(NDJSON)) {
+            for (String line : body.split("\n")) {
+                if (!line.trim().isEmpty()) {
+                    items.add(new JsonObject(line));
+                }
+            }
+        } else {
+            new JsonArray(body).forEach(items::add);
+        }
+        return items;
+    }
+
+    private static String encodeCursor(int id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                     .encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeCursor(String cursor) {
+        if (cursor == null) {
+            return -1;
+        }
+        return Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * If-None-Match takes precedence over If-Modified-Since and uses the weak comparison, as RFC 7232 requires. HTTP
+     * dates have a resolution of one second, so the modification time is truncated before comparing.
+     */
+    private static boolean isNotModified(RoutingContext context, ReleaseVersion version) {
+        String ifNoneMatch = context.request().getHeader(Constants.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            String entityTag = entityTag(version);
+            return Arrays.stream(ifNoneMatch.split(","))
+                         .map(String::trim)
+                         .map(tag -> tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag)
+                         .anyMatch(tag -> ANY_TAG.equals(tag) || entityTag.equals(tag));
+        }
+
+        String ifModifiedSince = context.request().getHeader(Constants.IF_MODIFIED_SINCE);
+        if (ifModifiedSince == null || version.getLastModified() <= 0) {
+            return false;
+        }
+        try {
+            long since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return TimeUnit.MILLISECONDS.toSeconds(version.getLastModified()) <= since;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static String entityTag(ReleaseVersion version) {
+        return '"' + version.getTag() + '"';
+    }
+
+    private static void putValidators(HttpServerResponse response, ReleaseVersion version) {
+        response.putHeader(Constants.ETAG, entityTag(version));
+        if (version.getLastModified() > 0) {
+            response.putHeader(Constants.LAST_MODIFIED, DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                    Instant.ofEpochMilli(version.getLastModified()).atZone(ZoneOffset.UTC)));
+        }
+    }
+
+    private void notModifiedResponse(RoutingContext context, ReleaseVersion version) {
+        putValidators(context.response(), version);
+        context.response()
+               .setStatusCode(Constants.STATUS_CODE_NOT_MODIFIED)
+               .end();
+    }
+
     private void successfulResponse(RoutingContext context, int statusCode, String jsonField, Object jsonData) {
+        successfulResponse(context, statusCode, jsonField, jsonData, null);
+    }
+
+    private void successfulResponse(RoutingContext context, int statusCode, String jsonField, Object jsonData,
+                                    String nextCursor) {
+        end(context.response()
+                   .setStatusCode(statusCode)
+                   .putHeader(Constants.CONTENT_TYPE, Constants.APPLICATION_JSON_UTF_8),
+            encodeEnvelope(jsonField, jsonData, nextCursor));
+    }
+
+    private void encodedResponse(RoutingContext context, EncodedRelease encoded) {
+        putValidators(context.response(), encoded.version);
+        HttpServerResponse response = context.response()
+                                             .setStatusCode(Constants.STATUS_CODE_OK)
+                                             .putHeader(Constants.CONTENT_TYPE, Constants.APPLICATION_JSON_UTF_8);
+        if (encoded.body.length() < compressionMinSize) {
+            response.putHeader(Constants.CONTENT_ENCODING, Constants.IDENTITY);
+        }
+        // Each write takes a duplicate of the buffer, which shares its bytes
+        response.end(encoded.body);
+    }
+
+    /**
+     * Encodes the whole response to a read-only buffer, so it can be shared by the responses of every event loop.
+     */
+    private static Buffer encodeRelease(Release release) {
+        byte[] body = encodeEnvelope(Constants.RELEASE, release.toJson(), null).getBytes(StandardCharsets.UTF_8);
+        return Buffer.buffer(Unpooled.wrappedBuffer(body).asReadOnly());
+    }
+
+    static JsonArray toJsonArray(List<Release> releases) {
+        JsonArray array = new JsonArray(new ArrayList<>(releases.size()));
+        for (Release release : releases) {
+            array.add(release.toJson());
+        }
+        return array;
+    }
+
+    static String encodeEnvelope(String jsonField, Object jsonData, String nextCursor) {
         JsonObject wrapped = new JsonObject().put(Constants.SUCCESS, true);
 
         if (Optional.ofNullable(jsonField).isPresent() && Optional.ofNullable(jsonData).isPresent()) {
             wrapped.put(jsonField, jsonData);
         }
 
-        context.response()
-               .setStatusCode(statusCode)
-               .putHeader(Constants.CONTENT_TYPE, Constants.APPLICATION_JSON_UTF_8)
-               .end(wrapped.encode());
+        if (Optional.ofNullable(nextCursor).isPresent()) {
+            wrapped.put(Constants.NEXT, nextCursor);
+        }
+
+        return wrapped.encode();
+    }
+
+    /**
+     * Calls shed by the repository proxy, or left without a reply before the call timeout, are answered with a 503
+     * and a {@code Retry-After} so clients back off instead of piling more work onto a saturated database.
+     */
+    private void errorResponse(RoutingContext context, Throwable t) {
+        if (isOverloaded(t)) {
+            context.response().putHeader(Constants.RETRY_AFTER, retryAfter);
+            failedResponse(context, Constants.STATUS_CODE_SERVICE_UNAVAILABLE, t.getMessage());
+        } else {
+            failedResponse(context, Constants.INTERNAL_SERVER_ERROR, t.getMessage());
+        }
+    }
+
+    private static boolean isOverloaded(Throwable t) {
+        if (t instanceof ServiceException) {
+            return ((ServiceException) t).failureCode() == Constants.STATUS_CODE_SERVICE_UNAVAILABLE;
+        }
+        return t instanceof ReplyException && ((ReplyException) t).failureType() == ReplyFailure.TIMEOUT;
     }
 
     private void failedResponse(RoutingContext context, int statusCode, String error) {
-        context.response()
-               .setStatusCode(statusCode)
-               .putHeader(Constants.CONTENT_TYPE, Constants.APPLICATION_JSON_UTF_8)
-               .end(new JsonObject().put(Constants.SUCCESS, false)
-                                    .put(Constants.ERROR, error)
-                                    .encode());
+        end(context.response()
+                   .setStatusCode(statusCode)
+                   .putHeader(Constants.CONTENT_TYPE, Constants.APPLICATION_JSON_UTF_8),
+            new JsonObject().put(Constants.SUCCESS, false)
+                            .put(Constants.ERROR, error)
+                            .encode());
+    }
+
+    /**
+     * Responses shorter than the configured minimum size are sent as identity, so the server does not spend a
+     * compressor on bodies that gzip would barely shrink or even make larger.
+     */
+    private void end(HttpServerResponse response, String body) {
+        if (body.length() < compressionMinSize) {
+            response.putHeader(Constants.CONTENT_ENCODING, Constants.IDENTITY);
+        }
+        response.end(body);
+    }
+
+    private static final class EncodedRelease {
+
+        private final ReleaseVersion version;
+        private final Buffer body;
+
+        private EncodedRelease(ReleaseVersion version, Buffer body) {
+            this.version = version;
+            this.body = body;
+        }
+
     }
 
 }
@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.tracing;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * Writes every ended span to the {@code traces} logger as one line of OTLP JSON, an
+ * {@code ExportTraceServiceRequest} holding that span, the format read by the OpenTelemetry Collector's
+ * {@code otlpjsonfile} receiver, so traces can be inspected or shipped without a collector running next to the
+ * application. The appender configured in {@code logback.xml} writes the lines from a background thread.
+ *
+ * @author Juan Calvopina
+ */
+final class OtlpJsonExporter {
+
+    private static final Logger TRACES_LOGGER = LoggerFactory.getLogger("traces");
+    private static final String SERVICE_NAME = "sample-rest-vertx";
+    private static final String SCOPE_NAME = "com.jcalvopinam.tracing";
+    private static final int STATUS_OK = 1;
+    private static final int STATUS_ERROR = 2;
+
+    private static final JsonObject RESOURCE = new JsonObject()
+            .put("attributes", new JsonArray().add(attribute("service.name", SERVICE_NAME)));
+    private static final JsonObject SCOPE = new JsonObject().put("name", SCOPE_NAME);
+
+    private OtlpJsonExporter() {
+    }
+
+    static void export(Span span, long endNanos) {
+        if (TRACES_LOGGER.isInfoEnabled()) {
+            TRACES_LOGGER.info(request(span, endNanos).encode());
+        }
+    }
+
+    static JsonObject request(Span span, long endNanos) {
+        JsonObject scopeSpans = new JsonObject().put("scope", SCOPE)
+                                                .put("spans", new JsonArray().add(toOtlp(span, endNanos)));
+        JsonObject resourceSpans = new JsonObject().put("resource", RESOURCE)
+                                                   .put("scopeSpans", new JsonArray().add(scopeSpans));
+        return new JsonObject().put("resourceSpans", new JsonArray().add(resourceSpans));
+    }
+
+    private static JsonObject toOtlp(Span span, long endNanos) {
+        JsonArray attributes = new JsonArray();
+        for (Map.Entry<String, Object> entry : span.attributes().entrySet()) {
+            attributes.add(attribute(entry.getKey(), entry.getValue()));
+        }
+
+        Throwable failure = span.failure();
+        JsonObject status = failure == null
+                            ? new JsonObject().put("code", STATUS_OK)
+                            : new JsonObject().put("code", STATUS_ERROR).put("message", String.valueOf(failure));
+        JsonObject otlp = new JsonObject().put("traceId", span.traceId())
+                                          .put("spanId", span.spanId());
+        if (span.parentSpanId() != null) {
+            otlp.put("parentSpanId", span.parentSpanId());
+        }
+        // 64 bit integers are strings in OTLP JSON
+        return otlp.put("name", span.name())
+                   .put("kind", span.kind().code)
+                   .put("startTimeUnixNano", Long.toString(span.startNanos()))
+                   .put("endTimeUnixNano", Long.toString(endNanos))
+                   .put("attributes", attributes)
+                   .put("status", status);
+    }
+
+    private static JsonObject attribute(String key, Object value) {
+        JsonObject otlpValue;
+        if (value instanceof Long || value instanceof Integer) {
+            otlpValue = new JsonObject().put("intValue", value.toString());
+        } else if (value instanceof Boolean) {
+            otlpValue = new JsonObject().put("boolValue", value);
+        } else {
+            otlpValue = new JsonObject().put("stringValue", String.valueOf(value));
+        }
+        return new JsonObject().put("key", key).put("value", otlpValue);
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The time a request spent in one stage: the HTTP server, a repository call over the event bus or a statement. A
+ * stage that waits before doing its work, for the router, the event loop of the DB verticle or a pooled connection,
+ * marks the end of the wait with {@link #queued()}; the span then reports the queue time and the execution time
+ * apart. Written by {@link OtlpJsonExporter} once ended.
+ *
+ * @author Juan Calvopina
+ */
+public final class Span {
+
+    public static final String QUEUE_TIME_US = "queue.time.us";
+    public static final String EXECUTION_TIME_US = "execution.time.us";
+
+    /**
+     * The OTLP span kinds used by the application.
+     */
+    public enum Kind {
+
+        SERVER(2), CLIENT(3);
+
+        final int code;
+
+        Kind(int code) {
+            this.code = code;
+        }
+
+    }
+
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final Kind kind;
+    private final long startNanos;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+    private String name;
+    private long queuedNanos;
+    private Throwable failure;
+    private boolean ended;
+
+    private Span(String name, Kind kind, String traceId, String parentSpanId, long startNanos) {
+        this.name = name;
+        this.kind = kind;
+        this.traceId = traceId;
+        this.spanId = randomId();
+        this.parentSpanId = parentSpanId;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Starts a span that continues the trace of the given context, or a new trace when it is {@code null}.
+     */
+    public static Span start(String name, Kind kind, TraceContext parent, long startNanos) {
+        return parent == null
+               ? new Span(name, kind, randomId() + randomId(), null, startNanos)
+               : new Span(name, kind, parent.traceId(), parent.spanId(), startNanos);
+    }
+
+    public Span child(String name, Kind kind) {
+        return new Span(name, kind, traceId, spanId, Tracing.now());
+    }
+
+    /**
+     * The context to hand to the next stage, sent now.
+     */
+    public TraceContext context() {
+        return new TraceContext(traceId, spanId, Tracing.now());
+    }
+
+    public synchronized Span name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public synchronized Span attribute(String key, Object value) {
+        attributes.put(key, value);
+        return this;
+    }
+
+    /**
+     * Marks the end of the wait, the time after it is execution time.
+     */
+    public synchronized void queued() {
+        queuedNanos = Tracing.now();
+    }
+
+    public void end() {
+        end(null);
+    }
+
+    /**
+     * Ends the span, failed when a cause is given, and exports it. Only the first call has an effect.
+     */
+    public void end(Throwable failure) {
+        long endNanos = Tracing.now();
+        synchronized (this) {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            this.failure = failure;
+            long executionStart = queuedNanos > 0 ? queuedNanos : startNanos;
+            if (queuedNanos > 0) {
+                attributes.put(QUEUE_TIME_US, Math.max(0, queuedNanos - startNanos) / 1000);
+            }
+            attributes.put(EXECUTION_TIME_US, Math.max(0, endNanos - executionStart) / 1000);
+        }
+        OtlpJsonExporter.export(this, endNanos);
+    }
+
+    public String traceId() {
+        return traceId;
+    }
+
+    public String spanId() {
+        return spanId;
+    }
+
+    String parentSpanId() {
+        return parentSpanId;
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    long startNanos() {
+        return startNanos;
+    }
+
+    synchronized String name() {
+        return name;
+    }
+
+    synchronized Map<String, Object> attributes() {
+        return new LinkedHashMap<>(attributes);
+    }
+
+    synchronized Throwable failure() {
+        return failure;
+    }
+
+    private static String randomId() {
+        String hex = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.tracing;
+
+import io.vertx.core.MultiMap;
+
+/**
+ * The part of a span handed to the next stage of the trace: its trace and span ids, carried in a W3C
+ * {@code traceparent} header, and the time the call left the previous stage, carried in {@code trace-sent-at}, so
+ * the next stage can tell the time it spent queued.
+ *
+ * @author Juan Calvopina
+ */
+public final class TraceContext {
+
+    public static final String TRACEPARENT = "traceparent";
+    public static final String SENT_AT = "trace-sent-at";
+
+    private static final String VERSION = "00";
+    private static final String SAMPLED = "01";
+    private static final int TRACEPARENT_LENGTH = 55;
+
+    private final String traceId;
+    private final String spanId;
+    private final long sentAtNanos;
+
+    TraceContext(String traceId, String spanId, long sentAtNanos) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.sentAtNanos = sentAtNanos;
+    }
+
+    /**
+     * Reads the context from the headers of a message, {@code null} when they do not carry one.
+     */
+    public static TraceContext fromHeaders(MultiMap headers) {
+        TraceContext context = parse(headers.get(TRACEPARENT), Tracing.now());
+        if (context == null) {
+            return null;
+        }
+        try {
+            String sentAt = headers.get(SENT_AT);
+            return sentAt == null ? context : new TraceContext(context.traceId, context.spanId, Long.parseLong(sentAt));
+        } catch (NumberFormatException e) {
+            return context;
+        }
+    }
+
+    /**
+     * Parses a {@code traceparent} header, {@code null} when it is missing or malformed.
+     */
+    public static TraceContext parse(String traceparent, long sentAtNanos) {
+        if (traceparent == null || traceparent.length() != TRACEPARENT_LENGTH || traceparent.charAt(2) != '-'
+                || traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-') {
+            return null;
+        }
+        String traceId = traceparent.substring(3, 35);
+        String spanId = traceparent.substring(36, 52);
+        if (!isHex(traceId) || !isHex(spanId)) {
+            return null;
+        }
+        return new TraceContext(traceId, spanId, sentAtNanos);
+    }
+
+    public void addTo(MultiMap headers) {
+        headers.set(TRACEPARENT, VERSION + '-' + traceId + '-' + spanId + '-' + SAMPLED);
+        headers.set(SENT_AT, Long.toString(sentAtNanos));
+    }
+
+    public String traceId() {
+        return traceId;
+    }
+
+    public String spanId() {
+        return spanId;
+    }
+
+    /**
+     * Unix time in nanoseconds.
+     */
+    public long sentAtNanos() {
+        return sentAtNanos;
+    }
+
+    private static boolean isHex(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.tracing;
+
+import io.reactivex.Single;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Propagates the span of the request being handled. Vert.x 3 has no per-request context, so the current span lives in
+ * a thread local that is only set while a stage calls into the next one; the calls run on the same thread until they
+ * send a message or submit a task, which is where the span is handed over explicitly. When tracing is disabled no
+ * span is ever current and nothing is recorded.
+ * <p>
+ * Over the event bus the span travels as {@link TraceContext} headers of the service proxy messages, added by an
+ * outbound interceptor and read back by an interceptor of the {@link io.vertx.serviceproxy.ServiceBinder}.
+ *
+ * @author Juan Calvopina
+ */
+public final class Tracing {
+
+    private static final String ACTION = "action";
+    private static final String INTERCEPTOR = "tracing.interceptor";
+    private static final long EPOCH_OFFSET_NANOS = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis())
+                                                   - System.nanoTime();
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<TraceContext> INCOMING = new ThreadLocal<>();
+
+    private Tracing() {
+    }
+
+    /**
+     * Unix time in nanoseconds, with the resolution of {@link System#nanoTime()}.
+     */
+    public static long now() {
+        return EPOCH_OFFSET_NANOS + System.nanoTime();
+    }
+
+    /**
+     * The span of the request being handled by this thread, {@code null} outside a trace.
+     */
+    public static Span current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the action with the given span as the current one, which may be {@code null}.
+     */
+    public static void withCurrent(Span span, Runnable action) {
+        Span previous = CURRENT.get();
+        CURRENT.set(span);
+        try {
+            action.run();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Starts a child of the current span, {@code null} outside a trace.
+     */
+    public static Span startChild(String name, Span.Kind kind) {
+        Span current = CURRENT.get();
+        return current == null ? null : current.child(name, kind);
+    }
+
+    /**
+     * Ends the span with the outcome of the single and emits it with the caller's current span restored, so the
+     * work chained to the result stays in the same trace.
+     */
+    public static <T> Single<T> endWith(Span span, Single<T> single) {
+        Span parent = CURRENT.get();
+        return Single.create(emitter -> single.subscribe((value, failure) -> {
+            span.end(failure);
+            withCurrent(parent, () -> {
+                if (failure != null) {
+                    emitter.onError(failure);
+                } else {
+                    emitter.onSuccess(value);
+                }
+            });
+        }));
+    }
+
+    /**
+     * The context of the current span to hand to a call made on another context, {@code null} outside a trace.
+     */
+    public static TraceContext outgoing() {
+        Span current = CURRENT.get();
+        return current == null ? null : current.context();
+    }
+
+    /**
+     * Sets the context of the call about to be dispatched on this thread, {@code null} when it is not traced.
+     */
+    public static void setIncoming(TraceContext context) {
+        INCOMING.set(context);
+    }
+
+    /**
+     * Takes the context set for the call being dispatched, {@code null} when it is not traced.
+     */
+    public static TraceContext takeIncoming() {
+        TraceContext context = INCOMING.get();
+        INCOMING.remove();
+        return context;
+    }
+
+    /**
+     * Adds the context of the current span to the service proxy calls sent by this Vert.x instance. Installed once
+     * per Vert.x instance.
+     */
+    public static void propagateOverEventBus(Vertx vertx) {
+        if (vertx.sharedData().getLocalMap(INTERCEPTOR).putIfAbsent(INTERCEPTOR, true) == null) {
+            vertx.eventBus().addOutboundInterceptor(context -> {
+                MultiMap headers = context.message().headers();
+                TraceContext outgoing = outgoing();
+                if (outgoing != null && headers.contains(ACTION)) {
+                    outgoing.addTo(headers);
+                }
+                context.next();
+            });
+        }
+    }
+
+    /**
+     * The {@link io.vertx.serviceproxy.ServiceBinder} interceptor that reads the context of each call before the
+     * service is called on the same thread, see {@link #takeIncoming()}.
+     */
+    public static Function<Message<JsonObject>, Future<Message<JsonObject>>> serviceInterceptor() {
+        return message -> {
+            INCOMING.set(TraceContext.fromHeaders(message.headers()));
+            return Future.succeededFuture(message);
+        };
+    }
+
+}
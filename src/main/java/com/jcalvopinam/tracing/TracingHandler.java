@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.tracing;
+
+import io.vertx.core.Handler;
+import io.vertx.reactivex.ext.web.Route;
+import io.vertx.reactivex.ext.web.RoutingContext;
+
+import java.util.Optional;
+
+/**
+ * Starts the server span of every request, continuing the trace of a {@code traceparent} request header when there
+ * is one, and ends it once the response is written. The span is named after the route path, like the access log.
+ * Must be one of the first handlers of the router; {@link #dispatch(RoutingContext)} must be the last handler before
+ * the routes, the time up to it, routing and reading the body, is the queue time of the span.
+ *
+ * @author Juan Calvopina
+ */
+public class TracingHandler implements Handler<RoutingContext> {
+
+    private static final String SPAN = "tracing.span";
+    private static final String UNMATCHED = "unmatched";
+    private static final int SERVER_ERROR = 500;
+
+    @Override
+    public void handle(RoutingContext context) {
+        long start = Tracing.now();
+        String method = context.request().rawMethod();
+        Span span = Span.start(method, Span.Kind.SERVER,
+                               TraceContext.parse(context.request().getHeader(TraceContext.TRACEPARENT), start), start);
+        context.put(SPAN, span);
+        context.addBodyEndHandler(v -> {
+            String route = Optional.ofNullable(context.currentRoute()).map(Route::getPath).orElse(UNMATCHED);
+            int status = context.response().getStatusCode();
+            span.name(method + ' ' + route)
+                .attribute("http.method", method)
+                .attribute("http.route", route)
+                .attribute("http.status_code", status);
+            span.end(status >= SERVER_ERROR ? new IllegalStateException("HTTP " + status) : null);
+        });
+        context.next();
+    }
+
+    /**
+     * Calls the route with the span of the request as the current one, so the repository calls it makes are traced.
+     */
+    public static void dispatch(RoutingContext context) {
+        Span span = context.get(SPAN);
+        if (span == null) {
+            context.next();
+            return;
+        }
+        span.queued();
+        Tracing.withCurrent(span, context::next);
+    }
+
+}
@@ -25,6 +25,10 @@
 
 package com.jcalvopinam.utils;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @author Juan Calvopina
  */
@@ -33,31 +37,141 @@ public final class Constants {
     public static final int STATUS_CODE_OK = 200;
     public static final int STATUS_CODE_CREATED = 201;
     public static final int STATUS_CODE_NO_CONTENT = 204;
+    public static final int STATUS_CODE_NOT_MODIFIED = 304;
     public static final int STATUS_CODE_BAD_REQUEST = 400;
     public static final int STATUS_CODE_NOT_FOUND = 404;
     public static final int INTERNAL_SERVER_ERROR = 500;
+    public static final int STATUS_CODE_SERVICE_UNAVAILABLE = 503;
     public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_STREAM_CHUNK_SIZE = 100;
+    public static final int DEFAULT_PAGE_MAX_LIMIT = 1000;
+    public static final int DEFAULT_CACHE_TTL_SECONDS = 60;
+    public static final int DEFAULT_BULK_MAX_ITEMS = 1000;
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+    public static final int DEFAULT_COMPRESSION_LEVEL = 6;
+    public static final int DEFAULT_COMPRESSION_MIN_SIZE = 1024;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 256;
+    public static final int DEFAULT_RETRY_AFTER_SECONDS = 1;
+    public static final int DEFAULT_GROUP_COMMIT_MAX_SIZE = 64;
+    public static final int DEFAULT_PAYLOAD_LOG_SAMPLE_RATE = 100;
+    public static final int DEFAULT_RESPONSE_CACHE_MAX_SIZE = 1000;
+    public static final int DEFAULT_RESPONSE_CACHE_TTL_SECONDS = 60;
+    public static final long DEFAULT_READ_MODEL_MAX_BYTES = 256L * 1024 * 1024;
+    public static final int DEFAULT_SEGMENT_LOG_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final long DEFAULT_SEGMENT_LOG_SYNC_INTERVAL_MS = 1000;
+    public static final long DEFAULT_SEGMENT_LOG_COMPACTION_INTERVAL_MS = 60000;
+    public static final double DEFAULT_SEGMENT_LOG_COMPACTION_RATIO = 0.5;
 
     public static final String APPLICATION_JSON_UTF_8 = "application/json; charset=utf-8";
     public static final String CONFIG_HTTP_PORT = "verticle.port";
     public static final String CONTENT_TYPE = "content-type";
+    public static final String CONTENT_ENCODING = "content-encoding";
+    public static final String IDENTITY = "identity";
+    public static final String ETAG = "etag";
+    public static final String LAST_MODIFIED = "last-modified";
+    public static final String IF_NONE_MATCH = "if-none-match";
+    public static final String IF_MODIFIED_SINCE = "if-modified-since";
+    public static final String RETRY_AFTER = "retry-after";
+    public static final String CONFIG_STREAM_CHUNK_SIZE = "http.stream.chunk.size";
+    public static final String CONFIG_PAGE_MAX_LIMIT = "http.page.max.limit";
+    public static final String CONFIG_BULK_MAX_ITEMS = "http.bulk.max.items";
+    public static final String CONFIG_COMPRESSION_ENABLED = "http.compression.enabled";
+    public static final String CONFIG_COMPRESSION_LEVEL = "http.compression.level";
+    public static final String CONFIG_COMPRESSION_MIN_SIZE = "http.compression.min.size";
+    public static final String CONFIG_SSL_KEYSTORE_PATH = "http.ssl.keystore.path";
+    public static final String CONFIG_SSL_KEYSTORE_PASSWORD = "http.ssl.keystore.password";
+    public static final String CONFIG_SSL_ALPN = "http.ssl.alpn";
+    public static final String CONFIG_RETRY_AFTER_SECONDS = "http.retry.after.seconds";
+    public static final String CONFIG_ACCESS_LOG_ENABLED = "http.access.log.enabled";
+    public static final String CONFIG_TRACING_ENABLED = "tracing.enabled";
+    public static final String CONFIG_PAYLOAD_LOG_SAMPLE_RATE = "http.payload.log.sample.rate";
+    public static final String CONFIG_RESPONSE_CACHE_MAX_SIZE = "http.response.cache.max.size";
+    public static final String CONFIG_RESPONSE_CACHE_TTL_SECONDS = "http.response.cache.ttl.seconds";
+    public static final String RELEASE_RESPONSE_CACHE = "release.http.response.cache";
+    public static final String RELEASES_VERSION = "releases.version";
+    public static final String RELEASE_CHANGES_ADDRESS = "release.repository.changes";
     public static final String RELEASE_SERVICE_ADDRESS = "release.repository.address";
+    public static final String RELEASE_STREAM_ADDRESS = "release.repository.stream.";
+    public static final String RELEASE_CACHE = "release.repository.cache";
+    public static final String RELEASE_READS_IN_FLIGHT = "release.repository.reads.in.flight";
+    public static final String RELEASE_SEARCH_INDEX = "release.repository.search.index";
+    public static final String CONFIG_CACHE_MAX_SIZE = "cache.max.size";
+    public static final String CONFIG_CACHE_TTL_SECONDS = "cache.ttl.seconds";
+    public static final String CACHE_REPOSITORY = "repository";
+    public static final String CACHE_RESPONSE = "response";
+    public static final String CONFIG_METRICS_ENABLED = "metrics.enabled";
+    public static final String CONFIG_LOCAL_DISPATCH = "repository.local.dispatch";
+    public static final String CONFIG_MAX_IN_FLIGHT = "repository.max.in.flight";
+    public static final String CONFIG_CALL_TIMEOUT_MS = "repository.call.timeout.ms";
+    public static final String CONFIG_COALESCE_READS = "repository.coalesce.reads";
+    public static final String CONFIG_HTTP_INSTANCES = "http.instances";
+    public static final String CONFIG_DB_INSTANCES = "db.instances";
+    public static final String CONFIG_EVENT_LOOP_POOL_SIZE = "vertx.event.loop.pool.size";
+    public static final String CONFIG_WORKER_POOL_SIZE = "vertx.worker.pool.size";
+    public static final String CONFIG_JDBC_MAX_POOL_SIZE = "jdbc.max.pool.size";
+    public static final String CONFIG_GROUP_COMMIT_MAX_DELAY_MS = "db.group.commit.max.delay.ms";
+    public static final String CONFIG_GROUP_COMMIT_MAX_SIZE = "db.group.commit.max.size";
+    public static final String CONFIG_DB_EXECUTION_MODE = "db.execution.mode";
+    public static final String EXECUTION_WORKER = "worker";
+    public static final String EXECUTION_VIRTUAL_THREADS = "virtual-threads";
+    public static final String RELEASE_SQL_EXECUTOR = "release.repository.sql.executor";
+    public static final String CONFIG_READ_MODEL_ENABLED = "repository.read.model.enabled";
+    public static final String CONFIG_READ_MODEL_MAX_BYTES = "repository.read.model.max.bytes";
+    public static final String RELEASE_READ_MODEL = "release.repository.read.model";
+    public static final String CONFIG_REPOSITORY_STORAGE = "repository.storage";
+    public static final String STORAGE_JDBC = "jdbc";
+    public static final String STORAGE_SEGMENT_LOG = "segment-log";
+    public static final String RELEASE_SEGMENT_LOG = "release.repository.segment.log";
+    public static final String CONFIG_SEGMENT_LOG_DIRECTORY = "segment.log.directory";
+    public static final String DEFAULT_SEGMENT_LOG_DIRECTORY = "db/segments";
+    public static final String CONFIG_SEGMENT_LOG_SEGMENT_SIZE = "segment.log.segment.size";
+    public static final String CONFIG_SEGMENT_LOG_SYNC_INTERVAL_MS = "segment.log.sync.interval.ms";
+    public static final String CONFIG_SEGMENT_LOG_COMPACTION_INTERVAL_MS = "segment.log.compaction.interval.ms";
+    public static final String CONFIG_SEGMENT_LOG_COMPACTION_RATIO = "segment.log.compaction.ratio";
     public static final String SUCCESS = "success";
     public static final String ERROR = "error";
 
     public static final String RELEASE = "release";
+    public static final String APPLICATION = "application";
+    public static final String NAME = "name";
     public static final String ID = "id";
     public static final String APPLICATION_NAME = "applicationName";
     public static final String VERSION = "version";
     public static final String CONTENT = "content";
-    public static final String FOUND = "found";
     public static final String RELEASE_DATE = "releaseDate";
+    public static final String REVISION = "revision";
+    public static final String LAST_MODIFIED_FIELD = "lastModified";
+    public static final String FIELDS = "fields";
+    public static final String LIMIT = "limit";
+    public static final String AFTER = "after";
+    public static final String QUERY = "q";
+    public static final String NEXT = "next";
+    public static final String RESULTS = "results";
+    public static final String INDEX = "index";
+
+    /**
+     * The fields a listing may be narrowed to, named as their columns.
+     */
+    public static final List<String> RELEASE_FIELDS = Collections.unmodifiableList(
+            Arrays.asList(ID, APPLICATION_NAME, VERSION, CONTENT, RELEASE_DATE, REVISION, LAST_MODIFIED_FIELD));
 
     public static final String CREATE_RELEASE_TABLE = "sql.create.release.table";
+    public static final String CREATE_RELEASE_INDEX = "sql.create.release.index";
+    public static final String GET_RELEASE_COLUMNS = "sql.release.columns";
+    public static final String ADD_REVISION_COLUMN = "sql.add.release.revision";
+    public static final String ADD_LAST_MODIFIED_COLUMN = "sql.add.release.last.modified";
+    public static final String WIDEN_VERSION_COLUMN = "sql.widen.release.version";
     public static final String GET_APPLICATION_NAME = "sql.application.name.releases";
     public static final String GET_ID_AND_APP_NAME = "sql.id.app.name.release";
+    public static final String GET_APPLICATION_RELEASES = "sql.application.releases";
     public static final String GET_RELEASE_BY_ID = "sql.get.release.by.id";
+    public static final String GET_RELEASES_BY_IDS = "sql.releases.by.ids";
     public static final String GET_ALL_RELEASE = "sql.all.release.data";
+    public static final String GET_RELEASES_PAGE = "sql.releases.page";
+    public static final String GET_RELEASE_FIELDS_PAGE = "sql.release.fields.page";
+    public static final String GET_RELEASE_CONTENT = "sql.release.content";
+    public static final String GET_RELEASE_VERSION = "sql.release.version";
+    public static final String GET_RELEASES_VERSION = "sql.releases.version";
     public static final String INSERT_RELEASE = "sql.insert.release";
     public static final String UPDATE_RELEASE = "sql.update.release";
     public static final String DELETE_RELEASE = "sql.delete.release";
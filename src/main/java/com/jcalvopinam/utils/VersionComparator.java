@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package com.jcalvopinam.utils;
+
+import java.util.Comparator;
+
+/**
+ * Orders versions following the precedence rules of semantic versioning: numeric identifiers are compared by value,
+ * a missing identifier counts as 0 (so 1.2 equals 1.2.0), a pre-release ({@code 1.0-beta}) comes before its release
+ * and build metadata ({@code +build}) is ignored. Versions that are not semantic still get a stable order, by
+ * comparing their identifiers as text.
+ *
+ * @author Juan Calvopina
+ */
+public final class VersionComparator implements Comparator<String> {
+
+    public static final VersionComparator INSTANCE = new VersionComparator();
+
+    private VersionComparator() {
+    }
+
+    @Override
+    public int compare(String left, String right) {
+        if (left == null || right == null) {
+            return left == null ? (right == null ? 0 : -1) : 1;
+        }
+
+        String[] leftParts = stripBuild(left).split("-", 2);
+        String[] rightParts = stripBuild(right).split("-", 2);
+
+        int core = compareIdentifiers(leftParts[0].split("\\."), rightParts[0].split("\\."), true);
+        if (core != 0) {
+            return core;
+        }
+
+        boolean leftPreRelease = leftParts.length > 1;
+        boolean rightPreRelease = rightParts.length > 1;
+        if (leftPreRelease != rightPreRelease) {
+            return leftPreRelease ? -1 : 1;
+        }
+        return leftPreRelease
+               ? compareIdentifiers(leftParts[1].split("\\."), rightParts[1].split("\\."), false)
+               : 0;
+    }
+
+    private static String stripBuild(String version) {
+        int build = version.indexOf('+');
+        return (build < 0 ? version : version.substring(0, build)).trim();
+    }
+
+    /**
+     * In the version core a missing identifier counts as 0; in a pre-release the shorter list comes first.
+     */
+    private static int compareIdentifiers(String[] left, String[] right, boolean padWithZero) {
+        for (int i = 0; i < Math.max(left.length, right.length); i++) {
+            if (!padWithZero && (i >= left.length || i >= right.length)) {
+                return Integer.compare(left.length, right.length);
+            }
+
+            int result = compareIdentifier(i < left.length ? left[i] : "0", i < right.length ? right[i] : "0");
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private static int compareIdentifier(String left, String right) {
+        boolean leftNumeric = isNumeric(left);
+        boolean rightNumeric = isNumeric(right);
+        if (leftNumeric && rightNumeric) {
+            String leftDigits = stripLeadingZeros(left);
+            String rightDigits = stripLeadingZeros(right);
+            return leftDigits.length() != rightDigits.length()
+                   ? Integer.compare(leftDigits.length(), rightDigits.length())
+                   : leftDigits.compareTo(rightDigits);
+        }
+        if (leftNumeric != rightNumeric) {
+            return leftNumeric ? -1 : 1;
+        }
+        return left.compareTo(right);
+    }
+
+    private static boolean isNumeric(String identifier) {
+        if (identifier.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < identifier.length(); i++) {
+            if (!Character.isDigit(identifier.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String stripLeadingZeros(String digits) {
+        int start = 0;
+        while (start < digits.length() - 1 && digits.charAt(start) == '0') {
+            start++;
+        }
+        return digits.substring(start);
+    }
+
+}
@@ -25,11 +25,22 @@
 
 package com.jcalvopinam.verticle;
 
+import com.jcalvopinam.logging.AccessLogHandler;
+import com.jcalvopinam.metrics.Metrics;
+import com.jcalvopinam.metrics.RouteMetricsHandler;
+import com.jcalvopinam.repository.ReleaseCache;
 import com.jcalvopinam.repository.reactivex.ReleaseRepository;
 import com.jcalvopinam.service.HttpService;
 import com.jcalvopinam.service.HttpServiceImpl;
+import com.jcalvopinam.tracing.TracingHandler;
 import com.jcalvopinam.utils.Constants;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.net.JksOptions;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.micrometer.PrometheusScrapingHandler;
 import io.vertx.reactivex.core.AbstractVerticle;
 import io.vertx.reactivex.ext.web.Router;
 import io.vertx.reactivex.ext.web.handler.BodyHandler;
@@ -39,6 +50,8 @@ import io.vertx.reactivex.ext.web.sstore.LocalSessionStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author Juan Calvopina
  */
@@ -48,30 +61,89 @@ public class HttpServerVerticle extends AbstractVerticle {
 
     private static final String API_RELEASES = "/api/releases";
     private static final String API_RELEASES_ID = "/api/releases/:id";
+    private static final String API_RELEASES_CONTENT = "/api/releases/:id/content";
+    private static final String API_RELEASES_BULK = "/api/releases/_bulk";
+    private static final String API_RELEASES_SEARCH = "/api/releases/search";
+    private static final String API_APPLICATIONS = "/api/applications";
+    private static final String API_APPLICATION_RELEASES = "/api/applications/:name/releases";
+    private static final String API_APPLICATION_LATEST = "/api/applications/:name/latest";
+    private static final String METRICS = "/metrics";
 
     @Override
     public void start(Future<Void> startFuture) throws Exception {
         String serviceAddress = config()
                 .getString(Constants.RELEASE_SERVICE_ADDRESS, Constants.RELEASE_SERVICE_ADDRESS);
         ReleaseRepository dbService = com.jcalvopinam.repository.ReleaseRepository
-                .createProxy(vertx.getDelegate(), serviceAddress);
-        Router router = initRouter(new HttpServiceImpl(dbService));
+                .createProxy(vertx.getDelegate(), serviceAddress, config());
+        Router router = initRouter(new HttpServiceImpl(vertx, dbService, responseCache(), config()));
         initHttpServer(startFuture, router);
     }
 
+    /**
+     * The cache is shared by the instances of this verticle, which invalidate it when they write to a release. In a
+     * cluster the writes made through the other Vert.x instances are received from the event bus.
+     */
+    private ReleaseCache responseCache() {
+        int maxSize = config().getInteger(Constants.CONFIG_RESPONSE_CACHE_MAX_SIZE,
+                                          Constants.DEFAULT_RESPONSE_CACHE_MAX_SIZE);
+        if (maxSize <= 0) {
+            return null;
+        }
+
+        int ttlSeconds = config().getInteger(Constants.CONFIG_RESPONSE_CACHE_TTL_SECONDS,
+                                             Constants.DEFAULT_RESPONSE_CACHE_TTL_SECONDS);
+        LocalMap<String, ReleaseCache> caches = vertx.getDelegate().sharedData()
+                                                     .getLocalMap(Constants.RELEASE_RESPONSE_CACHE);
+        caches.putIfAbsent(Constants.RELEASE_RESPONSE_CACHE, new ReleaseCache(maxSize, ttlSeconds));
+        ReleaseCache cache = caches.get(Constants.RELEASE_RESPONSE_CACHE);
+        Metrics.registry().ifPresent(registry -> Metrics.bindCache(registry, Constants.CACHE_RESPONSE, cache));
+
+        vertx.setPeriodic(TimeUnit.SECONDS.toMillis(ttlSeconds), id -> cache.evictExpired());
+        if (vertx.isClustered()) {
+            vertx.eventBus().<Integer>consumer(Constants.RELEASE_CHANGES_ADDRESS,
+                                               message -> cache.invalidate(message.body(),
+                                                                           Constants.RELEASES_VERSION));
+        }
+        return cache;
+    }
+
     private Router initRouter(HttpService httpService) {
         Router router = Router.router(vertx);
+        if (config().getBoolean(Constants.CONFIG_ACCESS_LOG_ENABLED, true)) {
+            router.route().handler(new AccessLogHandler());
+        }
+        boolean tracing = config().getBoolean(Constants.CONFIG_TRACING_ENABLED, false);
+        if (tracing) {
+            router.route().handler(new TracingHandler());
+        }
+        Metrics.registry().ifPresent(registry -> {
+            router.route().handler(new RouteMetricsHandler(registry));
+            if (registry instanceof PrometheusMeterRegistry) {
+                Handler<io.vertx.ext.web.RoutingContext> scrapingHandler = PrometheusScrapingHandler.create();
+                router.get(METRICS).handler(context -> scrapingHandler.handle(context.getDelegate()));
+            }
+        });
+
         router.route()
               .handler(CookieHandler.create())
               .handler(BodyHandler.create())
               .handler(SessionHandler.create(LocalSessionStore.create(vertx)));
+        if (tracing) {
+            router.route().handler(TracingHandler::dispatch);
+        }
 
         router.get("/").handler(context -> context.reroute(API_RELEASES));
         router.get(API_RELEASES).handler(httpService::getAllReleases);
+        router.get(API_RELEASES_SEARCH).handler(httpService::searchReleases);
         router.get(API_RELEASES_ID).handler(httpService::getReleaseById);
+        router.get(API_RELEASES_CONTENT).handler(httpService::getReleaseContent);
+        router.get(API_APPLICATIONS).handler(httpService::getApplications);
+        router.get(API_APPLICATION_RELEASES).handler(httpService::getApplicationReleases);
+        router.get(API_APPLICATION_LATEST).handler(httpService::getLatestRelease);
 
         router.post().handler(BodyHandler.create());
         router.post(API_RELEASES).handler(httpService::saveRelease);
+        router.post(API_RELEASES_BULK).handler(httpService::saveReleases);
 
         router.put().handler(BodyHandler.create());
         router.put(API_RELEASES_ID).handler(httpService::updateRelease);
@@ -83,7 +155,7 @@ public class HttpServerVerticle extends AbstractVerticle {
     private void initHttpServer(Future<Void> startFuture, Router router) {
         int portNumber = config().getInteger(Constants.CONFIG_HTTP_PORT, Constants.DEFAULT_PORT);
 
-        vertx.createHttpServer()
+        vertx.createHttpServer(httpServerOptions())
              .requestHandler(router)
              .rxListen(portNumber)
              .subscribe(s -> {
@@ -95,4 +167,25 @@ public class HttpServerVerticle extends AbstractVerticle {
              });
     }
 
+    /**
+     * Compression is negotiated through Accept-Encoding (gzip or deflate) on both HTTP/1.1 and HTTP/2. HTTP/2 over
+     * clear text (h2c upgrade and prior knowledge) is always accepted; when a key store is configured the server
+     * switches to TLS and offers HTTP/2 through ALPN.
+     */
+    private HttpServerOptions httpServerOptions() {
+        HttpServerOptions options = new HttpServerOptions()
+                .setCompressionSupported(config().getBoolean(Constants.CONFIG_COMPRESSION_ENABLED, true))
+                .setCompressionLevel(config().getInteger(Constants.CONFIG_COMPRESSION_LEVEL,
+                                                         Constants.DEFAULT_COMPRESSION_LEVEL));
+
+        String keyStorePath = config().getString(Constants.CONFIG_SSL_KEYSTORE_PATH);
+        if (keyStorePath != null) {
+            String keyStorePassword = config().getString(Constants.CONFIG_SSL_KEYSTORE_PASSWORD);
+            options.setSsl(true)
+                   .setKeyStoreOptions(new JksOptions().setPath(keyStorePath).setPassword(keyStorePassword))
+                   .setUseAlpn(config().getBoolean(Constants.CONFIG_SSL_ALPN, true));
+        }
+        return options;
+    }
+
 }
@@ -25,58 +25,271 @@
 
 package com.jcalvopinam.verticle;
 
+import com.jcalvopinam.metrics.Metrics;
+import com.jcalvopinam.repository.LocalReleaseRepositories;
+import com.jcalvopinam.repository.ReleaseCache;
+import com.jcalvopinam.repository.ReleaseReadModel;
 import com.jcalvopinam.repository.ReleaseRepository;
+import com.jcalvopinam.repository.ReleaseSearchIndex;
+import com.jcalvopinam.repository.SegmentLog;
+import com.jcalvopinam.repository.VirtualThreadSqlExecutor;
+import com.jcalvopinam.tracing.Tracing;
 import com.jcalvopinam.utils.Constants;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Future;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
 import io.vertx.ext.jdbc.JDBCClient;
 import io.vertx.serviceproxy.ServiceBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Binds the release repository to the event bus. Several instances of this verticle may be deployed, see
+ * {@code db.instances}, and the state behind the repository is shared by all of them through local maps: the virtual
+ * thread executor, the read model, the segment log, the search index and the cache. The first instance to start
+ * opens, loads or recovers each of them, the others use it as it is. The executor and the log count their users and
+ * are closed when the last instance stops.
+ *
  * @author Juan Calvopina
  */
 public class ReleaseDBVerticle extends AbstractVerticle {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReleaseDBVerticle.class);
+
     private static final String JDBC_URL = "jdbc.url";
     private static final String JDBC_DRIVER_CLASS = "jdbc.driver.class";
-    private static final String JDBC_MAX_POOL_SIZE = "jdbc.max.pool.size";
+
+    private ReleaseRepository repository;
+    private SegmentLog segmentLog;
+    private VirtualThreadSqlExecutor sqlExecutor;
 
     @Override
     public void start(Future<Void> startFuture) throws Exception {
-        connectToDatabase(startFuture, loadSqlQueries());
+        if (Constants.STORAGE_SEGMENT_LOG.equals(config().getString(Constants.CONFIG_REPOSITORY_STORAGE,
+                                                                    Constants.STORAGE_JDBC))) {
+            openSegmentLog(startFuture);
+        } else {
+            connectToDatabase(startFuture, loadSqlQueries());
+        }
+    }
+
+    @Override
+    public void stop(Future<Void> stopFuture) throws Exception {
+        if (repository != null) {
+            LocalReleaseRepositories.unregister(vertx, Constants.RELEASE_SERVICE_ADDRESS, repository);
+        }
+        if (segmentLog != null || sqlExecutor != null) {
+            vertx.executeBlocking(future -> {
+                try {
+                    if (segmentLog != null) {
+                        segmentLog.release();
+                    }
+                    if (sqlExecutor != null) {
+                        sqlExecutor.release();
+                    }
+                    future.complete();
+                } catch (Exception e) {
+                    future.fail(e);
+                }
+            }, stopFuture);
+        } else {
+            stopFuture.complete();
+        }
     }
 
     private void connectToDatabase(Future<Void> startFuture, Map<String, String> sqlQueries) {
-        JDBCClient dbClient = JDBCClient.createShared(vertx, new JsonObject()
+        JsonObject jdbcConfig = new JsonObject()
                 .put("url", config().getString(JDBC_URL))
                 .put("driver_class", config().getString(JDBC_DRIVER_CLASS))
-                .put("max_pool_size", config().getInteger(JDBC_MAX_POOL_SIZE)));
+                .put("max_pool_size", config().getInteger(Constants.CONFIG_JDBC_MAX_POOL_SIZE));
+        Metrics.registry().ifPresent(Metrics::bindJdbcPool);
+
+        Future<ReleaseRepository> ready = Future.future();
+        if (Constants.EXECUTION_VIRTUAL_THREADS.equals(config().getString(Constants.CONFIG_DB_EXECUTION_MODE,
+                                                                          Constants.EXECUTION_WORKER))) {
+            openVirtualThreadExecutor(jdbcConfig).setHandler(opened -> {
+                if (opened.succeeded()) {
+                    VirtualThreadSqlExecutor executor = opened.result();
+                    ReleaseRepository.create(vertx, JDBCClient.create(vertx, executor.dataSource()), executor,
+                                             sqlQueries, config(), ready);
+                } else {
+                    ready.fail(opened.cause());
+                }
+            });
+        } else {
+            ReleaseRepository.create(vertx, JDBCClient.createShared(vertx, jdbcConfig), sqlQueries, config(), ready);
+        }
+        register(startFuture, ready.compose(this::withReadModel));
+    }
+
+    /**
+     * Opens the executor and its connection pool for the JDBC url. Fails on Java versions without virtual threads.
+     */
+    private Future<VirtualThreadSqlExecutor> openVirtualThreadExecutor(JsonObject jdbcConfig) {
+        LocalMap<String, VirtualThreadSqlExecutor> executors = vertx.sharedData()
+                                                                    .getLocalMap(Constants.RELEASE_SQL_EXECUTOR);
+        executors.putIfAbsent(jdbcConfig.getString("url"), new VirtualThreadSqlExecutor(jdbcConfig));
+        VirtualThreadSqlExecutor executor = executors.get(jdbcConfig.getString("url"));
+
+        Future<VirtualThreadSqlExecutor> opened = Future.future();
+        vertx.<VirtualThreadSqlExecutor>executeBlocking(future -> {
+            try {
+                executor.acquire();
+                future.complete(executor);
+            } catch (Exception e) {
+                future.fail(e);
+            }
+        }, opened);
+        return opened.map(acquired -> sqlExecutor = acquired);
+    }
+
+    /**
+     * Until the model is loaded the reads go to the database.
+     */
+    private Future<ReleaseRepository> withReadModel(ReleaseRepository repository) {
+        if (!config().getBoolean(Constants.CONFIG_READ_MODEL_ENABLED, true)) {
+            return Future.succeededFuture(repository);
+        }
+
+        long maxBytes = config().getLong(Constants.CONFIG_READ_MODEL_MAX_BYTES, Constants.DEFAULT_READ_MODEL_MAX_BYTES);
+        LocalMap<String, ReleaseReadModel> models = vertx.sharedData().getLocalMap(Constants.RELEASE_READ_MODEL);
+        models.putIfAbsent(Constants.RELEASE_READ_MODEL, new ReleaseReadModel(maxBytes));
+        ReleaseReadModel model = models.get(Constants.RELEASE_READ_MODEL);
+        Metrics.registry().ifPresent(registry -> Metrics.bindReadModel(registry, model));
 
-        ReleaseRepository.create(dbClient, sqlQueries, ready -> {
-            if (ready.succeeded()) {
+        Future<ReleaseRepository> loaded = Future.future();
+        ReleaseRepository.createReadModel(vertx, repository, model, loaded);
+        return loaded;
+    }
+
+    /**
+     * Every instance syncs and compacts the log periodically, both are skipped when there is nothing to do.
+     */
+    private void openSegmentLog(Future<Void> startFuture) {
+        String directory = config().getString(Constants.CONFIG_SEGMENT_LOG_DIRECTORY,
+                                              Constants.DEFAULT_SEGMENT_LOG_DIRECTORY);
+        int segmentSize = config().getInteger(Constants.CONFIG_SEGMENT_LOG_SEGMENT_SIZE,
+                                              Constants.DEFAULT_SEGMENT_LOG_SEGMENT_SIZE);
+        LocalMap<String, SegmentLog> logs = vertx.sharedData().getLocalMap(Constants.RELEASE_SEGMENT_LOG);
+        logs.putIfAbsent(directory, new SegmentLog(Paths.get(directory), segmentSize));
+        SegmentLog log = logs.get(directory);
+
+        Future<ReleaseRepository> ready = Future.future();
+        vertx.<ReleaseRepository>executeBlocking(future -> {
+            try {
+                log.acquire();
+                future.complete(ReleaseRepository.createSegmentLog(vertx, log));
+            } catch (Exception e) {
+                future.fail(e);
+            }
+        }, ready);
+        register(startFuture, ready.map(created -> {
+            segmentLog = log;
+            scheduleMaintenance(log);
+            return created;
+        }));
+    }
+
+    private void scheduleMaintenance(SegmentLog log) {
+        double compactionRatio = config().getDouble(Constants.CONFIG_SEGMENT_LOG_COMPACTION_RATIO,
+                                                    Constants.DEFAULT_SEGMENT_LOG_COMPACTION_RATIO);
+        vertx.setPeriodic(config().getLong(Constants.CONFIG_SEGMENT_LOG_SYNC_INTERVAL_MS,
+                                           Constants.DEFAULT_SEGMENT_LOG_SYNC_INTERVAL_MS),
+                          id -> vertx.executeBlocking(future -> {
+                              log.sync();
+                              future.complete();
+                          }, false, null));
+        vertx.setPeriodic(config().getLong(Constants.CONFIG_SEGMENT_LOG_COMPACTION_INTERVAL_MS,
+                                           Constants.DEFAULT_SEGMENT_LOG_COMPACTION_INTERVAL_MS),
+                          id -> vertx.executeBlocking(future -> {
+                              try {
+                                  if (log.needsCompaction(compactionRatio)) {
+                                      log.compact();
+                                  }
+                                  future.complete();
+                              } catch (Exception e) {
+                                  future.fail(e);
+                              }
+                          }, false, compacted -> {
+                              if (compacted.failed()) {
+                                  LOGGER.error("Segment log compaction failed", compacted.cause());
+                              }
+                          }));
+    }
+
+    private void register(Future<Void> startFuture, Future<ReleaseRepository> ready) {
+        ready.compose(created -> {
+            Future<ReleaseRepository> indexed = Future.future();
+            ReleaseRepository.createIndexed(withCache(created), searchIndex(), indexed);
+            return indexed;
+        }).setHandler(indexed -> {
+            if (indexed.succeeded()) {
                 ServiceBinder binder = new ServiceBinder(vertx);
-                binder.setAddress(Constants.RELEASE_SERVICE_ADDRESS).register(ReleaseRepository.class, ready.result());
+                if (config().getBoolean(Constants.CONFIG_TRACING_ENABLED, false)) {
+                    repository = ReleaseRepository.createTraced(indexed.result());
+                    binder.addInterceptor(Tracing.serviceInterceptor());
+                } else {
+                    repository = indexed.result();
+                }
+                binder.setAddress(Constants.RELEASE_SERVICE_ADDRESS).register(ReleaseRepository.class, repository);
+                LocalReleaseRepositories.register(vertx, Constants.RELEASE_SERVICE_ADDRESS, repository);
                 startFuture.complete();
             } else {
-                startFuture.fail(ready.cause());
+                startFuture.fail(indexed.cause());
             }
         });
     }
 
+    private ReleaseSearchIndex searchIndex() {
+        LocalMap<String, ReleaseSearchIndex> indexes = vertx.sharedData().getLocalMap(Constants.RELEASE_SEARCH_INDEX);
+        indexes.putIfAbsent(Constants.RELEASE_SEARCH_INDEX, new ReleaseSearchIndex());
+        return indexes.get(Constants.RELEASE_SEARCH_INDEX);
+    }
+
+    private ReleaseRepository withCache(ReleaseRepository repository) {
+        int maxSize = config().getInteger(Constants.CONFIG_CACHE_MAX_SIZE, 0);
+        if (maxSize <= 0) {
+            return repository;
+        }
+
+        int ttlSeconds = config().getInteger(Constants.CONFIG_CACHE_TTL_SECONDS, Constants.DEFAULT_CACHE_TTL_SECONDS);
+        LocalMap<String, ReleaseCache> caches = vertx.sharedData().getLocalMap(Constants.RELEASE_CACHE);
+        caches.putIfAbsent(Constants.RELEASE_CACHE, new ReleaseCache(maxSize, ttlSeconds));
+        ReleaseCache cache = caches.get(Constants.RELEASE_CACHE);
+        Metrics.registry().ifPresent(registry -> Metrics.bindCache(registry, Constants.CACHE_REPOSITORY, cache));
+
+        vertx.setPeriodic(TimeUnit.SECONDS.toMillis(ttlSeconds), id -> cache.evictExpired());
+        return ReleaseRepository.createCached(repository, cache);
+    }
+
     private Map<String, String> loadSqlQueries() {
         HashMap<String, String> sqlQueries = new HashMap<>();
         sqlQueries.put(Constants.CREATE_RELEASE_TABLE, config().getString(Constants.CREATE_RELEASE_TABLE));
+        sqlQueries.put(Constants.CREATE_RELEASE_INDEX, config().getString(Constants.CREATE_RELEASE_INDEX));
+        sqlQueries.put(Constants.GET_RELEASE_COLUMNS, config().getString(Constants.GET_RELEASE_COLUMNS));
+        sqlQueries.put(Constants.ADD_REVISION_COLUMN, config().getString(Constants.ADD_REVISION_COLUMN));
+        sqlQueries.put(Constants.ADD_LAST_MODIFIED_COLUMN, config().getString(Constants.ADD_LAST_MODIFIED_COLUMN));
+        sqlQueries.put(Constants.WIDEN_VERSION_COLUMN, config().getString(Constants.WIDEN_VERSION_COLUMN));
         sqlQueries.put(Constants.GET_APPLICATION_NAME, config().getString(Constants.GET_APPLICATION_NAME));
         sqlQueries.put(Constants.GET_ID_AND_APP_NAME, config().getString(Constants.GET_ID_AND_APP_NAME));
+        sqlQueries.put(Constants.GET_APPLICATION_RELEASES, config().getString(Constants.GET_APPLICATION_RELEASES));
         sqlQueries.put(Constants.INSERT_RELEASE, config().getString(Constants.INSERT_RELEASE));
         sqlQueries.put(Constants.UPDATE_RELEASE, config().getString(Constants.UPDATE_RELEASE));
         sqlQueries.put(Constants.DELETE_RELEASE, config().getString(Constants.DELETE_RELEASE));
         sqlQueries.put(Constants.GET_ALL_RELEASE, config().getString(Constants.GET_ALL_RELEASE));
+        sqlQueries.put(Constants.GET_RELEASES_PAGE, config().getString(Constants.GET_RELEASES_PAGE));
+        sqlQueries.put(Constants.GET_RELEASE_FIELDS_PAGE, config().getString(Constants.GET_RELEASE_FIELDS_PAGE));
+        sqlQueries.put(Constants.GET_RELEASE_CONTENT, config().getString(Constants.GET_RELEASE_CONTENT));
         sqlQueries.put(Constants.GET_RELEASE_BY_ID, config().getString(Constants.GET_RELEASE_BY_ID));
+        sqlQueries.put(Constants.GET_RELEASES_BY_IDS, config().getString(Constants.GET_RELEASES_BY_IDS));
+        sqlQueries.put(Constants.GET_RELEASE_VERSION, config().getString(Constants.GET_RELEASE_VERSION));
+        sqlQueries.put(Constants.GET_RELEASES_VERSION, config().getString(Constants.GET_RELEASES_VERSION));
         return sqlQueries;
     }
 
@@ -0,0 +1,167 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.utils.Constants;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks that {@link CoalescingReleaseRepository} shares reads in flight, across the proxies of a Vert.x instance,
+ * without serving a read issued after a write with data read before it. The delegates hold the reads until the test
+ * completes them.
+ *
+ * @author Juan Calvopina
+ */
+public class CoalescingReleaseRepositoryTest {
+
+    private static final int ID = 1;
+    private static final long AWAIT_SECONDS = 5;
+
+    private final List<Handler<AsyncResult<Release>>> pendingReads = new CopyOnWriteArrayList<>();
+    private CoalescingReleaseRepository.ReadsInFlight reads;
+    private ReleaseRepository repository;
+
+    @Before
+    public void prepare() {
+        reads = new CoalescingReleaseRepository.ReadsInFlight();
+        repository = new CoalescingReleaseRepository(delegate(), reads);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ReleaseRepository delegate() {
+        return (ReleaseRepository) Proxy.newProxyInstance(
+                ReleaseRepository.class.getClassLoader(), new Class<?>[]{ReleaseRepository.class},
+                (instance, method, args) -> {
+                    Handler<AsyncResult<Object>> handler = (Handler<AsyncResult<Object>>) args[args.length - 1];
+                    switch (method.getName()) {
+                        case "fetchReleaseById":
+                            pendingReads.add((Handler<AsyncResult<Release>>) (Handler<?>) handler);
+                            break;
+                        case "updateRelease":
+                            handler.handle(Future.succeededFuture(1));
+                            break;
+                        default:
+                            handler.handle(Future.failedFuture(new UnsupportedOperationException(method.getName())));
+                    }
+                    return instance;
+                });
+    }
+
+    @Test
+    public void testConcurrentReadsShareOneCall() {
+        List<Release> results = new ArrayList<>();
+        repository.fetchReleaseById(ID, ar -> results.add(ar.result()));
+        repository.fetchReleaseById(ID, ar -> results.add(ar.result()));
+        Assert.assertEquals(1, pendingReads.size());
+
+        pendingReads.get(0).handle(Future.succeededFuture(release("Before")));
+        Assert.assertEquals(2, results.size());
+        Assert.assertSame(results.get(0), results.get(1));
+    }
+
+    @Test
+    public void testReadAfterWriteDoesNotJoinOlderRead() {
+        List<Release> slowRead = new ArrayList<>();
+        List<Release> readAfterWrite = new ArrayList<>();
+        repository.fetchReleaseById(ID, ar -> slowRead.add(ar.result()));
+        repository.updateRelease(ID, "After",
+                                 ar -> repository.fetchReleaseById(ID, read -> readAfterWrite.add(read.result())));
+        Assert.assertEquals(1, reads.writes());
+        Assert.assertEquals(2, pendingReads.size());
+
+        pendingReads.get(0).handle(Future.succeededFuture(release("Before")));
+        Assert.assertEquals("Before", slowRead.get(0).getContent());
+        Assert.assertTrue(readAfterWrite.isEmpty());
+
+        pendingReads.get(1).handle(Future.succeededFuture(release("After")));
+        Assert.assertEquals("After", readAfterWrite.get(0).getContent());
+
+        repository.fetchReleaseById(ID, ar -> {
+        });
+        Assert.assertEquals("A completed read is not reused", 3, pendingReads.size());
+    }
+
+    @Test
+    public void testProxiesOfTheSameVertxShareOneCall() throws InterruptedException {
+        Vertx vertx = Vertx.vertx();
+        try {
+            CoalescingReleaseRepository.ReadsInFlight shared = CoalescingReleaseRepository.ReadsInFlight
+                    .of(vertx, Constants.RELEASE_SERVICE_ADDRESS);
+            Assert.assertSame(shared, CoalescingReleaseRepository.ReadsInFlight
+                    .of(vertx, Constants.RELEASE_SERVICE_ADDRESS));
+
+            List<Context> contexts = Arrays.asList(vertx.getOrCreateContext(), vertx.getOrCreateContext());
+            CountDownLatch called = new CountDownLatch(contexts.size());
+            CountDownLatch completed = new CountDownLatch(contexts.size());
+            List<String> results = new CopyOnWriteArrayList<>();
+            for (Context context : contexts) {
+                ReleaseRepository proxy = new CoalescingReleaseRepository(delegate(), shared);
+                context.runOnContext(v -> {
+                    proxy.fetchReleaseById(ID, ar -> {
+                        if (Vertx.currentContext() == context) {
+                            results.add(ar.result().getContent());
+                        }
+                        completed.countDown();
+                    });
+                    called.countDown();
+                });
+            }
+            Assert.assertTrue(called.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+            Assert.assertEquals(1, pendingReads.size());
+
+            pendingReads.get(0).handle(Future.succeededFuture(release("Shared")));
+            Assert.assertTrue(completed.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+            Assert.assertEquals("Each caller gets the result on its own context",
+                                Arrays.asList("Shared", "Shared"), results);
+        } finally {
+            vertx.close();
+        }
+    }
+
+    private static Release release(String content) {
+        Release release = new Release();
+        release.setId(ID);
+        release.setContent(content);
+        return release;
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Checks how {@link IndexedReleaseRepository} fills the shared index and keeps track of the releases it failed to
+ * index. The delegate answers from a map standing for the table, its reads fail while {@code failReads} is set and it
+ * fails the other calls.
+ *
+ * @author Juan Calvopina
+ */
+public class IndexedReleaseRepositoryTest {
+
+    private final TreeMap<Integer, Release> table = new TreeMap<>();
+    private ReleaseSearchIndex index;
+    private ReleaseRepository delegate;
+    private ReleaseRepository repository;
+    private boolean failReads;
+    private int pagesRead;
+    private int batchesRead;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void prepare() {
+        table.put(0, release(0, "first"));
+        delegate = (ReleaseRepository) Proxy.newProxyInstance(
+                ReleaseRepository.class.getClassLoader(), new Class<?>[]{ReleaseRepository.class},
+                (instance, method, args) -> {
+                    Handler<AsyncResult<Object>> handler = (Handler<AsyncResult<Object>>) args[args.length - 1];
+                    if (failReads && method.getName().startsWith("fetch")) {
+                        handler.handle(Future.failedFuture(new IllegalStateException("Connection lost")));
+                        return instance;
+                    }
+                    switch (method.getName()) {
+                        case "fetchReleasesPage":
+                            pagesRead++;
+                            handler.handle(Future.succeededFuture(new ArrayList<>(
+                                    table.tailMap((Integer) args[0], false).values())));
+                            break;
+                        case "fetchReleaseById":
+                            handler.handle(Future.succeededFuture(table.get((Integer) args[0])));
+                            break;
+                        case "fetchReleasesByIds":
+                            batchesRead++;
+                            List<Release> found = new ArrayList<>();
+                            table.descendingMap().forEach((key, release) -> {
+                                if (((List<?>) args[0]).contains(key)) {
+                                    found.add(release);
+                                }
+                            });
+                            handler.handle(Future.succeededFuture(found));
+                            break;
+                        case "insertRelease":
+                            int id = table.lastKey() + 1;
+                            table.put(id, release(id, (String) args[2]));
+                            handler.handle(Future.succeededFuture());
+                            break;
+                        case "updateRelease":
+                            table.put((Integer) args[0], release((Integer) args[0], (String) args[1]));
+                            handler.handle(Future.succeededFuture(1));
+                            break;
+                        default:
+                            handler.handle(Future.failedFuture(new UnsupportedOperationException(method.getName())));
+                    }
+                    return instance;
+                });
+        index = new ReleaseSearchIndex();
+        new IndexedReleaseRepository(delegate, index, ar -> repository = ar.result());
+        Assert.assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testFailedReadBackIsLeftOutOfTheIndex() {
+        failReads = true;
+        repository.updateRelease(0, "second", ar -> Assert.assertTrue(ar.succeeded()));
+        Assert.assertEquals("The old content is not searchable", Collections.emptyList(), index.search("first", 10));
+    }
+
+    @Test
+    public void testFailedScanIsRetriedByTheNextInsert() {
+        failReads = true;
+        repository.insertRelease("Test", "2", "second", null, ar -> Assert.assertTrue(ar.succeeded()));
+        Assert.assertEquals(0, index.scanStart());
+
+        failReads = false;
+        repository.insertRelease("Test", "3", "third", null, ar -> Assert.assertTrue(ar.succeeded()));
+        Assert.assertEquals(Collections.singletonList(1), index.search("second", 10));
+        Assert.assertEquals(Collections.singletonList(2), index.search("third", 10));
+        Assert.assertEquals(2, index.scanStart());
+    }
+
+    @Test
+    public void testOnlyTheFirstInstanceLoadsTheSharedIndex() {
+        Assert.assertEquals(1, pagesRead);
+        List<ReleaseRepository> ready = new ArrayList<>();
+        new IndexedReleaseRepository(delegate, index, ar -> ready.add(ar.result()));
+        Assert.assertEquals("The second instance is ready at once", 1, ready.size());
+        Assert.assertEquals("The second instance does not read the table", 1, pagesRead);
+    }
+
+    @Test
+    public void testSearchFetchesTheReleasesFoundInOneCall() {
+        repository.insertRelease("Test", "2", "deploy", null, ar -> Assert.assertTrue(ar.succeeded()));
+        repository.insertRelease("Test", "3", "deploy deploy deploy", null, ar -> Assert.assertTrue(ar.succeeded()));
+        repository.insertRelease("Test", "4", "deploy deploy", null, ar -> Assert.assertTrue(ar.succeeded()));
+        table.remove(3);
+        Assert.assertEquals(Arrays.asList(2, 3, 1), index.search("deploy", 10));
+
+        List<Integer> found = new ArrayList<>();
+        repository.searchReleases("deploy", 10, ar -> ar.result().forEach(release -> found.add(release.getId())));
+        Assert.assertEquals(1, batchesRead);
+        Assert.assertEquals("Best match first, the deleted release is skipped", Arrays.asList(2, 1), found);
+    }
+
+    private static Release release(int id, String content) {
+        return Release.of(id, "Test", "1.0.0", content, "2019-01-01");
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Checks how {@link ReadModelReleaseRepository} keeps its model in step with the writes. The delegate answers from a
+ * map standing for the table, its reads by id fail while {@code failReads} is set and it fails the other calls.
+ *
+ * @author Juan Calvopina
+ */
+public class ReadModelReleaseRepositoryTest {
+
+    private static final int ID = 0;
+
+    private final TreeMap<Integer, Release> table = new TreeMap<>();
+    private ReleaseReadModel model;
+    private ReleaseRepository repository;
+    private boolean failReads;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void prepare() {
+        table.put(ID, release(0, "Before"));
+        ReleaseRepository delegate = (ReleaseRepository) Proxy.newProxyInstance(
+                ReleaseRepository.class.getClassLoader(), new Class<?>[]{ReleaseRepository.class},
+                (instance, method, args) -> {
+                    Handler<AsyncResult<Object>> handler = (Handler<AsyncResult<Object>>) args[args.length - 1];
+                    switch (method.getName()) {
+                        case "fetchReleasesPage":
+                            handler.handle(Future.succeededFuture(new ArrayList<>(
+                                    table.tailMap((Integer) args[0], false).values())));
+                            break;
+                        case "fetchReleaseById":
+                            handler.handle(failReads
+                                           ? Future.failedFuture(new IllegalStateException("Connection lost"))
+                                           : Future.succeededFuture(table.get((Integer) args[0])));
+                            break;
+                        case "updateRelease":
+                            Release current = table.get((Integer) args[0]);
+                            table.put(ID, release(current.getRevision() + 1, (String) args[1]));
+                            handler.handle(Future.succeededFuture(1));
+                            break;
+                        default:
+                            handler.handle(Future.failedFuture(new UnsupportedOperationException(method.getName())));
+                    }
+                    return instance;
+                });
+        model = new ReleaseReadModel(Long.MAX_VALUE);
+        new ReadModelReleaseRepository(null, delegate, model, ar -> repository = ar.result());
+        Assert.assertTrue(model.isServing());
+    }
+
+    @Test
+    public void testFailedReadBackIsReadFromTheDatabase() {
+        failReads = true;
+        repository.updateRelease(ID, "After", ar -> Assert.assertEquals(1, (int) ar.result()));
+        Assert.assertFalse("A stale release is not answered", model.answers(ID));
+        Assert.assertFalse("Nor are the listings", model.isServing());
+
+        repository.fetchAllReleases(ar -> Assert.assertTrue("The listing goes to the delegate", ar.failed()));
+
+        failReads = false;
+        List<String> contents = new ArrayList<>();
+        repository.fetchReleaseById(ID, ar -> contents.add(ar.result().getContent()));
+        Assert.assertEquals("After", contents.get(0));
+        Assert.assertTrue("Reading the release refreshes it", model.isServing());
+        Assert.assertEquals("After", model.get(ID).getContent());
+    }
+
+    @Test
+    public void testStaleReleaseIsNotRefreshedWithAnOlderRevision() {
+        failReads = true;
+        repository.updateRelease(ID, "After", ar -> {
+        });
+
+        model.put(release(0, "Before"));
+        Assert.assertTrue(model.isStale(ID));
+        model.put(release(1, "After"));
+        Assert.assertFalse(model.isStale(ID));
+        Assert.assertEquals("After", model.get(ID).getContent());
+    }
+
+    @Test
+    public void testDeletedIdsAreForgottenOnceNoReadIsInFlight() {
+        model.readStarted();
+        model.delete(ID);
+        model.put(release(0, "Before"));
+        Assert.assertNull("A read started before the delete does not add the release back", model.get(ID));
+
+        model.readEnded();
+        model.put(release(1, "After"));
+        Assert.assertEquals("The deleted id is forgotten", "After", model.get(ID).getContent());
+    }
+
+    private static Release release(int revision, String content) {
+        return Release.of(ID, "Test", "1.0.0", content, "2019-01-01", revision, 0);
+    }
+
+}
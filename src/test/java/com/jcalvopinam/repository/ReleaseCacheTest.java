@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.metrics.Metrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the hits, misses and evictions counted by {@link ReleaseCache} and their gauges.
+ *
+ * @author Juan Calvopina
+ */
+public class ReleaseCacheTest {
+
+    private static final long TTL_SECONDS = 1;
+    private static final long EXPIRED_MS = 1100;
+
+    @Test
+    public void testHitsAndMisses() {
+        ReleaseCache cache = new ReleaseCache(10, TTL_SECONDS);
+        Assert.assertNull(cache.get(1));
+        cache.put(1, "One", cache.generation());
+        Assert.assertEquals("One", cache.get(1));
+        Assert.assertEquals("One", cache.get(1));
+
+        Assert.assertEquals(2, cache.hits());
+        Assert.assertEquals(1, cache.misses());
+        Assert.assertEquals(0, cache.evictions());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        ReleaseCache cache = new ReleaseCache(2, TTL_SECONDS);
+        cache.put(1, "One", cache.generation());
+        cache.put(2, "Two", cache.generation());
+        cache.get(1);
+        cache.put(3, "Three", cache.generation());
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, cache.evictions());
+        Assert.assertNull("The least recently used entry is evicted", cache.get(2));
+        Assert.assertEquals("One", cache.get(1));
+        Assert.assertEquals("Three", cache.get(3));
+    }
+
+    @Test
+    public void testExpiredEntriesAreEvicted() throws InterruptedException {
+        ReleaseCache cache = new ReleaseCache(10, TTL_SECONDS);
+        cache.put(1, "One", cache.generation());
+        cache.put(2, "Two", cache.generation());
+        Thread.sleep(EXPIRED_MS);
+
+        Assert.assertNull(cache.get(1));
+        Assert.assertEquals(1, cache.evictions());
+        Assert.assertEquals(1, cache.misses());
+
+        cache.evictExpired();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(2, cache.evictions());
+    }
+
+    @Test
+    public void testInvalidationIsNotAnEviction() {
+        ReleaseCache cache = new ReleaseCache(10, TTL_SECONDS);
+        long generation = cache.generation();
+        cache.put(1, "One", generation);
+        cache.invalidate(1);
+        cache.put(1, "Stale", generation);
+
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.evictions());
+    }
+
+    @Test
+    public void testGauges() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        ReleaseCache cache = new ReleaseCache(1, TTL_SECONDS);
+        Metrics.bindCache(registry, "test", cache);
+        cache.get(1);
+        cache.put(1, "One", cache.generation());
+        cache.put(2, "Two", cache.generation());
+        cache.get(2);
+
+        Assert.assertEquals(1, registry.get("release.cache.size").tag("cache", "test").gauge().value(), 0);
+        Assert.assertEquals(1, registry.get("release.cache.hits").tag("cache", "test").gauge().value(), 0);
+        Assert.assertEquals(1, registry.get("release.cache.misses").tag("cache", "test").gauge().value(), 0);
+        Assert.assertEquals(1, registry.get("release.cache.evictions").tag("cache", "test").gauge().value(), 0);
+    }
+
+}
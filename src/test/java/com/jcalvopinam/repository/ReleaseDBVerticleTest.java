@@ -25,22 +25,29 @@
 
 package com.jcalvopinam.repository;
 
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.domain.ReleaseVersion;
 import com.jcalvopinam.repository.reactivex.ReleaseRepository;
 import com.jcalvopinam.utils.Constants;
 import com.jcalvopinam.verticle.ReleaseDBVerticle;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.serviceproxy.ServiceException;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * @author Juan Calvopina
@@ -48,34 +55,56 @@ import java.util.List;
 @RunWith(VertxUnitRunner.class)
 public class ReleaseDBVerticleTest {
 
-    private static final int AWAIT = 5000;
+    protected static final int AWAIT = 5000;
     private static final String CURRENT_DATE = LocalDate.now().toString();
     private static final String CURRENT_VERSION = "1";
 
-    private Vertx vertx;
-    private ReleaseRepository service;
+    protected Vertx vertx;
+    protected ReleaseRepository service;
 
     public static JsonObject getConf() {
         return new JsonObject()
                 .put("jdbc.url", "jdbc:hsqldb:mem:testdb;shutdown=true")
                 .put("jdbc.driver.class", "org.hsqldb.jdbcDriver")
                 .put("jdbc.max.pool.size", 4)
-                .put("sql.application.name.releases", "select applicationName from Release")
-                .put("sql.id.app.name.release", "select id, applicationName from Release where name = ?")
-                .put("sql.get.release.by.id", "select * from Release where id = ?")
-                .put("sql.insert.release", "insert into Release values (NULL, ?, ?, ?, ?)")
-                .put("sql.update.release", "update Release set content = ? where id = ?")
+                .put("cache.max.size", 10)
+                .put("cache.ttl.seconds", 60)
+                .put("repository.read.model.enabled", false)
+                .put("sql.application.name.releases", "select distinct applicationName from Release order by applicationName")
+                .put("sql.application.releases", "select id, applicationName, version, content, releaseDate, revision, lastModified from Release where applicationName = ?")
+                .put("sql.id.app.name.release", "select id, version from Release where applicationName = ?")
+                .put("sql.get.release.by.id", "select id, applicationName, version, content, releaseDate, revision, lastModified from Release where id = ?")
+                .put("sql.releases.by.ids", "select id, applicationName, version, content, releaseDate, revision, lastModified from Release where id in (%s)")
+                .put("sql.insert.release", "insert into Release (applicationName, version, content, releaseDate, lastModified) values (?, ?, ?, ?, ?)")
+                .put("sql.update.release", "update Release set content = ?, revision = revision + 1, lastModified = ? where id = ?")
                 .put("sql.delete.release", "delete from Release where id = ?")
-                .put("sql.all.release.data", "select * from Release")
+                .put("sql.all.release.data", "select id, applicationName, version, content, releaseDate, revision, lastModified from Release")
+                .put("sql.releases.page", "select id, applicationName, version, content, releaseDate, revision, lastModified from Release where id > ? order by id limit ?")
+                .put("sql.release.fields.page", "select %s from Release where id > ? order by id limit ?")
+                .put("sql.release.content", "select content from Release where id = ?")
+                .put("sql.create.release.index", "create index if not exists release_application_name on Release (applicationName)")
+                .put("sql.release.columns", "select column_name, character_maximum_length from information_schema.columns where table_name = 'RELEASE'")
+                .put("sql.add.release.revision", "alter table Release add column revision integer default 0 not null")
+                .put("sql.add.release.last.modified", "alter table Release add column lastModified bigint default 0 not null")
+                .put("sql.widen.release.version", "alter table Release alter column version set data type varchar(32)")
+                .put("sql.release.version", "select revision, lastModified from Release where id = ?")
+                .put("sql.releases.version", "select count(*), coalesce(max(id), -1), coalesce(sum(revision), 0) from Release")
                 .put("sql.create.release.table",
-                     "create table if not exists Release (id integer identity primary key, applicationName varchar(255), version varchar(5), content clob, releaseDate varchar(10))");
+                     "create table if not exists Release (id integer identity primary key, applicationName varchar(255), version varchar(32), content clob, releaseDate varchar(10), revision integer default 0 not null, lastModified bigint default 0 not null)");
+    }
+
+    /**
+     * Configuration the repository under test is deployed with.
+     */
+    protected JsonObject config() {
+        return getConf();
     }
 
     @Before
     public void prepare(TestContext context) {
         vertx = Vertx.vertx();
         vertx.deployVerticle(new ReleaseDBVerticle(),
-                             new DeploymentOptions().setConfig(getConf()),
+                             new DeploymentOptions().setConfig(config()),
                              context.asyncAssertSuccess(
                                      id -> service = com.jcalvopinam.repository.ReleaseRepository
                                              .createProxy(vertx, Constants.RELEASE_SERVICE_ADDRESS)));
@@ -94,7 +123,7 @@ public class ReleaseDBVerticleTest {
                               context.asyncAssertSuccess(save -> {
                                   service.fetchReleaseById(0, context.asyncAssertSuccess(getOne -> {
                                       checkInsert(context, getOne);
-                                      service.deleteRelease(getOne.getInteger(Constants.ID), deleteOne -> {
+                                      service.deleteRelease(getOne.getId(), deleteOne -> {
                                           service.fetchAllReleases(context.asyncAssertSuccess(getAllList -> {
                                               context.assertTrue(getAllList.isEmpty());
                                               async.complete();
@@ -105,6 +134,275 @@ public class ReleaseDBVerticleTest {
         async.awaitSuccess(AWAIT);
     }
 
+    @Test
+    public void testInsertReleases(TestContext context) {
+        Async async = context.async();
+
+        List<Release> releases = Arrays.asList(Release.of(0, "Test 1", CURRENT_VERSION, "Some content 1", null),
+                                               Release.of(0, "Test 2", CURRENT_VERSION, "Some content 2", null));
+
+        service.insertReleases(releases, context.asyncAssertSuccess(counts -> {
+            context.assertEquals(Arrays.asList(1, 1), counts);
+            service.fetchAllReleases(context.asyncAssertSuccess(data -> {
+                context.assertEquals(2, data.size());
+                async.complete();
+            }));
+        }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testLocalDispatch(TestContext context) {
+        Async async = context.async();
+        ReleaseRepository localService = com.jcalvopinam.repository.ReleaseRepository
+                .createProxy(vertx, Constants.RELEASE_SERVICE_ADDRESS, new JsonObject());
+
+        localService.insertRelease("Test", CURRENT_VERSION, "Some content", CURRENT_DATE,
+                                   context.asyncAssertSuccess(save -> {
+                                       localService.fetchReleaseById(0, context.asyncAssertSuccess(getOne -> {
+                                           checkInsert(context, getOne);
+                                           async.complete();
+                                       }));
+                                   }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testAdmissionControl(TestContext context) {
+        Async async = context.async(2);
+        ReleaseRepository boundedService = com.jcalvopinam.repository.ReleaseRepository
+                .createProxy(vertx, Constants.RELEASE_SERVICE_ADDRESS,
+                             new JsonObject().put(Constants.CONFIG_MAX_IN_FLIGHT, 1));
+
+        vertx.runOnContext(v -> {
+            boundedService.fetchAllReleases(context.asyncAssertSuccess(releases -> async.countDown()));
+            boundedService.fetchApplicationNames(context.asyncAssertFailure(t -> {
+                context.assertTrue(t instanceof ServiceException);
+                context.assertEquals(Constants.STATUS_CODE_SERVICE_UNAVAILABLE, ((ServiceException) t).failureCode());
+                async.countDown();
+            }));
+        });
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testCoalescedReads(TestContext context) {
+        Async async = context.async(3);
+        ReleaseRepository boundedService = com.jcalvopinam.repository.ReleaseRepository
+                .createProxy(vertx, Constants.RELEASE_SERVICE_ADDRESS,
+                             new JsonObject().put(Constants.CONFIG_MAX_IN_FLIGHT, 1));
+
+        service.insertRelease("Test", CURRENT_VERSION, "Some content", CURRENT_DATE, context.asyncAssertSuccess(v -> {
+            for (int i = 0; i < 3; i++) {
+                boundedService.fetchReleaseById(0, context.asyncAssertSuccess(release -> {
+                    checkInsert(context, release);
+                    async.countDown();
+                }));
+            }
+        }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testGroupCommit(TestContext context) {
+        Vertx groupVertx = Vertx.vertx();
+        JsonObject conf = getConf().put("jdbc.url", "jdbc:hsqldb:mem:groupdb;shutdown=true")
+                                   .put(Constants.CONFIG_GROUP_COMMIT_MAX_DELAY_MS, 50)
+                                   .put(Constants.CONFIG_GROUP_COMMIT_MAX_SIZE, 3);
+        Async deployed = context.async();
+        groupVertx.deployVerticle(new ReleaseDBVerticle(), new DeploymentOptions().setConfig(conf),
+                                  context.asyncAssertSuccess(id -> deployed.complete()));
+        deployed.awaitSuccess(AWAIT);
+
+        ReleaseRepository groupService = com.jcalvopinam.repository.ReleaseRepository
+                .createProxy(groupVertx, Constants.RELEASE_SERVICE_ADDRESS);
+        Async written = context.async(4);
+        groupService.insertRelease("Test 1", CURRENT_VERSION, "Some content", CURRENT_DATE,
+                                   context.asyncAssertSuccess(v -> written.countDown()));
+        groupService.insertRelease("Test 2", "A version much longer than the version column allows", "Some content",
+                                   CURRENT_DATE, context.asyncAssertFailure(t -> written.countDown()));
+        groupService.insertRelease("Test 3", CURRENT_VERSION, "Some content", CURRENT_DATE,
+                                   context.asyncAssertSuccess(v -> written.countDown()));
+        groupService.insertRelease("Test 4", CURRENT_VERSION, "Some content", CURRENT_DATE,
+                                   context.asyncAssertSuccess(v -> written.countDown()));
+        written.awaitSuccess(AWAIT);
+
+        Async async = context.async();
+        groupService.fetchAllReleases(context.asyncAssertSuccess(releases -> {
+            context.assertEquals(3, releases.size());
+            groupVertx.close(context.asyncAssertSuccess(v -> async.complete()));
+        }));
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testReadModel(TestContext context) {
+        Vertx modelVertx = Vertx.vertx();
+        JsonObject conf = getConf().put("jdbc.url", "jdbc:hsqldb:mem:modeldb;shutdown=true")
+                                   .put(Constants.CONFIG_READ_MODEL_ENABLED, true)
+                                   .put(Constants.CONFIG_READ_MODEL_MAX_BYTES, 1000);
+        Async deployed = context.async();
+        modelVertx.deployVerticle(new ReleaseDBVerticle(), new DeploymentOptions().setConfig(conf),
+                                  context.asyncAssertSuccess(id -> deployed.complete()));
+        deployed.awaitSuccess(AWAIT);
+
+        ReleaseRepository modelService = com.jcalvopinam.repository.ReleaseRepository
+                .createProxy(modelVertx, Constants.RELEASE_SERVICE_ADDRESS);
+        Async written = context.async();
+        modelService.rxInsertRelease("Test 1", CURRENT_VERSION, "Some content", CURRENT_DATE)
+                    .andThen(modelService.rxInsertRelease("Test 2", CURRENT_VERSION, "Some content", CURRENT_DATE))
+                    .andThen(modelService.rxUpdateRelease(0, "Updated content"))
+                    .flatMap(updated -> modelService.rxDeleteRelease(1))
+                    .subscribe(deleted -> written.complete(), context::fail);
+        written.awaitSuccess(AWAIT);
+
+        ReleaseReadModel model = modelVertx.sharedData()
+                                           .<String, ReleaseReadModel>getLocalMap(Constants.RELEASE_READ_MODEL)
+                                           .get(Constants.RELEASE_READ_MODEL);
+        context.assertTrue(model.isServing());
+        context.assertEquals(1, model.size());
+        context.assertEquals("Updated content", model.get(0).getContent());
+        context.assertEquals(1, model.get(0).getRevision());
+
+        // A release over the budget is left out, it and the listings are read from the database
+        Async async = context.async();
+        String longContent = String.join("", Collections.nCopies(1000, "x"));
+        modelService.rxInsertRelease("Test 3", CURRENT_VERSION, longContent, CURRENT_DATE)
+                    .andThen(modelService.rxFetchAllReleases())
+                    .flatMapMaybe(releases -> {
+                        context.assertFalse(model.isServing());
+                        context.assertTrue(model.answers(0));
+                        context.assertFalse(model.answers(2));
+                        context.assertEquals(1, model.size());
+                        context.assertEquals(Arrays.asList(0, 2), releases.stream()
+                                                                          .map(Release::getId)
+                                                                          .collect(Collectors.toList()));
+                        return modelService.rxFetchReleaseById(2);
+                    })
+                    .subscribe(release -> {
+                        context.assertEquals(longContent, release.getContent());
+                        modelVertx.close(context.asyncAssertSuccess(v -> async.complete()));
+                    }, context::fail);
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testWriteMissingRelease(TestContext context) {
+        Async async = context.async();
+
+        service.updateRelease(42, "Some content", context.asyncAssertSuccess(updated -> {
+            context.assertEquals(0, updated);
+            service.deleteRelease(42, context.asyncAssertSuccess(deleted -> {
+                context.assertEquals(0, deleted);
+                async.complete();
+            }));
+        }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testUpdateInvalidatesCache(TestContext context) {
+        Async async = context.async();
+
+        service.insertRelease("Test", CURRENT_VERSION, "Some content", CURRENT_DATE,
+                              context.asyncAssertSuccess(save -> {
+                                  service.fetchReleaseById(0, context.asyncAssertSuccess(cached -> {
+                                      service.updateRelease(0, "Updated content", context.asyncAssertSuccess(u -> {
+                                          service.fetchReleaseById(0, context.asyncAssertSuccess(updated -> {
+                                              context.assertEquals("Updated content",
+                                                                   updated.getContent());
+                                              async.complete();
+                                          }));
+                                      }));
+                                  }));
+                              }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testReleaseVersion(TestContext context) {
+        Async async = context.async();
+
+        service.insertRelease("Test", CURRENT_VERSION, "Some content", CURRENT_DATE,
+                              context.asyncAssertSuccess(save -> {
+                                  service.fetchReleasesVersion(context.asyncAssertSuccess(listing -> {
+                                      service.updateRelease(0, "Updated content", context.asyncAssertSuccess(u -> {
+                                          service.fetchReleaseVersion(0, context.asyncAssertSuccess(version -> {
+                                              context.assertEquals("0-1", version.getTag());
+                                              context.assertTrue(version.getLastModified() > 0);
+                                              checkListingChanged(context, async, listing);
+                                          }));
+                                      }));
+                                  }));
+                              }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testSearchReleases(TestContext context) {
+        Async async = context.async();
+
+        List<Release> releases = Arrays.asList(
+                Release.of(0, "Deployer", CURRENT_VERSION, "Faster deployment pipeline", null),
+                Release.of(0, "Notifier", CURRENT_VERSION, "Pipeline alerts, pipeline retries and pipeline logs", null),
+                Release.of(0, "Reporter", CURRENT_VERSION, "New charts", null));
+
+        service.insertReleases(releases, context.asyncAssertSuccess(counts -> {
+            service.searchReleases("pipeline", 10, context.asyncAssertSuccess(found -> {
+                context.assertEquals(2, found.size());
+                context.assertEquals("Notifier", found.get(0).getApplicationName());
+                service.updateRelease(2, "Pipeline charts", context.asyncAssertSuccess(updated -> {
+                    service.deleteRelease(1, context.asyncAssertSuccess(deleted -> {
+                        service.searchReleases("pipeline", 10, context.asyncAssertSuccess(afterWrites -> {
+                            context.assertEquals(Arrays.asList(2, 0), afterWrites.stream()
+                                                                                 .map(Release::getId)
+                                                                                 .collect(Collectors.toList()));
+                            async.complete();
+                        }));
+                    }));
+                }));
+            }));
+        }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testApplicationReleases(TestContext context) {
+        Async async = context.async();
+
+        List<Release> releases = Arrays.asList(Release.of(0, "Deployer", "1.10", "Ten", null),
+                                               Release.of(0, "Deployer", "1.9", "Nine", null),
+                                               Release.of(0, "Deployer", "2.0-rc", "Candidate", null),
+                                               Release.of(0, "Reporter", "3.0", "Three", null));
+
+        service.insertReleases(releases, context.asyncAssertSuccess(counts -> {
+            service.fetchApplicationNames(context.asyncAssertSuccess(names -> {
+                context.assertEquals(Arrays.asList("Deployer", "Reporter"), names);
+                service.fetchApplicationReleases("Deployer", context.asyncAssertSuccess(deployer -> {
+                    context.assertEquals(Arrays.asList("1.9", "1.10", "2.0-rc"),
+                                         deployer.stream().map(Release::getVersion).collect(Collectors.toList()));
+                    service.fetchLatestRelease("Deployer", context.asyncAssertSuccess(latest -> {
+                        context.assertEquals("Candidate", latest.getContent());
+                        service.fetchLatestRelease("Unknown", context.asyncAssertSuccess(missing -> {
+                            context.assertNull(missing);
+                            async.complete();
+                        }));
+                    }));
+                }));
+            }));
+        }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
     @Test
     public void testFetchAllReleases(TestContext context) {
         Async async = context.async();
@@ -130,20 +428,122 @@ public class ReleaseDBVerticleTest {
         async.awaitSuccess(AWAIT);
     }
 
-    private void checkInsert(TestContext context, JsonObject getOne) {
-        context.assertTrue(getOne.getBoolean(Constants.FOUND));
-        context.assertTrue(getOne.containsKey(Constants.ID));
-        context.assertEquals(CURRENT_VERSION, getOne.getString(Constants.VERSION));
-        context.assertEquals("Some content", getOne.getString(Constants.CONTENT));
-        context.assertEquals(CURRENT_DATE, getOne.getString(Constants.RELEASE_DATE));
+    @Test
+    public void testStreamAllReleases(TestContext context) {
+        Async async = context.async();
+        JsonArray streamed = new JsonArray();
+        String address = Constants.RELEASE_STREAM_ADDRESS + "test";
+
+        vertx.eventBus().<JsonArray>consumer(address, message -> {
+            context.assertTrue(message.body().size() <= 2);
+            streamed.addAll(message.body());
+            message.reply(null);
+        });
+
+        service.insertRelease("Test 1", CURRENT_VERSION, "Some content 1", CURRENT_DATE,
+                              context.asyncAssertSuccess(p1 -> {
+                                  service.insertRelease("Test 2", CURRENT_VERSION, "Some content 2", CURRENT_DATE,
+                                                        context.asyncAssertSuccess(p2 -> {
+                                                            service.insertRelease("Test 3", CURRENT_VERSION,
+                                                                                  "Some content 3", CURRENT_DATE,
+                                                                                  context.asyncAssertSuccess(p3 -> {
+                                                                service.streamAllReleases(address, 2,
+                                                                        context.asyncAssertSuccess(done -> {
+                                                                            context.assertEquals(3, streamed.size());
+                                                                            context.assertEquals("Test 3", streamed
+                                                                                    .getJsonObject(2)
+                                                                                    .getString(
+                                                                                    Constants.APPLICATION_NAME));
+                                                                            async.complete();
+                                                                        }));
+                                                            }));
+                                                        }));
+                              }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testFetchReleasesPage(TestContext context) {
+        Async async = context.async();
+
+        service.insertRelease("Test 1", CURRENT_VERSION, "Some content 1", CURRENT_DATE,
+                              context.asyncAssertSuccess(p1 -> {
+                                  service.insertRelease("Test 2", CURRENT_VERSION, "Some content 2", CURRENT_DATE,
+                                                        context.asyncAssertSuccess(p2 -> {
+                                                            service.fetchReleasesPage(-1, 1,
+                                                                                      context.asyncAssertSuccess(
+                                                                                              first -> checkNextPage(
+                                                                                                      context, async,
+                                                                                                      first)));
+                                                        }));
+                              }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testFetchReleaseFields(TestContext context) {
+        Async async = context.async();
+
+        service.insertRelease("Test", CURRENT_VERSION, "Some content", CURRENT_DATE, context.asyncAssertSuccess(v -> {
+            service.fetchReleaseFieldsPage(Arrays.asList(Constants.ID, Constants.VERSION), -1, 10,
+                                           context.asyncAssertSuccess(page -> {
+                context.assertEquals(1, page.size());
+                context.assertEquals(new JsonObject().put(Constants.ID, 0).put(Constants.VERSION, CURRENT_VERSION),
+                                     page.get(0));
+                service.fetchReleaseContent(0, context.asyncAssertSuccess(content -> {
+                    context.assertEquals("Some content", content);
+                    service.fetchReleaseContent(42, context.asyncAssertSuccess(missing -> {
+                        context.assertNull(missing);
+                        async.complete();
+                    }));
+                }));
+            }));
+        }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    private void checkNextPage(TestContext context, Async async, List<Release> firstPage) {
+        context.assertEquals(1, firstPage.size());
+        service.fetchReleasesPage(firstPage.get(0).getId(), 1,
+                                  context.asyncAssertSuccess(secondPage -> {
+                                      context.assertEquals(1, secondPage.size());
+                                      context.assertEquals("Test 2", secondPage.get(0).getApplicationName());
+                                      async.complete();
+                                  }));
+    }
+
+    private void checkListingChanged(TestContext context, Async async, ReleaseVersion before) {
+        service.fetchReleasesVersion(context.asyncAssertSuccess(afterUpdate -> {
+            context.assertNotEquals(before.getTag(), afterUpdate.getTag());
+            service.deleteRelease(0, context.asyncAssertSuccess(deleted -> {
+                service.fetchReleasesVersion(context.asyncAssertSuccess(afterDelete -> {
+                    context.assertNotEquals(afterUpdate.getTag(), afterDelete.getTag());
+                    service.fetchReleaseVersion(0, context.asyncAssertSuccess(missing -> {
+                        context.assertNull(missing);
+                        async.complete();
+                    }));
+                }));
+            }));
+        }));
+    }
+
+    private void checkInsert(TestContext context, Release getOne) {
+        context.assertNotNull(getOne);
+        context.assertEquals(0, getOne.getId());
+        context.assertEquals(CURRENT_VERSION, getOne.getVersion());
+        context.assertEquals("Some content", getOne.getContent());
+        context.assertEquals(CURRENT_DATE, getOne.getReleaseDate());
     }
 
-    private void checkRelease(TestContext context, List<JsonObject> data, int id, String appName, String content) {
-        JsonObject release = data.get(id);
-        context.assertEquals(appName, release.getString(Constants.APPLICATION_NAME.toUpperCase()));
-        context.assertEquals(CURRENT_VERSION, release.getString(Constants.VERSION.toUpperCase()));
-        context.assertEquals(content, release.getString(Constants.CONTENT.toUpperCase()));
-        context.assertEquals(CURRENT_DATE, release.getString(Constants.RELEASE_DATE.toUpperCase()));
+    private void checkRelease(TestContext context, List<Release> data, int id, String appName, String content) {
+        Release release = data.get(id);
+        context.assertEquals(appName, release.getApplicationName());
+        context.assertEquals(CURRENT_VERSION, release.getVersion());
+        context.assertEquals(content, release.getContent());
+        context.assertEquals(CURRENT_DATE, release.getReleaseDate());
     }
 
 }
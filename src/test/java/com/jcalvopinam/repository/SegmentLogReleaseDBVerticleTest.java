@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.utils.Constants;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs the scenarios of {@link ReleaseDBVerticleTest} against the {@link SegmentLog} storage, with segments small
+ * enough to be sealed along the way, and checks its recovery and compaction.
+ *
+ * @author Juan Calvopina
+ */
+@RunWith(VertxUnitRunner.class)
+public class SegmentLogReleaseDBVerticleTest extends ReleaseDBVerticleTest {
+
+    private static final int SEGMENT_SIZE = 512;
+
+    private Path directory;
+
+    @Override
+    protected JsonObject config() {
+        try {
+            directory = Files.createTempDirectory("segments");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return getConf().put(Constants.CONFIG_REPOSITORY_STORAGE, Constants.STORAGE_SEGMENT_LOG)
+                        .put(Constants.CONFIG_SEGMENT_LOG_DIRECTORY, directory.toString())
+                        .put(Constants.CONFIG_SEGMENT_LOG_SEGMENT_SIZE, SEGMENT_SIZE);
+    }
+
+    @After
+    public void deleteSegments() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testRecovery(TestContext context) throws IOException {
+        Path recovered = directory.resolve("recovery");
+        SegmentLog log = new SegmentLog(recovered, SEGMENT_SIZE);
+        log.acquire();
+        log.insert("Test", "1", "Some content 0", null, 1L);
+        log.insert("Test", "2", "Some content 1", null, 1L);
+        log.insert("Test", "3", "Some content 2", null, 1L);
+        log.update(1, "Updated content", 2L);
+        log.delete(0);
+        log.release();
+
+        log.acquire();
+        context.assertNull(log.get(0));
+        context.assertEquals("Updated content", log.get(1).getContent());
+        context.assertEquals(1, log.get(1).getRevision());
+        context.assertEquals(2L, log.version(1).getLastModified());
+        context.assertEquals("Some content 2", log.get(2).getContent());
+        context.assertEquals(Collections.singletonList("Test"), log.applicationNames());
+        context.assertEquals(Arrays.asList(1, 2), log.applicationReleases("Test").stream()
+                                                     .map(Release::getId)
+                                                     .collect(Collectors.toList()));
+        context.assertEquals(3, log.insert("Test", "4", "Some content 3", null, 3L));
+        context.assertEquals("3-3-1", log.listingVersion().getTag());
+        log.release();
+    }
+
+    @Test
+    public void testTornWriteRecovery(TestContext context) throws IOException {
+        Path recovered = directory.resolve("torn");
+        SegmentLog log = new SegmentLog(recovered, SEGMENT_SIZE);
+        log.acquire();
+        log.insert("Test", "1", "Some content 0", null, 1L);
+        log.insert("Test", "2", "Some content 1", null, 1L);
+        log.release();
+
+        // Damages the last byte written, as a crash in the middle of the second append would
+        Path segment = segments(recovered).get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        int last = bytes.length - 1;
+        while (bytes[last] == 0) {
+            last--;
+        }
+        bytes[last] ^= 0x7f;
+        Files.write(segment, bytes);
+
+        log.acquire();
+        context.assertEquals("Some content 0", log.get(0).getContent());
+        context.assertNull(log.get(1));
+        context.assertEquals(1, log.insert("Test", "2", "Some content 1", null, 2L));
+        log.release();
+
+        log.acquire();
+        context.assertEquals(2, log.releases().size());
+        context.assertEquals("Some content 1", log.get(1).getContent());
+        log.release();
+    }
+
+    @Test
+    public void testCompaction(TestContext context) throws IOException {
+        Path compacted = directory.resolve("compaction");
+        SegmentLog log = new SegmentLog(compacted, SEGMENT_SIZE);
+        log.acquire();
+        for (int i = 0; i < 20; i++) {
+            log.insert("Test", Integer.toString(i), "Some content " + i, null, 1L);
+        }
+        for (int i = 0; i < 20; i++) {
+            log.update(i, "Updated content " + i, 2L);
+        }
+        for (int i = 10; i < 20; i++) {
+            log.delete(i);
+        }
+        List<Release> releases = log.releases();
+        int segmentsBefore = segments(compacted).size();
+
+        context.assertTrue(log.needsCompaction(0.5));
+        log.compact();
+        context.assertFalse(log.needsCompaction(0.5));
+        context.assertTrue(segments(compacted).size() < segmentsBefore);
+        assertSameReleases(context, releases, log.releases());
+        log.release();
+
+        log.acquire();
+        assertSameReleases(context, releases, log.releases());
+        // The deleted releases with the highest ids are gone, their ids are not handed out again
+        context.assertEquals(20, log.insert("Test", "20", "Some content 20", null, 3L));
+        log.release();
+    }
+
+    private static void assertSameReleases(TestContext context, List<Release> expected, List<Release> actual) {
+        context.assertEquals(expected.stream().map(Release::toJson).collect(Collectors.toList()),
+                             actual.stream().map(Release::toJson).collect(Collectors.toList()));
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+}
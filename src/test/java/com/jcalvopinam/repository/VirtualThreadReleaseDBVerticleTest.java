@@ -0,0 +1,54 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 JUAN CALVOPINA M
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package com.jcalvopinam.repository;
+
+import com.jcalvopinam.utils.Constants;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.runner.RunWith;
+
+/**
+ * Runs the scenarios of {@link ReleaseDBVerticleTest} with the statements executed on virtual threads. Skipped on
+ * Java versions without them.
+ *
+ * @author Juan Calvopina
+ */
+@RunWith(VertxUnitRunner.class)
+public class VirtualThreadReleaseDBVerticleTest extends ReleaseDBVerticleTest {
+
+    @BeforeClass
+    public static void assumeVirtualThreads() {
+        Assume.assumeTrue("Virtual threads are not available", VirtualThreadSqlExecutor.isSupported());
+    }
+
+    @Override
+    protected JsonObject config() {
+        return getConf().put(Constants.CONFIG_DB_EXECUTION_MODE, Constants.EXECUTION_VIRTUAL_THREADS);
+    }
+
+}
@@ -25,12 +25,23 @@
 
 package com.jcalvopinam.verticle;
 
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.jcalvopinam.domain.Release;
+import com.jcalvopinam.repository.LocalReleaseRepositories;
 import com.jcalvopinam.repository.ReleaseDBVerticleTest;
+import com.jcalvopinam.repository.ReleaseRepository;
+import com.jcalvopinam.service.HttpServiceImpl;
+import com.jcalvopinam.tracing.Span;
+import com.jcalvopinam.tracing.TraceContext;
 import com.jcalvopinam.utils.Constants;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
@@ -40,10 +51,20 @@ import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.ext.web.codec.BodyCodec;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.VertxPrometheusOptions;
+import io.vertx.serviceproxy.ServiceBinder;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * @author Juan Calvopina
@@ -53,10 +74,25 @@ public class HttpServerVerticleTest {
 
     private static final int AWAIT = 5000;
     private static final int DEFAULT_PORT = 8080;
+    private static final int TRACED_PORT = 8082;
+    private static final int RACING_PORT = 8083;
+    private static final int METERED_PORT = 8084;
+    private static final int TIMEOUT_PORT = 8085;
+    private static final long CALL_TIMEOUT_MS = 100;
+    private static final int LARGE_RELEASES = 100;
+    private static final int LARGE_CONTENT_LENGTH = 200_000;
+    private static final long STALLED_CLIENT_MS = 1000;
+    private static final String RACING_ADDRESS = "racing.release.repository";
+    private static final long SLOW_READ_MS = 300;
 
     private static final String LOCALHOST = "localhost";
     private static final String API_RELEASES = "/api/releases";
     private static final String API_RELEASE_ID = "/api/releases/0";
+    private static final String API_RELEASES_BULK = "/api/releases/_bulk";
+    private static final String API_RELEASES_SEARCH = "/api/releases/search";
+    private static final String METRICS = "/metrics";
+    private static final String ACCEPT_ENCODING = "accept-encoding";
+    private static final String GZIP = "gzip";
 
     private Vertx vertx;
     private WebClient webClient;
@@ -138,6 +174,615 @@ public class HttpServerVerticleTest {
         async.awaitSuccess(AWAIT);
     }
 
+    @Test
+    public void testBulkInsert(TestContext context) {
+        Async async = context.async();
+
+        JsonArray releases = new JsonArray().add(createRelease())
+                                            .add(new JsonObject().put(Constants.APPLICATION_NAME, "Incomplete"))
+                                            .add(createRelease());
+
+        webClient.post(API_RELEASES_BULK)
+                 .as(BodyCodec.jsonObject())
+                 .sendJson(releases, context.asyncAssertSuccess(response -> {
+                     context.assertEquals(201, response.statusCode());
+                     JsonArray results = response.body().getJsonArray(Constants.RESULTS);
+                     context.assertEquals(3, results.size());
+                     context.assertTrue(results.getJsonObject(0).getBoolean(Constants.SUCCESS));
+                     context.assertFalse(results.getJsonObject(1).getBoolean(Constants.SUCCESS));
+                     context.assertTrue(results.getJsonObject(2).getBoolean(Constants.SUCCESS));
+                     async.complete();
+                 }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testCompression(TestContext context) {
+        Async async = context.async();
+
+        JsonObject release = createRelease().put(Constants.CONTENT, String.join("", Collections.nCopies(
+                200, "- Fixed a bug in the deployment pipeline\n")));
+
+        webClient.post(API_RELEASES)
+                 .sendJsonObject(release, context.asyncAssertSuccess(created -> {
+                     webClient.get(API_RELEASE_ID)
+                              .putHeader(ACCEPT_ENCODING, GZIP)
+                              .send(context.asyncAssertSuccess(large -> {
+                                  context.assertEquals(GZIP, large.getHeader(Constants.CONTENT_ENCODING));
+                                  webClient.get(API_RELEASES + "/42")
+                                           .putHeader(ACCEPT_ENCODING, GZIP)
+                                           .send(context.asyncAssertSuccess(small -> {
+                                               context.assertEquals(404, small.statusCode());
+                                               context.assertNotEquals(GZIP, small.getHeader(
+                                                       Constants.CONTENT_ENCODING));
+                                               async.complete();
+                                           }));
+                              }));
+                 }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testHttp2ClearText(TestContext context) {
+        Async async = context.async();
+        WebClient http2Client = WebClient.create(vertx, new WebClientOptions().setDefaultHost(LOCALHOST)
+                                                                              .setDefaultPort(DEFAULT_PORT)
+                                                                              .setProtocolVersion(HttpVersion.HTTP_2)
+                                                                              .setHttp2ClearTextUpgrade(false));
+
+        http2Client.get(API_RELEASES)
+                   .send(context.asyncAssertSuccess(response -> {
+                       context.assertEquals(HttpVersion.HTTP_2, response.version());
+                       context.assertEquals(200, response.statusCode());
+                       http2Client.close();
+                       async.complete();
+                   }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testConditionalGet(TestContext context) {
+        Async async = context.async();
+
+        webClient.post(API_RELEASES)
+                 .sendJsonObject(createRelease(), context.asyncAssertSuccess(created -> {
+                     webClient.get(API_RELEASE_ID)
+                              .send(context.asyncAssertSuccess(full -> {
+                                  String etag = full.getHeader(Constants.ETAG);
+                                  context.assertNotNull(etag);
+                                  context.assertNotNull(full.getHeader(Constants.LAST_MODIFIED));
+                                  webClient.get(API_RELEASE_ID)
+                                           .putHeader(Constants.IF_NONE_MATCH, etag)
+                                           .send(context.asyncAssertSuccess(notModified -> {
+                                               context.assertEquals(304, notModified.statusCode());
+                                               checkModifiedAfterUpdate(context, async, etag);
+                                           }));
+                              }));
+                 }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    /**
+     * The version of the listing is cached, an insert must still change its entity tag.
+     */
+    @Test
+    public void testConditionalListing(TestContext context) {
+        Async async = context.async();
+
+        webClient.get(API_RELEASES)
+                 .send(context.asyncAssertSuccess(full -> {
+                     String etag = full.getHeader(Constants.ETAG);
+                     context.assertNotNull(etag);
+                     webClient.get(API_RELEASES)
+                              .putHeader(Constants.IF_NONE_MATCH, etag)
+                              .send(context.asyncAssertSuccess(notModified -> {
+                                  context.assertEquals(304, notModified.statusCode());
+                                  webClient.post(API_RELEASES)
+                                           .sendJsonObject(createRelease(), context.asyncAssertSuccess(created -> {
+                                               webClient.get(API_RELEASES)
+                                                        .putHeader(Constants.IF_NONE_MATCH, etag)
+                                                        .send(context.asyncAssertSuccess(modified -> {
+                                                            context.assertEquals(200, modified.statusCode());
+                                                            context.assertNotEquals(etag, modified.getHeader(
+                                                                    Constants.ETAG));
+                                                            async.complete();
+                                                        }));
+                                           }));
+                              }));
+                 }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testCachedRelease(TestContext context) {
+        Async async = context.async();
+
+        webClient.post(API_RELEASES)
+                 .sendJsonObject(createRelease(), context.asyncAssertSuccess(created -> {
+                     webClient.get(API_RELEASE_ID)
+                              .send(context.asyncAssertSuccess(fetched -> {
+                                  webClient.get(API_RELEASE_ID)
+                                           .send(context.asyncAssertSuccess(cached -> {
+                                               context.assertEquals(200, cached.statusCode());
+                                               context.assertEquals(fetched.getHeader(Constants.ETAG),
+                                                                    cached.getHeader(Constants.ETAG));
+                                               context.assertEquals(fetched.bodyAsString(), cached.bodyAsString());
+                                               checkDeletedNotCached(context, async);
+                                           }));
+                              }));
+                 }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    /**
+     * A read of the release is in flight, slowed down by the repository, when the release is updated. The read sent
+     * once the update has been answered must not join the older one, nor let it put the old content into the response
+     * cache.
+     */
+    @Test
+    public void testUpdateRacingCachedRead(TestContext context) {
+        Async async = context.async();
+        Vertx racingVertx = Vertx.vertx();
+        new ServiceBinder(racingVertx).setAddress(RACING_ADDRESS)
+                                      .register(ReleaseRepository.class, slowRepository(racingVertx));
+        WebClient racingClient = WebClient.create(racingVertx, new WebClientOptions().setDefaultHost(LOCALHOST)
+                                                                                     .setDefaultPort(RACING_PORT));
+        JsonObject httpConf = new JsonObject().put(Constants.CONFIG_HTTP_PORT, RACING_PORT)
+                                              .put(Constants.RELEASE_SERVICE_ADDRESS, RACING_ADDRESS);
+
+        racingVertx.deployVerticle(new HttpServerVerticle(), new DeploymentOptions().setConfig(httpConf),
+                                   context.asyncAssertSuccess(deployed -> {
+                                       racingClient.get(API_RELEASE_ID)
+                                                   .as(BodyCodec.jsonObject())
+                                                   .send(context.asyncAssertSuccess(
+                                                           slow -> context.assertEquals("Before", contentOf(slow))));
+                                       racingClient.put(API_RELEASE_ID)
+                                                   .sendJsonObject(new JsonObject().put(Constants.CONTENT, "After"),
+                                                                   context.asyncAssertSuccess(
+                                                                           updated -> checkReadAfterUpdate(
+                                                                                   context, async, racingClient, 2)));
+                                   }));
+
+        try {
+            async.awaitSuccess(AWAIT);
+        } finally {
+            racingVertx.close();
+        }
+    }
+
+    /**
+     * A call dispatched locally to a repository slower than the call timeout is answered with a 503, as a call through
+     * the event bus would.
+     */
+    @Test
+    public void testLocalCallTimeout(TestContext context) {
+        Async async = context.async();
+        Vertx slowVertx = Vertx.vertx();
+        LocalReleaseRepositories.register(slowVertx, RACING_ADDRESS, slowRepository(slowVertx));
+        WebClient slowClient = WebClient.create(slowVertx, new WebClientOptions().setDefaultHost(LOCALHOST)
+                                                                                 .setDefaultPort(TIMEOUT_PORT));
+        JsonObject httpConf = new JsonObject().put(Constants.CONFIG_HTTP_PORT, TIMEOUT_PORT)
+                                              .put(Constants.RELEASE_SERVICE_ADDRESS, RACING_ADDRESS)
+                                              .put(Constants.CONFIG_LOCAL_DISPATCH, true)
+                                              .put(Constants.CONFIG_CALL_TIMEOUT_MS, CALL_TIMEOUT_MS);
+
+        slowVertx.deployVerticle(new HttpServerVerticle(), new DeploymentOptions().setConfig(httpConf),
+                                 context.asyncAssertSuccess(deployed -> {
+                                     slowClient.get(API_RELEASE_ID).send(context.asyncAssertSuccess(timedOut -> {
+                                         context.assertEquals(503, timedOut.statusCode());
+                                         context.assertNotNull(timedOut.getHeader(Constants.RETRY_AFTER));
+                                         async.complete();
+                                     }));
+                                 }));
+
+        try {
+            async.awaitSuccess(AWAIT);
+        } finally {
+            slowVertx.close();
+        }
+    }
+
+    private void checkReadAfterUpdate(TestContext context, Async async, WebClient client, int reads) {
+        if (reads == 0) {
+            async.complete();
+            return;
+        }
+        client.get(API_RELEASE_ID)
+              .as(BodyCodec.jsonObject())
+              .send(context.asyncAssertSuccess(read -> {
+                  context.assertEquals("After", contentOf(read));
+                  checkReadAfterUpdate(context, async, client, reads - 1);
+              }));
+    }
+
+    /**
+     * Answers the reads of a release with the content it had when the read was received, after a delay, and applies
+     * the updates at once.
+     */
+    @SuppressWarnings("unchecked")
+    private static ReleaseRepository slowRepository(Vertx vertx) {
+        String[] content = {"Before"};
+        return (ReleaseRepository) Proxy.newProxyInstance(
+                ReleaseRepository.class.getClassLoader(), new Class<?>[]{ReleaseRepository.class},
+                (instance, method, args) -> {
+                    Handler<AsyncResult<Object>> handler = (Handler<AsyncResult<Object>>) args[args.length - 1];
+                    if ("fetchReleaseById".equals(method.getName())) {
+                        Release release = new Release();
+                        release.setId((int) args[0]);
+                        release.setApplicationName("Sample");
+                        release.setVersion("1");
+                        release.setContent(content[0]);
+                        vertx.setTimer(SLOW_READ_MS, timer -> handler.handle(Future.succeededFuture(release)));
+                    } else if ("updateRelease".equals(method.getName())) {
+                        content[0] = (String) args[1];
+                        handler.handle(Future.succeededFuture(1));
+                    } else {
+                        handler.handle(Future.failedFuture(new UnsupportedOperationException(method.getName())));
+                    }
+                    return instance;
+                });
+    }
+
+    private static String contentOf(HttpResponse<JsonObject> response) {
+        return response.body().getJsonObject(Constants.RELEASE).getString(Constants.CONTENT);
+    }
+
+    private void checkDeletedNotCached(TestContext context, Async async) {
+        webClient.delete(API_RELEASE_ID)
+                 .send(context.asyncAssertSuccess(deleted -> {
+                     webClient.get(API_RELEASE_ID)
+                              .send(context.asyncAssertSuccess(missing -> {
+                                  context.assertEquals(404, missing.statusCode());
+                                  async.complete();
+                              }));
+                 }));
+    }
+
+    private void checkModifiedAfterUpdate(TestContext context, Async async, String etag) {
+        webClient.put(API_RELEASE_ID)
+                 .sendJsonObject(new JsonObject().put(Constants.CONTENT, "The content was updated!"),
+                                 context.asyncAssertSuccess(updated -> {
+                                     webClient.get(API_RELEASE_ID)
+                                              .putHeader(Constants.IF_NONE_MATCH, etag)
+                                              .send(context.asyncAssertSuccess(modified -> {
+                                                  context.assertEquals(200, modified.statusCode());
+                                                  context.assertNotEquals(etag, modified.getHeader(Constants.ETAG));
+                                                  checkListingNotModified(context, async);
+                                              }));
+                                 }));
+    }
+
+    private void checkListingNotModified(TestContext context, Async async) {
+        webClient.get(API_RELEASES)
+                 .send(context.asyncAssertSuccess(full -> {
+                     webClient.get(API_RELEASES)
+                              .putHeader(Constants.IF_NONE_MATCH, full.getHeader(Constants.ETAG))
+                              .send(context.asyncAssertSuccess(notModified -> {
+                                  context.assertEquals(304, notModified.statusCode());
+                                  async.complete();
+                              }));
+                 }));
+    }
+
+    @Test
+    public void testSearch(TestContext context) {
+        Async async = context.async();
+
+        webClient.post(API_RELEASES)
+                 .sendJsonObject(createRelease(), context.asyncAssertSuccess(created -> {
+                     webClient.get(API_RELEASES_SEARCH)
+                              .addQueryParam("q", "releases")
+                              .as(BodyCodec.jsonObject())
+                              .send(context.asyncAssertSuccess(response -> {
+                                  context.assertEquals(200, response.statusCode());
+                                  context.assertEquals(1, response.body().getJsonArray(Constants.RELEASE).size());
+                                  async.complete();
+                              }));
+                 }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testLatestRelease(TestContext context) {
+        Async async = context.async();
+
+        webClient.post(API_RELEASES)
+                 .sendJsonObject(createRelease(), context.asyncAssertSuccess(created -> {
+                     webClient.get("/api/applications/Sample/latest")
+                              .as(BodyCodec.jsonObject())
+                              .send(context.asyncAssertSuccess(latest -> {
+                                  context.assertEquals(200, latest.statusCode());
+                                  context.assertEquals("1", latest.body().getJsonObject(Constants.RELEASE)
+                                                                 .getString(Constants.VERSION));
+                                  webClient.get("/api/applications/Unknown/latest")
+                                           .send(context.asyncAssertSuccess(missing -> {
+                                               context.assertEquals(404, missing.statusCode());
+                                               async.complete();
+                                           }));
+                              }));
+                 }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    @Test
+    public void testFieldProjection(TestContext context) {
+        Async async = context.async();
+
+        webClient.post(API_RELEASES)
+                 .sendJsonObject(createRelease(), context.asyncAssertSuccess(created -> {
+                     webClient.get(API_RELEASES)
+                              .addQueryParam(Constants.FIELDS, "applicationName,version")
+                              .as(BodyCodec.jsonObject())
+                              .send(context.asyncAssertSuccess(listing -> {
+                                  context.assertEquals(200, listing.statusCode());
+                                  JsonObject release = listing.body().getJsonArray(Constants.RELEASE).getJsonObject(0);
+                                  context.assertEquals(3, release.size());
+                                  context.assertFalse(release.containsKey(Constants.CONTENT));
+                                  webClient.get(API_RELEASES + "/" + release.getInteger(Constants.ID) + "/content")
+                                           .as(BodyCodec.jsonObject())
+                                           .send(context.asyncAssertSuccess(content -> {
+                                               context.assertEquals("Content releases",
+                                                                    content.body().getString(Constants.CONTENT));
+                                               checkUnknownField(context, async);
+                                           }));
+                              }));
+                 }));
+
+        async.awaitSuccess(AWAIT);
+    }
+
+    /**
+     * A client that stops reading a large listing and then disconnects must end the stream at once, well before the
+     * send timeout of the chunk left waiting for the response to drain.
+     */
+    @Test
+    public void testStreamClosedByClient(TestContext context) {
+        Async async = context.async();
+        List<String> logged = new CopyOnWriteArrayList<>();
+        ch.qos.logback.classic.Logger serviceLogger =
+                (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(HttpServiceImpl.class);
+        AppenderBase<ILoggingEvent> appender = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                logged.add(event.getFormattedMessage());
+            }
+        };
+        appender.start();
+        serviceLogger.addAppender(appender);
+
+        String content = String.join("", Collections.nCopies(LARGE_CONTENT_LENGTH, "x"));
+        List<Release> releases = new ArrayList<>();
+        for (int i = 0; i < LARGE_RELEASES; i++) {
+            releases.add(Release.of(0, "Large", String.valueOf(i), content, null));
+        }
+        ReleaseRepository.createProxy(vertx, Constants.RELEASE_SERVICE_ADDRESS)
+                         .rxInsertReleases(releases)
+                         .subscribe(inserted -> stallAndDisconnect(context, async, logged), context::fail);
+
+        try {
+            async.awaitSuccess(AWAIT);
+        } finally {
+            serviceLogger.detachAppender(appender);
+        }
+    }
+
+    /**
+     * Requests the listing, stops reading it and disconnects, then waits for the stream to be reported as interrupted.
+     */
+    private void stallAndDisconnect(TestContext context, Async async, List<String> logged) {
+        vertx.createNetClient().connect(DEFAULT_PORT, LOCALHOST, context.asyncAssertSuccess(socket -> {
+            socket.handler(buffer -> socket.pause());
+            socket.write("GET " + API_RELEASES + " HTTP/1.1\r\nHost: " + LOCALHOST + "\r\n\r\n");
+            vertx.setTimer(STALLED_CLIENT_MS, stalled -> {
+                socket.close();
+                vertx.setPeriodic(50, timer -> {
+                    if (logged.stream().anyMatch(line -> line.startsWith("The release stream was interrupted"))) {
+                        vertx.cancelTimer(timer);
+                        async.complete();
+                    }
+                });
+            });
+        }));
+    }
+
+    @Test
+    public void testAccessLog(TestContext context) {
+        Async async = context.async();
+        List<JsonObject> lines = new CopyOnWriteArrayList<>();
+        ch.qos.logback.classic.Logger accessLogger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger("access");
+        AppenderBase<ILoggingEvent> appender = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                lines.add(new JsonObject(event.getFormattedMessage()));
+            }
+        };
+        appender.start();
+        accessLogger.addAppender(appender);
+
+        webClient.post(API_RELEASES)
+                 .sendJsonObject(createRelease(), context.asyncAssertSuccess(created -> {
+                     webClient.get(API_RELEASE_ID).send(context.asyncAssertSuccess(response -> {
+                         vertx.setPeriodic(50, timer -> {
+                             if (lines.size() < 2) {
+                                 return;
+                             }
+                             vertx.cancelTimer(timer);
+                             JsonObject post = lines.get(0);
+                             context.assertEquals("POST", post.getString("method"));
+                             context.assertEquals(API_RELEASES, post.getString("route"));
+                             context.assertEquals(201, post.getInteger("status"));
+
+                             JsonObject get = lines.get(1);
+                             context.assertEquals("GET", get.getString("method"));
+                             context.assertEquals(API_RELEASES + "/:id", get.getString("route"));
+                             context.assertEquals(200, get.getInteger("status"));
+                             context.assertEquals((long) response.body().length(), get.getLong("bytes"));
+                             context.assertTrue(get.getLong("latencyUs") >= 0);
+                             context.assertNotNull(get.getLong("ts"));
+                             async.complete();
+                         });
+                     }));
+                 }));
+
+        try {
+            async.awaitSuccess(AWAIT);
+        } finally {
+            accessLogger.detachAppender(appender);
+        }
+    }
+
+    @Test
+    public void testMetrics(TestContext context) {
+        Async async = context.async();
+        Vertx meteredVertx = Vertx.vertx(new VertxOptions().setMetricsOptions(
+                new MicrometerMetricsOptions().setEnabled(true)
+                                              .setPrometheusOptions(new VertxPrometheusOptions().setEnabled(true))));
+        JsonObject dbConf = ReleaseDBVerticleTest.getConf().put("jdbc.url", "jdbc:hsqldb:mem:metricsdb;shutdown=true");
+        JsonObject httpConf = new JsonObject().put(Constants.CONFIG_HTTP_PORT, METERED_PORT);
+        WebClient meteredClient = WebClient.create(meteredVertx, new WebClientOptions().setDefaultHost(LOCALHOST)
+                                                                                       .setDefaultPort(METERED_PORT));
+        Future<String> dbDeployed = Future.future();
+        meteredVertx.deployVerticle(new ReleaseDBVerticle(), new DeploymentOptions().setConfig(dbConf), dbDeployed);
+        dbDeployed.compose(id -> {
+            Future<String> httpDeployed = Future.future();
+            meteredVertx.deployVerticle(new HttpServerVerticle(), new DeploymentOptions().setConfig(httpConf),
+                                        httpDeployed);
+            return httpDeployed;
+        }).setHandler(context.asyncAssertSuccess(deployed -> {
+            meteredClient.get(API_RELEASE_ID).send(context.asyncAssertSuccess(notFound -> {
+                context.assertEquals(404, notFound.statusCode());
+                meteredClient.get(METRICS).send(context.asyncAssertSuccess(metrics -> {
+                    String scraped = metrics.bodyAsString();
+                    context.assertTrue(scraped.contains("http_route_requests_seconds_count{method=\"GET\","
+                                                        + "route=\"" + API_RELEASES + "/:id\",status=\"404\","),
+                                       scraped);
+                    context.assertTrue(scraped.contains("release_repository_calls_seconds_count{"
+                                                        + "method=\"fetchReleaseById\",outcome=\"success\","),
+                                       scraped);
+                    async.complete();
+                }));
+            }));
+        }));
+
+        try {
+            async.awaitSuccess(AWAIT);
+        } finally {
+            meteredVertx.close();
+        }
+    }
+
+    @Test
+    public void testTracing(TestContext context) {
+        Async async = context.async();
+        String traceId = "4bf92f3577b34da6a3ce929d0e0e4736";
+        String parentSpanId = "00f067aa0ba902b7";
+        List<JsonObject> spans = new CopyOnWriteArrayList<>();
+        ch.qos.logback.classic.Logger tracesLogger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger("traces");
+        AppenderBase<ILoggingEvent> appender = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                spans.add(new JsonObject(event.getFormattedMessage()).getJsonArray("resourceSpans").getJsonObject(0)
+                                                                     .getJsonArray("scopeSpans").getJsonObject(0)
+                                                                     .getJsonArray("spans").getJsonObject(0));
+            }
+        };
+        appender.start();
+        tracesLogger.addAppender(appender);
+
+        Vertx tracedVertx = Vertx.vertx();
+        JsonObject dbConf = ReleaseDBVerticleTest.getConf().put("jdbc.url", "jdbc:hsqldb:mem:tracedb;shutdown=true")
+                                                 .put(Constants.CONFIG_READ_MODEL_ENABLED, false)
+                                                 .put(Constants.CONFIG_TRACING_ENABLED, true);
+        JsonObject httpConf = new JsonObject().put(Constants.CONFIG_HTTP_PORT, TRACED_PORT)
+                                              .put(Constants.CONFIG_LOCAL_DISPATCH, false)
+                                              .put(Constants.CONFIG_TRACING_ENABLED, true);
+        WebClient tracedClient = WebClient.create(tracedVertx, new WebClientOptions().setDefaultHost(LOCALHOST)
+                                                                                     .setDefaultPort(TRACED_PORT));
+        Future<String> dbDeployed = Future.future();
+        tracedVertx.deployVerticle(new ReleaseDBVerticle(), new DeploymentOptions().setConfig(dbConf), dbDeployed);
+        dbDeployed.compose(id -> {
+            Future<String> httpDeployed = Future.future();
+            tracedVertx.deployVerticle(new HttpServerVerticle(), new DeploymentOptions().setConfig(httpConf),
+                                       httpDeployed);
+            return httpDeployed;
+        }).setHandler(context.asyncAssertSuccess(deployed -> {
+            tracedClient.post(API_RELEASES).sendJsonObject(createRelease(), context.asyncAssertSuccess(created -> {
+                tracedClient.get(API_RELEASE_ID)
+                            .putHeader(TraceContext.TRACEPARENT, "00-" + traceId + "-" + parentSpanId + "-01")
+                            .send(context.asyncAssertSuccess(response -> {
+                                context.assertEquals(200, response.statusCode());
+                                tracedVertx.setPeriodic(50, timer -> {
+                                    if (spans.stream().filter(span -> traceId.equals(span.getString("traceId")))
+                                             .count() < 4) {
+                                        return;
+                                    }
+                                    tracedVertx.cancelTimer(timer);
+                                    checkSpans(context, traceId, parentSpanId, spans);
+                                    async.complete();
+                                });
+                            }));
+            }));
+        }));
+
+        try {
+            async.awaitSuccess(AWAIT);
+        } finally {
+            tracesLogger.detachAppender(appender);
+            tracedVertx.close();
+        }
+    }
+
+    private void checkSpans(TestContext context, String traceId, String parentSpanId, List<JsonObject> spans) {
+        JsonObject httpSpan = span(spans, traceId, "GET " + API_RELEASES + "/:id");
+        context.assertEquals(parentSpanId, httpSpan.getString("parentSpanId"));
+        context.assertEquals(2, httpSpan.getInteger("kind"));
+
+        JsonObject clientSpan = span(spans, traceId, "ReleaseRepository/fetchReleaseById", 3);
+        context.assertEquals(httpSpan.getString("spanId"), clientSpan.getString("parentSpanId"));
+        JsonObject serverSpan = span(spans, traceId, "ReleaseRepository/fetchReleaseById", 2);
+        context.assertEquals(clientSpan.getString("spanId"), serverSpan.getString("parentSpanId"));
+        context.assertTrue(hasAttribute(serverSpan, Span.QUEUE_TIME_US));
+
+        JsonObject statementSpan = span(spans, traceId, "db.select");
+        context.assertEquals(serverSpan.getString("spanId"), statementSpan.getString("parentSpanId"));
+        context.assertTrue(hasAttribute(statementSpan, Span.QUEUE_TIME_US));
+        context.assertTrue(hasAttribute(statementSpan, Span.EXECUTION_TIME_US));
+    }
+
+    private static JsonObject span(List<JsonObject> spans, String traceId, String name) {
+        return span(spans, traceId, name, 0);
+    }
+
+    private static JsonObject span(List<JsonObject> spans, String traceId, String name, int kind) {
+        return spans.stream()
+                    .filter(span -> traceId.equals(span.getString("traceId")) && name.equals(span.getString("name"))
+                                    && (kind == 0 || kind == span.getInteger("kind")))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("No span " + name + " in " + spans));
+    }
+
+    private static boolean hasAttribute(JsonObject span, String key) {
+        return span.getJsonArray("attributes").stream()
+                   .anyMatch(attribute -> key.equals(((JsonObject) attribute).getString("key")));
+    }
+
+    private void checkUnknownField(TestContext context, Async async) {
+        webClient.get(API_RELEASES)
+                 .addQueryParam(Constants.FIELDS, "password")
+                 .send(context.asyncAssertSuccess(response -> {
+                     context.assertEquals(400, response.statusCode());
+                     async.complete();
+                 }));
+    }
+
     private JsonObject createRelease() {
         return new JsonObject()
                 .put(Constants.APPLICATION_NAME, "Sample")